@@ -0,0 +1,111 @@
+package erp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.ApiResponse;
+import erp.commonmodule.response.ApiResponseHttpMessageConverter;
+import erp.crmmodule.dto.CustomerDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * ApiResponse yanıt yazımı (DB yok): List<CustomerDto> zarfı, Spring MVC'nin yaptığı gibi HttpMessageConverter ile
+ * (bildirilen generic dönüş tipiyle) yanıt gövdesine yazılır.
+ * - jackson: MappingJackson2HttpMessageConverter, BeanSerializer (reflection ile getter çağrısı)
+ * - jackson_blackbird: aynısı BlackbirdModule ile (getter'lar LambdaMetafactory ile üretilir)
+ * - envelope_blackbird: ApiResponseHttpMessageConverter + BlackbirdModule (uygulamadaki varsayılan)
+ * Yanıt başına çöp için -prof gc (gc.alloc.rate.norm, byte/op).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiResponseBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int items;
+
+    @Param({"jackson", "jackson_blackbird", "envelope_blackbird"})
+    public String writer;
+
+    private MappingJackson2HttpMessageConverter jackson;
+    private ApiResponseHttpMessageConverter envelope;
+    private Type bodyType;
+    private List<CustomerDto> customers;
+    private ByteArrayOutputStream out;
+    private HttpOutputMessage message;
+
+    @Setup(Level.Trial)
+    public void setUp() throws NoSuchMethodException {
+        // Spring MVC'nin kullandığı ObjectMapper ile aynı varsayılanlar
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json();
+        if (writer.endsWith("_blackbird")) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper objectMapper = builder.build();
+        switch (writer) {
+            case "jackson", "jackson_blackbird" -> jackson = new MappingJackson2HttpMessageConverter(objectMapper);
+            case "envelope_blackbird" -> envelope = new ApiResponseHttpMessageConverter(objectMapper);
+            default -> throw new IllegalArgumentException(writer);
+        }
+        // Controller'ların ResponseEntity<ApiResponse<...>> dönüşündeki gövde tipi
+        bodyType = ApiResponseBenchmark.class.getDeclaredMethod("body").getGenericReturnType();
+
+        Random random = new Random(DataGenerator.SEED);
+        customers = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            CustomerDto customer = new CustomerDto();
+            customer.setId((long) i + 1);
+            customer.setName("Customer " + i);
+            customer.setEmail("customer" + i + "@example.com");
+            customer.setBonus(Money.ofCents(random.nextInt(DataGenerator.MAX_BONUS * 100)));
+            customers.add(customer);
+        }
+        out = new ByteArrayOutputStream(items * 128 + 256);
+        HttpHeaders headers = new HttpHeaders();
+        message = new HttpOutputMessage() {
+            @Override
+            public OutputStream getBody() {
+                return out;
+            }
+
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        out.reset();
+        ApiResponse<List<CustomerDto>> response = ApiResponse.success(customers);
+        if (envelope != null) {
+            envelope.write(response, MediaType.APPLICATION_JSON, message);
+        } else {
+            jackson.write(response, bodyType, MediaType.APPLICATION_JSON, message);
+        }
+        return out.size();
+    }
+
+    private static ApiResponse<List<CustomerDto>> body() {
+        return null;
+    }
+}
@@ -0,0 +1,83 @@
+package erp.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+
+/**
+ * Benchmark'lar için ErpApplication'ın aynısı; web sunucusu olmadan ve gömülü H2 (PostgreSQL modu) ile açılır.
+ * Her start() çağrısı ayrı bir in-memory veritabanı kullanır.
+ * -Dspring.profiles.active=bench-pg ile gerçek PostgreSQL'e (Flyway şeması) bağlanır; veritabanı her açılışta temizlenir.
+ */
+@SpringBootApplication(
+        scanBasePackages = {
+                "erp.commonmodule",
+                "erp.crmmodule",
+                "erp.invoicemodule"
+        }
+)
+@EnableJpaRepositories(basePackages = {
+        "erp.crmmodule.dao",
+        "erp.invoicemodule.dao"
+})
+@EntityScan(basePackages = {
+        "erp.crmmodule.models",
+        "erp.invoicemodule.models"
+})
+@EnableJpaAuditing
+public class BenchmarkApplication {
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        return builder()
+                .web(WebApplicationType.NONE)
+                .properties(properties)
+                .run();
+    }
+
+    /** Rastgele portta Tomcat ile açar (yük testi için). */
+    public static ConfigurableApplicationContext startWeb(boolean virtualThreads) {
+        return builder()
+                .web(WebApplicationType.SERVLET)
+                .properties("server.port=0", "spring.threads.virtual.enabled=" + virtualThreads)
+                .run();
+    }
+
+    /** bench-pg: her açılış aynı boş şemayla başlar (seed edilen müşteriler önceki koşuyla çakışmaz). */
+    @Bean
+    @Profile("bench-pg")
+    FlywayMigrationStrategy cleanMigrate() {
+        return flyway -> {
+            flyway.clean();
+            flyway.migrate();
+        };
+    }
+
+    /** Sonuç satırlarını etiketlemek için: "H2 2.2.224" / "PostgreSQL 16.2". */
+    public static String database(ConfigurableApplicationContext context) {
+        try (Connection connection = context.getBean(DataSource.class).getConnection()) {
+            DatabaseMetaData meta = connection.getMetaData();
+            return meta.getDatabaseProductName() + " " + meta.getDatabaseProductVersion();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(BenchmarkApplication.class)
+                .profiles("bench")
+                .properties("spring.datasource.url=jdbc:h2:mem:bench-" + System.nanoTime()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+    }
+}
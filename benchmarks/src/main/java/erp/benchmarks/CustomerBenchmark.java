@@ -0,0 +1,69 @@
+package erp.benchmarks;
+
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.CursorPage;
+import erp.crmmodule.dto.CustomerDto;
+import erp.crmmodule.services.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * CustomerServiceImpl hot path'leri: bonus delta uygulama ve (filtreli/filtresiz) müşteri listeleme.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class CustomerBenchmark {
+
+    private static final Money ONE = Money.ofCents(100);
+    // Bonuslar 0..10000 arasında düzgün dağılı → bu aralık müşterilerin ~%10'unu seçer
+    private static final Money MIN_BONUS = Money.ofCents(450_000);
+    private static final Money MAX_BONUS = Money.ofCents(550_000);
+
+    @Param({"10000", "1000000"})
+    public int customers;
+
+    @Param({"100"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private long[] customerIds;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        customerService = context.getBean(CustomerService.class);
+        customerIds = DataGenerator.seedCustomers(context, customers, false);
+        random = new SplittableRandom(DataGenerator.SEED);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void applyDelta() {
+        long customerId = customerIds[random.nextInt(customerIds.length)];
+        customerService.applyDelta(customerId, ONE, "bench");
+    }
+
+    @Benchmark
+    public CursorPage<CustomerDto> listCustomers() {
+        return customerService.listCustomers(null, null, null, pageSize);
+    }
+
+    @Benchmark
+    public CursorPage<CustomerDto> listCustomersWithBonusFilter() {
+        return customerService.listCustomers(MIN_BONUS, MAX_BONUS, null, pageSize);
+    }
+}
@@ -0,0 +1,87 @@
+package erp.benchmarks;
+
+import erp.commonmodule.money.Money;
+import erp.crmmodule.dto.BonusDeltaDto;
+import erp.crmmodule.services.CustomerService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Sıcak müşterilerde şeritli / şeritsiz (erp.customers.lanes.enabled) bakiye değişimi: 12 thread tekil applyDelta,
+ * 4 thread aynı müşterilere toplu applyBonusChanges (@Version). Sonuç satırındaki hot:optimisticFailures toplu
+ * güncellemenin @Version çakışmasıyla düşen çağrılarıdır; hot:otherFailures diğer hatalardır (ör. 1008).
+ *
+ * mvn -pl benchmarks exec:exec -Djmh.args="CustomerLanesBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class CustomerLanesBenchmark {
+
+    private static final Money ONE = Money.ofCents(1);
+
+    @Param({"true", "false"})
+    public boolean lanes;
+
+    @Param({"1", "16"})
+    public int hotCustomers;
+
+    private ConfigurableApplicationContext context;
+    private CustomerService customerService;
+    private long[] customerIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Failures {
+        public long optimisticFailures;
+        public long otherFailures;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("erp.customers.lanes.enabled=" + lanes);
+        customerService = context.getBean(CustomerService.class);
+        customerIds = DataGenerator.seedCustomers(context, hotCustomers, false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Group("hot")
+    @GroupThreads(12)
+    public void applyDelta(Failures failures) {
+        long customerId = customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+        try {
+            customerService.applyDelta(customerId, ONE, "bench");
+        } catch (RuntimeException ex) {
+            failures.otherFailures++;
+        }
+    }
+
+    @Benchmark
+    @Group("hot")
+    @GroupThreads(4)
+    public void applyBonusChanges(Failures failures) {
+        long customerId = customerIds[ThreadLocalRandom.current().nextInt(customerIds.length)];
+        try {
+            customerService.applyBonusChanges(Map.of(customerId, List.of(new BonusDeltaDto(ONE, "bench"))));
+        } catch (ObjectOptimisticLockingFailureException ex) {
+            failures.optimisticFailures++;
+        } catch (RuntimeException ex) {
+            failures.otherFailures++;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package erp.benchmarks;
+
+import erp.commonmodule.money.Money;
+import erp.crmmodule.models.CustomerEntity;
+import erp.invoicemodule.dto.InvoiceLineDto;
+import erp.invoicemodule.dto.InvoiceRequestDto;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+
+/**
+ * Tekrarlanabilir test verisi (sabit seed).
+ * - Müşteriler StatelessSession ile yazılır (persistence context birikmez, 1M kayıt da sabit bellekle yüklenir).
+ * - Bonuslar 0..MAX_BONUS aralığında düzgün dağılır; satış faturaları için SPEND_RESERVE eklenir.
+ */
+public final class DataGenerator {
+
+    public static final long SEED = 42L;
+    public static final int MAX_BONUS = 10_000;
+    public static final Money SPEND_RESERVE = Money.ofCents(100_000_000_000L);
+
+    private DataGenerator() {
+    }
+
+    /** @return eklenen müşteri id'leri (ekleme sırasıyla) */
+    public static long[] seedCustomers(ConfigurableApplicationContext context, int count, boolean withSpendReserve) {
+        SessionFactory sessionFactory = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class);
+        Random random = new Random(SEED);
+        Instant now = Instant.now();
+        long[] ids = new long[count];
+
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            for (int i = 0; i < count; i++) {
+                CustomerEntity customer = new CustomerEntity();
+                customer.setName("Customer " + i);
+                customer.setEmail("customer" + i + "@bench.local");
+                Money bonus = Money.ofCents(random.nextInt(MAX_BONUS + 1) * 100L);
+                customer.setBonus(withSpendReserve ? bonus.plus(SPEND_RESERVE) : bonus);
+                // StatelessSession JPA auditing callback'lerini çalıştırmaz
+                customer.setCreatedAt(now);
+                customer.setUpdatedAt(now);
+                ids[i] = (Long) session.insert(customer);
+            }
+            tx.commit();
+        }
+        return ids;
+    }
+
+    /**
+     * Satış faturası istekleri; amount satır toplamına (quantity × price) eşittir.
+     */
+    public static InvoiceRequestDto[] invoices(long[] customerIds, int linesPerInvoice, int count) {
+        Random random = new Random(SEED);
+        InvoiceRequestDto[] requests = new InvoiceRequestDto[count];
+        for (int i = 0; i < count; i++) {
+            requests[i] = invoice(random, customerIds[random.nextInt(customerIds.length)], linesPerInvoice);
+        }
+        return requests;
+    }
+
+    public static InvoiceRequestDto invoice(Random random, long customerId, int linesPerInvoice) {
+        List<InvoiceLineDto> lines = lines(random, linesPerInvoice);
+        Money amount = Money.ZERO;
+        for (InvoiceLineDto line : lines) {
+            amount = amount.plus(line.getPrice().times(line.getQuantity()));
+        }
+
+        InvoiceRequestDto request = new InvoiceRequestDto();
+        request.setCustomerId(customerId);
+        request.setType("RETAIL_SALE");
+        request.setAmount(amount);
+        request.setLines(lines);
+        return request;
+    }
+
+    public static List<InvoiceLineDto> lines(Random random, int count) {
+        List<InvoiceLineDto> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            InvoiceLineDto line = new InvoiceLineDto();
+            line.setProductId(1L + random.nextInt(10_000));
+            line.setQuantity(1 + random.nextInt(10));
+            line.setPrice(Money.ofCents(100 + random.nextInt(100_000)));
+            lines.add(line);
+        }
+        return lines;
+    }
+}
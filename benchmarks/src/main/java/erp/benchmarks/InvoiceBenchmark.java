@@ -0,0 +1,53 @@
+package erp.benchmarks;
+
+import erp.invoicemodule.dto.InvoiceDto;
+import erp.invoicemodule.dto.InvoiceRequestDto;
+import erp.invoicemodule.services.InvoiceService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * InvoiceServiceImpl.createInvoice: doğrulama + satır mapping + bonus delta + fatura/satır insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx4g"})
+public class InvoiceBenchmark {
+
+    private static final int REQUEST_POOL = 1024;
+
+    @Param({"10000", "1000000"})
+    public int customers;
+
+    @Param({"1", "50", "500"})
+    public int linesPerInvoice;
+
+    private ConfigurableApplicationContext context;
+    private InvoiceService invoiceService;
+    private InvoiceRequestDto[] requests;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        invoiceService = context.getBean(InvoiceService.class);
+        long[] customerIds = DataGenerator.seedCustomers(context, customers, true);
+        requests = DataGenerator.invoices(customerIds, linesPerInvoice, REQUEST_POOL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public InvoiceDto createInvoice() {
+        return invoiceService.createInvoice(requests[next++ & (REQUEST_POOL - 1)]);
+    }
+}
@@ -0,0 +1,62 @@
+package erp.benchmarks;
+
+import erp.commonmodule.money.Money;
+import erp.invoicemodule.dto.InvoiceLineDto;
+import erp.invoicemodule.dto.InvoiceRequestDto;
+import erp.invoicemodule.services.InvoiceTotals;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * Fatura tutarı / satır toplamı kontrolü (DB yok): BigDecimal fiyatlarla adım başına BigDecimal üreten stream reduce
+ * ile Money (kuruş, long) fiyatlarla InvoiceTotals. Satır başına çöp için -prof gc.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvoiceTotalBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int linesPerInvoice;
+
+    private record DecimalLine(BigDecimal price, int quantity) {
+    }
+
+    private Money amount;
+    private List<InvoiceLineDto> lines;
+    private BigDecimal decimalAmount;
+    private List<DecimalLine> decimalLines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InvoiceRequestDto request = DataGenerator.invoice(new Random(DataGenerator.SEED), 1L, linesPerInvoice);
+        amount = request.getAmount();
+        lines = request.getLines();
+        decimalAmount = amount.toBigDecimal();
+        decimalLines = lines.stream().map(l -> new DecimalLine(l.getPrice().toBigDecimal(), l.getQuantity())).toList();
+        if (!naive() || !scaledLong()) {
+            throw new IllegalStateException("toplamlar uyuşmuyor");
+        }
+    }
+
+    @Benchmark
+    public boolean naive() {
+        BigDecimal total = decimalLines.stream()
+                .map(line -> line.price().multiply(BigDecimal.valueOf(line.quantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return decimalAmount.compareTo(total) == 0;
+    }
+
+    @Benchmark
+    public boolean scaledLong() {
+        return InvoiceTotals.matches(amount, lines);
+    }
+}
@@ -0,0 +1,75 @@
+package erp.benchmarks;
+
+import erp.commonmodule.money.Money;
+import erp.crmmodule.models.CustomerEntity;
+import erp.invoicemodule.dto.InvoiceDto;
+import erp.invoicemodule.dto.InvoiceLineDto;
+import erp.invoicemodule.enums.InvoiceType;
+import erp.invoicemodule.mapper.InvoiceLineMapper;
+import erp.invoicemodule.mapper.InvoiceMapper;
+import erp.invoicemodule.models.InvoiceEntity;
+import erp.invoicemodule.models.InvoiceLineEntity;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * MapStruct dönüşümleri (DB yok): InvoiceLineMapper.toEntityList ve InvoiceMapper.toDto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    @Param({"1", "50", "500"})
+    public int linesPerInvoice;
+
+    private AnnotationConfigApplicationContext context;
+    private InvoiceMapper invoiceMapper;
+    private InvoiceLineMapper invoiceLineMapper;
+    private List<InvoiceLineDto> lineDtos;
+    private InvoiceEntity invoice;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // componentModel = "spring": InvoiceMapperImpl, InvoiceLineMapperImpl'e Spring ile bağlanır
+        context = new AnnotationConfigApplicationContext("erp.invoicemodule.mapper");
+        invoiceMapper = context.getBean(InvoiceMapper.class);
+        invoiceLineMapper = context.getBean(InvoiceLineMapper.class);
+
+        lineDtos = DataGenerator.lines(new Random(DataGenerator.SEED), linesPerInvoice);
+
+        CustomerEntity customer = new CustomerEntity();
+        customer.setId(1L);
+        invoice = new InvoiceEntity();
+        invoice.setId(1L);
+        invoice.setCustomer(customer);
+        invoice.setType(InvoiceType.RETAIL_SALE);
+        invoice.setTotalAmount(Money.ofCents(1_000));
+        List<InvoiceLineEntity> lines = invoiceLineMapper.toEntityList(lineDtos);
+        lines.forEach(line -> line.setInvoice(invoice));
+        invoice.setLines(lines);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<InvoiceLineEntity> lineDtosToEntities() {
+        return invoiceLineMapper.toEntityList(lineDtos);
+    }
+
+    @Benchmark
+    public InvoiceDto invoiceToDto() {
+        return invoiceMapper.toDto(invoice);
+    }
+}
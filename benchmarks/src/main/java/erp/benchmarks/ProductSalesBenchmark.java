@@ -0,0 +1,88 @@
+package erp.benchmarks;
+
+import erp.invoicemodule.analytics.ProductSalesStore;
+import erp.invoicemodule.dto.ProductSalesDto;
+import erp.invoicemodule.dto.SalesBucketDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+
+/**
+ * ProductSalesStore sorguları (DB yok): 10k ürün, 1 yıla yayılmış fatura satırı olguları (gün sırasıyla, DB'den yüklemedeki gibi).
+ * Yükleme sonrası store'un tahmini belleği ve ölçülen heap artışı setup'ta yazdırılır.
+ * parallelism: ForkJoinPool paralelliği (0: işlemci sayısı).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProductSalesBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+    private static final LocalDate LAST_DAY = LocalDate.of(2026, 6, 30);
+    private static final int DAYS = 365;
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    @Param({"1", "0"})
+    public int parallelism;
+
+    private ProductSalesStore store;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeap();
+        int firstDay = (int) LAST_DAY.minusDays(DAYS - 1).toEpochDay();
+        store = ProductSalesStore.inMemory(parallelism, sink -> {
+            Random random = new Random(DataGenerator.SEED);
+            for (int i = 0; i < rows; i++) {
+                int quantity = 1 + random.nextInt(10);
+                long priceCents = 100 + random.nextInt(100_000);
+                int sign = random.nextInt(20) == 0 ? -1 : 1; // ~%5 iade
+                sink.accept(1L + random.nextInt(PRODUCTS), firstDay + (int) ((long) i * DAYS / rows),
+                        sign * quantity, sign * priceCents * quantity);
+            }
+        });
+        System.out.printf("%nstore: %s, ölçülen heap artışı ~%d MB%n", store.stats(), (usedHeap() - before) >> 20);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        store.shutdown();
+    }
+
+    @Benchmark
+    public List<ProductSalesDto> top10LastMonth() {
+        return store.top(LAST_DAY.minusDays(29), LAST_DAY, 10, ProductSalesStore.Order.AMOUNT);
+    }
+
+    @Benchmark
+    public List<ProductSalesDto> top10Year() {
+        return store.top(LAST_DAY.minusDays(DAYS - 1), LAST_DAY, 10, ProductSalesStore.Order.AMOUNT);
+    }
+
+    @Benchmark
+    public List<SalesBucketDto> dailyOneProductYear() {
+        return store.buckets(42L, LAST_DAY.minusDays(DAYS - 1), LAST_DAY, ProductSalesStore.Bucket.DAY);
+    }
+
+    @Benchmark
+    public List<SalesBucketDto> monthlyAllProductsYear() {
+        return store.buckets(null, LAST_DAY.minusDays(DAYS - 1), LAST_DAY, ProductSalesStore.Bucket.MONTH);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,120 @@
+package erp.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import erp.invoicemodule.dto.InvoiceRequestDto;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Platform thread ve virtual thread modlarını aynı yük altında karşılaştırır (p50/p99 gecikme + throughput).
+ * Uygulama gerçek Tomcat ile rastgele portta açılır; istekler %50 fatura oluşturma, %50 müşteri listesi.
+ *
+ * mvn -pl benchmarks exec:exec -Dbench.main=erp.benchmarks.ThreadModeLoadTest -Dbench.jvmArgs="-Dload.concurrency=1000"
+ * Varsayılan veritabanı gömülü H2'dir (sonuçlar yalnızca modlar arası karşılaştırma içindir); PostgreSQL için
+ * bench.jvmArgs'a -Dspring.profiles.active=bench-pg eklenir. Her sonuç satırı ölçüldüğü veritabanıyla etiketlenir.
+ * Parametreler: load.customers (10000), load.concurrency (1000), load.requests (20000), load.warmup (2000)
+ */
+public final class ThreadModeLoadTest {
+
+    private ThreadModeLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int customers = Integer.getInteger("load.customers", 10_000);
+        int concurrency = Integer.getInteger("load.concurrency", 1_000);
+        int requests = Integer.getInteger("load.requests", 20_000);
+        int warmup = Integer.getInteger("load.warmup", 2_000);
+
+        System.out.printf("customers=%d concurrency=%d requests=%d%n", customers, concurrency, requests);
+        System.out.printf("%-10s %12s %10s %10s %10s %8s  %s%n", "mode", "req/s", "p50 ms", "p99 ms", "max ms", "errors", "database");
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            Result result = run(virtualThreads, customers, concurrency, requests, warmup);
+            System.out.printf("%-10s %12.1f %10.2f %10.2f %10.2f %8d  %s%n",
+                    virtualThreads ? "virtual" : "platform",
+                    result.throughput, result.p50Ms, result.p99Ms, result.maxMs, result.errors, result.database);
+        }
+    }
+
+    private static Result run(boolean virtualThreads, int customers, int concurrency, int requests, int warmup) throws Exception {
+        try (ConfigurableApplicationContext context = BenchmarkApplication.startWeb(virtualThreads)) {
+            long[] customerIds = DataGenerator.seedCustomers(context, customers, true);
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+
+            InvoiceRequestDto[] invoices = DataGenerator.invoices(customerIds, 10, 1024);
+            String[] invoiceBodies = new String[invoices.length];
+            for (int i = 0; i < invoices.length; i++) {
+                invoiceBodies[i] = objectMapper.writeValueAsString(invoices[i]);
+            }
+
+            URI invoiceUri = URI.create("http://localhost:" + port + "/api/invoices");
+            URI listUri = URI.create("http://localhost:" + port + "/api/customers?limit=20");
+
+            try (ExecutorService clientThreads = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder().executor(clientThreads).build();
+                Load load = (n) -> {
+                    HttpRequest request = (n & 1) == 0
+                            ? HttpRequest.newBuilder(invoiceUri)
+                                .header("Content-Type", "application/json")
+                                .POST(HttpRequest.BodyPublishers.ofString(invoiceBodies[n & 1023]))
+                                .build()
+                            : HttpRequest.newBuilder(listUri).GET().build();
+                    return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                };
+
+                fire(load, concurrency, warmup, null);
+                return fire(load, concurrency, requests, BenchmarkApplication.database(context));
+            }
+        }
+    }
+
+    private static Result fire(Load load, int concurrency, int requests, String database) throws InterruptedException {
+        long[] latencies = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+
+        long start = System.nanoTime();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < concurrency; w++) {
+                workers.submit(() -> {
+                    int n;
+                    while ((n = next.getAndIncrement()) < requests) {
+                        long t0 = System.nanoTime();
+                        try {
+                            if (load.send(n) != 200) errors.incrementAndGet();
+                        } catch (Exception ex) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[n] = System.nanoTime() - t0;
+                    }
+                });
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        return new Result(
+                requests / (elapsed / 1e9),
+                latencies[(int) (requests * 0.50)] / 1e6,
+                latencies[Math.min(requests - 1, (int) (requests * 0.99))] / 1e6,
+                latencies[requests - 1] / 1e6,
+                errors.get(),
+                database);
+    }
+
+    @FunctionalInterface
+    private interface Load {
+        int send(int n) throws Exception;
+    }
+
+    private record Result(double throughput, double p50Ms, double p99Ms, double maxMs, int errors, String database) {
+    }
+}
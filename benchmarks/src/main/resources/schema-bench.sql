@@ -0,0 +1,10 @@
+-- Flyway olmadan (H2 + ddl-auto) entity'ye bağlı olmayan tablolar
+create table if not exists idempotency_keys (
+    scope         varchar(200)                not null,
+    idem_key      varchar(100)                not null,
+    request_hash  varbinary(32)               not null,
+    response_body text,
+    created_at    timestamp(6) with time zone not null,
+    expires_at    timestamp(6) with time zone not null,
+    primary key (scope, idem_key)
+);
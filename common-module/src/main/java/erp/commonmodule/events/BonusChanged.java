@@ -0,0 +1,17 @@
+package erp.commonmodule.events;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+
+/**
+ * Müşteri bonus bakiyesi değişti (delta > 0 ekleme/iade, delta < 0 harcama); her ledger kaydı için bir olay.
+ */
+public record BonusChanged(Long customerId, BigDecimal delta, String description, Instant changedAt)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return customerId;
+    }
+}
@@ -0,0 +1,11 @@
+package erp.commonmodule.events;
+
+
+/**
+ * Modüller arası domain event'i. Outbox'a JSON olarak yazılır; event_type = sınıfın basit adı.
+ */
+public interface DomainEvent {
+
+    /** Olayın ait olduğu kayıt (ör. müşteri id); outbox'ta izleme için ayrı kolonda tutulur. */
+    Long aggregateId();
+}
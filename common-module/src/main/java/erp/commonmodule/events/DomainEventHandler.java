@@ -0,0 +1,27 @@
+package erp.commonmodule.events;
+
+import java.util.List;
+
+
+/**
+ * Outbox'tan gelen olayların tüketicisi (Spring bean olarak tanımlanır, OutboxDispatcher otomatik bulur).
+ * handle() dispatcher'ın transaction'ında çağrılır: handler'ın DB yazmaları outbox kaydının silinmesiyle
+ * birlikte commit olur (DB tarafında tekrar işlenmez). Teslimat en-az-bir-kez olduğundan DB dışı yan etkiler
+ * (bildirim, harici servis) tekrarları eventId ile ayıklamalıdır.
+ */
+public interface DomainEventHandler<E extends DomainEvent> {
+
+    Class<E> eventType();
+
+    void handle(long eventId, E event);
+
+    /**
+     * Dispatcher bir batch'teki aynı tipteki olayları (yayın sırasıyla) tek çağrıda verir.
+     * Toplanabilir işler (sayaç, projection) için override edilip tek yazmaya indirilebilir.
+     */
+    default void handleAll(List<Long> eventIds, List<E> events) {
+        for (int i = 0; i < events.size(); i++) {
+            handle(eventIds.get(i), events.get(i));
+        }
+    }
+}
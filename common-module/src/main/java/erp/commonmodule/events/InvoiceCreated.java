@@ -0,0 +1,17 @@
+package erp.commonmodule.events;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+
+/**
+ * Fatura (satış/iade) oluşturuldu. invoiceType: InvoiceType adı (crm-module invoice-module'e bağımlı değil).
+ */
+public record InvoiceCreated(Long invoiceId, Long customerId, String invoiceType, BigDecimal totalAmount, Instant createdAt)
+        implements DomainEvent {
+
+    @Override
+    public Long aggregateId() {
+        return customerId;
+    }
+}
@@ -0,0 +1,84 @@
+package erp.commonmodule.events;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * outbox_events tablosu. Kilitleme sorguları transaction içinde çağrılmalıdır;
+ * SKIP LOCKED sayesinde birden fazla instance aynı olayları beklemeden paylaşır.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OutboxDao {
+
+    // 4 parametre/satır; PostgreSQL tek statement'ta en fazla 32767 parametre kabul eder.
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final RowMapper<OutboxEventRow> ROW_MAPPER = (rs, i) -> new OutboxEventRow(
+            rs.getLong("id"),
+            rs.getString("event_type"),
+            rs.getString("payload"),
+            rs.getInt("attempts"),
+            rs.getTimestamp("created_at").toInstant());
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(List<String> types, List<Long> aggregateIds, List<String> payloads) {
+        Timestamp now = Timestamp.from(Instant.now());
+        for (int from = 0; from < types.size(); from += ROWS_PER_STATEMENT) {
+            int to = Math.min(from + ROWS_PER_STATEMENT, types.size());
+
+            StringBuilder sql = new StringBuilder(
+                    "insert into outbox_events (event_type, aggregate_id, payload, created_at, available_at) values ");
+            List<Object> args = new ArrayList<>((to - from) * 4);
+            for (int i = from; i < to; i++) {
+                sql.append(i == from ? "" : ", ").append("(?, ?, cast(? as jsonb), ?, ?)");
+                args.add(types.get(i));
+                args.add(aggregateIds.get(i));
+                args.add(payloads.get(i));
+                args.add(now);
+                args.add(now);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    /** Zamanı gelmiş en eski olaylar (id sırası = yayın sırası). */
+    public List<OutboxEventRow> lockBatch(int limit) {
+        return jdbcTemplate.query(
+                "select id, event_type, payload, attempts, created_at from outbox_events " +
+                        "where available_at <= now() order by id limit ? for update skip locked",
+                ROW_MAPPER, limit);
+    }
+
+    /** Başka bir dispatcher kilitlediyse ya da işlendiyse boş döner. */
+    public List<OutboxEventRow> lockById(long id) {
+        return jdbcTemplate.query(
+                "select id, event_type, payload, attempts, created_at from outbox_events " +
+                        "where id = ? for update skip locked",
+                ROW_MAPPER, id);
+    }
+
+    public void delete(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update("delete from outbox_events where id = any(?)",
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+    }
+
+    /** availableAt = TimeBounds.MAX: yeniden denenmez (dead letter), satır incelenmek üzere tabloda kalır. */
+    public void markFailed(long id, int attempts, Instant availableAt, String error) {
+        jdbcTemplate.update("update outbox_events set attempts = ?, available_at = ?, last_error = ? where id = ?",
+                attempts, Timestamp.from(availableAt), error, id);
+    }
+}
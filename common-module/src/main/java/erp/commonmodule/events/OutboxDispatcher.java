@@ -0,0 +1,176 @@
+package erp.commonmodule.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import erp.commonmodule.util.TimeBounds;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Outbox poller: zamanı gelmiş olayları batch'ler halinde okuyup handler'lara dağıtır.
+ * - Hızlı yol: batch tek transaction'da işlenir (handler'a tip başına tek handleAll çağrısı), olaylar aynı transaction'da silinir.
+ *   Sıra aynı tip içinde korunur; farklı tipler arasında sıra garantisi yoktur
+ * - Batch'te bir handler hata verirse batch geri alınır, olaylar tek tek kendi transaction'larında denenir;
+ *   hata veren olay üstel bekleme ile ertelenir, max-attempts sonrası dead letter olarak tabloda kalır
+ * Metrikler: erp.outbox.dispatched{type}, erp.outbox.failed{type}, erp.outbox.lag{type} (yayın → işlenme süresi).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "erp.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxDao outboxDao;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registry;
+    private final Map<String, List<DomainEventHandler<?>>> handlersByType = new HashMap<>();
+    private final Map<String, Class<? extends DomainEvent>> classByType = new HashMap<>();
+    private final int batchSize;
+    private final int maxAttempts;
+
+    public OutboxDispatcher(OutboxDao outboxDao,
+                            TransactionTemplate transactionTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry registry,
+                            List<DomainEventHandler<?>> handlers,
+                            @Value("${erp.outbox.batch-size:200}") int batchSize,
+                            @Value("${erp.outbox.max-attempts:10}") int maxAttempts) {
+        this.outboxDao = outboxDao;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        for (DomainEventHandler<?> handler : handlers) {
+            String type = handler.eventType().getSimpleName();
+            handlersByType.computeIfAbsent(type, t -> new ArrayList<>()).add(handler);
+            classByType.put(type, handler.eventType());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${erp.outbox.poll-interval-ms:200}")
+    public void poll() {
+        int n;
+        do {
+            n = dispatchBatch();
+        } while (n == batchSize);
+    }
+
+    /**
+     * @return okunan olay sayısı (batch dolu ise kuyrukta olay kalmış olabilir)
+     */
+    private int dispatchBatch() {
+        List<OutboxEventRow> claimed = new ArrayList<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                claimed.addAll(outboxDao.lockBatch(batchSize));
+                Map<String, List<OutboxEventRow>> byType = new LinkedHashMap<>();
+                for (OutboxEventRow row : claimed) {
+                    byType.computeIfAbsent(row.eventType(), t -> new ArrayList<>()).add(row);
+                }
+                byType.values().forEach(this::dispatch);
+                outboxDao.delete(claimed.stream().map(OutboxEventRow::id).toList());
+            });
+            claimed.forEach(this::dispatched);
+        } catch (RuntimeException batchFailure) {
+            for (OutboxEventRow row : claimed) {
+                dispatchSingle(row.id());
+            }
+        }
+        return claimed.size();
+    }
+
+    private void dispatchSingle(long id) {
+        OutboxEventRow[] locked = new OutboxEventRow[1];
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<OutboxEventRow> rows = outboxDao.lockById(id);
+                if (rows.isEmpty()) {
+                    return; // başka bir dispatcher aldı/işledi
+                }
+                locked[0] = rows.get(0);
+                dispatch(rows);
+                outboxDao.delete(List.of(id));
+            });
+            if (locked[0] != null) {
+                dispatched(locked[0]);
+            }
+        } catch (RuntimeException ex) {
+            if (locked[0] != null) {
+                failed(locked[0], ex);
+            }
+        }
+    }
+
+    /** rows: aynı tipteki olaylar. */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void dispatch(List<OutboxEventRow> rows) {
+        List<DomainEventHandler<?>> handlers = handlersByType.get(rows.get(0).eventType());
+        if (handlers == null) {
+            return; // tüketicisi kaldırılmış olay tipi: silinir
+        }
+        List<Long> ids = new ArrayList<>(rows.size());
+        List<DomainEvent> events = new ArrayList<>(rows.size());
+        for (OutboxEventRow row : rows) {
+            ids.add(row.id());
+            events.add(fromJson(row));
+        }
+        for (DomainEventHandler handler : handlers) {
+            handler.handleAll(ids, events);
+        }
+    }
+
+    private DomainEvent fromJson(OutboxEventRow row) {
+        try {
+            return objectMapper.readValue(row.payload(), classByType.get(row.eventType()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Olay okunamadı: " + row.eventType() + "#" + row.id(), ex);
+        }
+    }
+
+    private void dispatched(OutboxEventRow row) {
+        Counter.builder("erp.outbox.dispatched").tag("type", row.eventType()).register(registry).increment();
+        Timer.builder("erp.outbox.lag")
+                .description("Olayın yayınlanmasından işlenmesine kadar geçen süre")
+                .tag("type", row.eventType())
+                .register(registry)
+                .record(Duration.between(row.createdAt(), Instant.now()));
+    }
+
+    private void failed(OutboxEventRow row, RuntimeException ex) {
+        Counter.builder("erp.outbox.failed").tag("type", row.eventType()).register(registry).increment();
+        int attempts = row.attempts() + 1;
+        Instant availableAt;
+        if (attempts >= maxAttempts) {
+            availableAt = TimeBounds.MAX;
+            log.error("Outbox olayı {} denemede işlenemedi, dead letter: {}#{}", attempts, row.eventType(), row.id(), ex);
+        } else {
+            Duration backoff = Duration.ofSeconds(1L << Math.min(attempts - 1, 20));
+            availableAt = Instant.now().plus(backoff.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : backoff);
+            log.warn("Outbox olayı işlenemedi ({}. deneme), {} sonra tekrar: {}#{}: {}",
+                    attempts, availableAt, row.eventType(), row.id(), ex.getMessage());
+        }
+        String error = String.valueOf(ex.getMessage());
+        transactionTemplate.executeWithoutResult(status -> outboxDao.markFailed(
+                row.id(), attempts, availableAt, error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error));
+    }
+}
@@ -0,0 +1,10 @@
+package erp.commonmodule.events;
+
+import java.time.Instant;
+
+
+/**
+ * outbox_events satırı (dispatcher'ın okuduğu hali).
+ */
+public record OutboxEventRow(long id, String eventType, String payload, int attempts, Instant createdAt) {
+}
@@ -0,0 +1,80 @@
+package erp.commonmodule.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+
+/**
+ * Domain event'lerini iş transaction'ı içinde outbox_events'e yazar (olay ancak iş commit olursa görünür).
+ * Tüketicisi (DomainEventHandler) olmayan olay tipleri hiç yazılmaz; istek yoluna gereksiz insert eklenmez.
+ */
+@Component
+public class OutboxPublisher {
+
+    private final OutboxDao outboxDao;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Set<String> handledTypes;
+
+    public OutboxPublisher(OutboxDao outboxDao,
+                           ObjectMapper objectMapper,
+                           List<DomainEventHandler<?>> handlers,
+                           @Value("${erp.outbox.enabled:true}") boolean enabled) {
+        this.outboxDao = outboxDao;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.handledTypes = handlers.stream()
+                .map(handler -> handler.eventType().getSimpleName())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /** Olay tipi outbox'a yazılıyor mu; olayları SQL içinde kendisi yazan toplu yollar (ör. CSV import) için. */
+    public boolean publishes(Class<? extends DomainEvent> eventType) {
+        return enabled && handledTypes.contains(eventType.getSimpleName());
+    }
+
+    public void publish(DomainEvent event) {
+        publishAll(List.of(event));
+    }
+
+    public void publishAll(List<? extends DomainEvent> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        List<String> types = new ArrayList<>(events.size());
+        List<Long> aggregateIds = new ArrayList<>(events.size());
+        List<String> payloads = new ArrayList<>(events.size());
+        for (DomainEvent event : events) {
+            String type = event.getClass().getSimpleName();
+            if (!handledTypes.contains(type)) {
+                continue;
+            }
+            types.add(type);
+            aggregateIds.add(event.aggregateId());
+            payloads.add(toJson(event));
+        }
+        if (types.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Outbox olayları iş transaction'ı içinde yazılmalı");
+        }
+        outboxDao.insert(types, aggregateIds, payloads);
+    }
+
+    private String toJson(DomainEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Olay serileştirilemedi: " + event.getClass().getSimpleName(), ex);
+        }
+    }
+}
@@ -17,6 +17,11 @@ public abstract class BaseException extends RuntimeException {
         this.error = error;
     }
 
+    protected BaseException(ErrorCode error, String message) {
+        super(message);
+        this.error = error;
+    }
+
     public int getCode() { return error.getCode(); }
 
 
@@ -18,6 +18,9 @@ public enum ErrorCode {
     CUSTOMER_NOT_FOUND(1002, HttpStatus.NOT_FOUND, "Müşteri bulunamadı"),
     BONUS_NEGATIVE_OR_ZERO(1004, HttpStatus.UNPROCESSABLE_ENTITY, "Negatif veya sıfır bonus eklenemez"),
     BONUS_BALANCE_NEGATIVE(1005, HttpStatus.BAD_REQUEST, "Bonus bakiyesi sıfırın altına düşemez"),
+    BONUS_STATS_UNAVAILABLE(1006, HttpStatus.SERVICE_UNAVAILABLE, "Bonus istatistikleri henüz hazır değil"),
+    CUSTOMER_IMPORT_INVALID_CSV(1007, HttpStatus.BAD_REQUEST, "CSV okunamadı (başlık: name,email,bonus)"),
+    CUSTOMER_LANE_BUSY(1008, HttpStatus.SERVICE_UNAVAILABLE, "Müşterinin bekleyen bonus işlemleri çok uzun sürdü, tekrar deneyin"),
 
     // --- Invoice (2000-2999)
     INVOICE_CUSTOMER_NOT_FOUND(2001, HttpStatus.NOT_FOUND, "Müşteri bulunamadı"),
@@ -25,10 +28,21 @@ public enum ErrorCode {
     INVOICE_NEGATIVE_AMOUNT(2003, HttpStatus.UNPROCESSABLE_ENTITY, "Negatif veya sıfır bonus tutarı ile işlem yapılamaz"),
     INVOICE_INVALID_TYPE(2004, HttpStatus.BAD_REQUEST, "Geçersiz fatura tipi"),
     INVOICE_BALANCE_BELOW_ZERO(2005, HttpStatus.BAD_REQUEST, "Bonus bakiyesi sıfırın altına düşemez"),
+    INVOICE_NOT_FOUND(2006, HttpStatus.NOT_FOUND, "Fatura bulunamadı"),
+    PRODUCT_ANALYTICS_UNAVAILABLE(2007, HttpStatus.SERVICE_UNAVAILABLE, "Ürün satış analitiği henüz hazır değil"),
+    PRODUCT_ANALYTICS_INVALID_QUERY(2008, HttpStatus.BAD_REQUEST, "Geçersiz analitik sorgusu"),
+    INVOICE_TOTAL_MISMATCH(2009, HttpStatus.UNPROCESSABLE_ENTITY, "Fatura tutarı satır toplamıyla uyuşmuyor"),
+    INVOICE_INVALID_LINE(2010, HttpStatus.BAD_REQUEST, "Geçersiz fatura satırı"),
+    INVOICE_BATCH_MALFORMED(2011, HttpStatus.BAD_REQUEST, "Toplu fatura gövdesi bu kayıtta bozuk; sonraki kayıtlar okunmadı"),
 
     // --- Genel
     VALIDATION_FAILED(4000, HttpStatus.UNPROCESSABLE_ENTITY, "Geçersiz veri"),
+    PAGINATION_INVALID_CURSOR(4001, HttpStatus.BAD_REQUEST, "Geçersiz sayfalama imleci"),
+    IDEMPOTENCY_KEY_INVALID(4002, HttpStatus.BAD_REQUEST, "Geçersiz Idempotency-Key"),
+    IDEMPOTENCY_KEY_REUSED(4003, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key farklı bir istek için kullanılmış"),
+    EXPORT_FORMAT_INVALID(4004, HttpStatus.BAD_REQUEST, "Geçersiz export formatı (csv | ndjson)"),
     DB_CONSTRAINT_VIOLATION(4090, HttpStatus.CONFLICT, "Veritabanı bütünlük hatası"),
+    IDEMPOTENCY_IN_PROGRESS(4091, HttpStatus.CONFLICT, "Aynı Idempotency-Key ile istek hâlâ işleniyor"),
     INTERNAL_ERROR(9000, HttpStatus.INTERNAL_SERVER_ERROR, "Beklenmeyen bir hata");
 
     private final int code;
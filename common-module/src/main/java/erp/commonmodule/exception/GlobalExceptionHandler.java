@@ -2,6 +2,9 @@ package erp.commonmodule.exception;
 
 import erp.commonmodule.response.ApiResponse;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -14,12 +17,17 @@ import java.util.stream.Collectors;
 /**
  * Uygulama genelindeki exception'ları yakalar ve
  * dokümandaki generic response formatında döner.
+ * Her hata ErrorCode bazında sayılır (erp.errors{code=...}).
  */
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+    private final MeterRegistry meterRegistry;
+
     @ExceptionHandler(BaseException.class)
     public ResponseEntity<ApiResponse<Void>> handleBase(BaseException ex) {
+        count(ex.getError());
         HttpStatus http = ex.getError().getHttpStatus();
         return ResponseEntity
                 .status(http)
@@ -28,6 +36,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiResponse<Void>> handleMethodArgInvalid(MethodArgumentNotValidException ex) {
+        count(ErrorCode.VALIDATION_FAILED);
         String detailed = ex.getBindingResult().getFieldErrors().stream()
                 .map(e -> e.getField() + ": " + e.getDefaultMessage())
                 .collect(Collectors.joining(", "));
@@ -38,6 +47,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiResponse<Void>> handleDataIntegrity(DataIntegrityViolationException ex) {
+        count(ErrorCode.DB_CONSTRAINT_VIOLATION);
         return ResponseEntity
                 .status(ErrorCode.DB_CONSTRAINT_VIOLATION.getHttpStatus())
                 .body(ApiResponse.error(ErrorCode.DB_CONSTRAINT_VIOLATION.getCode(),
@@ -46,6 +56,7 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiResponse<Void>> handleAny(Exception ex){
+        count(ErrorCode.INTERNAL_ERROR);
         return ResponseEntity
                 .status(ErrorCode.INTERNAL_ERROR.getHttpStatus())
                 .body(ApiResponse.error(ErrorCode.INTERNAL_ERROR.getCode(),
@@ -54,10 +65,18 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler(ValidationException.class)
     public ResponseEntity<ApiResponse<Void>> handleValidation(ValidationException ex) {
+        count(ex.getError());
         return ResponseEntity
                 .status(HttpStatus.BAD_REQUEST) // 400
                 .body(ApiResponse.error(ex.getCode(), ex.getMessage()));
     }
 
-
+    private void count(ErrorCode error) {
+        Counter.builder("erp.errors")
+                .description("İstemciye dönen hatalar (ErrorCode bazında)")
+                .tag("code", error.name())
+                .tag("status", String.valueOf(error.getHttpStatus().value()))
+                .register(meterRegistry)
+                .increment();
+    }
 }
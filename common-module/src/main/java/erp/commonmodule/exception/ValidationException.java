@@ -6,4 +6,7 @@ package erp.commonmodule.exception;
  */
 public class ValidationException extends BaseException {
     public ValidationException(ErrorCode error) { super(error); }
+
+    /** Varsayılan mesajın sonuna ayrıntı eklenir (örn. hatalı CSV satırı). */
+    public ValidationException(ErrorCode error, String detail) { super(error, error.getDefaultMessage() + ": " + detail); }
 }
@@ -0,0 +1,47 @@
+package erp.commonmodule.export;
+
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ValidationException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Export çıktı formatları. gzip=true iken gövde application/gzip olarak, ".gz" uzantılı dosya adıyla döner.
+ */
+public enum ExportFormat {
+
+    CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON, "ndjson");
+
+    private static final MediaType GZIP = new MediaType("application", "gzip");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public static ExportFormat of(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new ValidationException(ErrorCode.EXPORT_FORMAT_INVALID);
+        }
+    }
+
+    /** İndirme başlıkları: Content-Type + Content-Disposition (attachment; name.csv[.gz]). */
+    public HttpHeaders headers(String name, boolean gzip) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(gzip ? GZIP : mediaType);
+        headers.setContentDisposition(ContentDisposition.attachment()
+                .filename(name + "." + extension + (gzip ? ".gz" : ""))
+                .build());
+        return headers;
+    }
+}
@@ -0,0 +1,240 @@
+package erp.commonmodule.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.util.zip.GZIPOutputStream;
+
+
+/**
+ * Sorgu sonucunu satır satır CSV/NDJSON olarak yazar (export endpoint'leri).
+ * - Salt okuma transaction'ında, fetch-size'lık forward-only DB cursor'ı ile okunur (PostgreSQL cursor'ı
+ *   yalnızca autocommit kapalıyken kullanır); entity/DTO üretilmez, bellek kullanımı satır sayısından bağımsızdır.
+ * - Kolon adları sorgudaki etiketlerdir (CSV başlığı / JSON alanları); zaman damgaları ISO-8601 instant olarak yazılır.
+ * - Akış ortasında hata olursa yanıt yarım kalır; gzip'li çıktıda bu istemci tarafında bozuk arşiv olarak görünür.
+ */
+@Component
+public class RowExporter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final JsonFactory jsonFactory;
+
+    public RowExporter(DataSource dataSource,
+                       PlatformTransactionManager transactionManager,
+                       ObjectMapper objectMapper,
+                       @Value("${erp.export.fetch-size:5000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.jsonFactory = objectMapper.getFactory();
+    }
+
+    /** Yazılan satır sayısını döner; out kapatılmaz (gzip ise yalnızca sonlandırılır). */
+    public long export(String sql, Object[] args, ExportFormat format, boolean gzip, OutputStream out) {
+        try {
+            GZIPOutputStream compressed = gzip ? new GZIPOutputStream(out, BUFFER_SIZE) : null;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(compressed != null ? compressed : out,
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            RowWriter rows = format == ExportFormat.CSV ? new CsvRowWriter(writer) : new NdjsonRowWriter(writer);
+
+            Long count = readOnlyTx.execute(status -> jdbcTemplate.query(sql, rs -> {
+                Column[] columns = Column.of(rs.getMetaData());
+                rows.header(columns);
+                long n = 0;
+                while (rs.next()) {
+                    rows.row(rs, columns);
+                    n++;
+                }
+                return n;
+            }, args));
+
+            rows.finish();
+            writer.flush();
+            if (compressed != null) {
+                compressed.finish();
+            }
+            return count == null ? 0 : count;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private enum Kind {INTEGER, DECIMAL, TIMESTAMP, TEXT}
+
+    private record Column(String label, Kind kind) {
+
+        static Column[] of(ResultSetMetaData meta) throws SQLException {
+            Column[] columns = new Column[meta.getColumnCount()];
+            for (int i = 0; i < columns.length; i++) {
+                Kind kind = switch (meta.getColumnType(i + 1)) {
+                    case Types.BIGINT, Types.INTEGER, Types.SMALLINT -> Kind.INTEGER;
+                    case Types.NUMERIC, Types.DECIMAL -> Kind.DECIMAL;
+                    case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> Kind.TIMESTAMP;
+                    default -> Kind.TEXT;
+                };
+                columns[i] = new Column(meta.getColumnLabel(i + 1), kind);
+            }
+            return columns;
+        }
+    }
+
+    private interface RowWriter {
+        void header(Column[] columns) throws SQLException;
+
+        void row(ResultSet rs, Column[] columns) throws SQLException;
+
+        void finish() throws IOException;
+    }
+
+    /** RFC 4180: virgül, tırnak veya satır sonu içeren alanlar tırnaklanır; boş alan = NULL. */
+    private static final class CsvRowWriter implements RowWriter {
+
+        private final Writer out;
+
+        CsvRowWriter(Writer out) {
+            this.out = out;
+        }
+
+        @Override
+        public void header(Column[] columns) {
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) out.write(',');
+                    writeText(columns[i].label());
+                }
+                out.write("\r\n");
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void row(ResultSet rs, Column[] columns) throws SQLException {
+            try {
+                for (int i = 0; i < columns.length; i++) {
+                    if (i > 0) out.write(',');
+                    int c = i + 1;
+                    switch (columns[i].kind()) {
+                        case INTEGER -> {
+                            long v = rs.getLong(c);
+                            if (!rs.wasNull()) out.write(Long.toString(v));
+                        }
+                        case DECIMAL -> {
+                            BigDecimal v = rs.getBigDecimal(c);
+                            if (v != null) out.write(v.toPlainString());
+                        }
+                        case TIMESTAMP -> {
+                            OffsetDateTime v = rs.getObject(c, OffsetDateTime.class);
+                            if (v != null) out.write(v.toInstant().toString());
+                        }
+                        case TEXT -> {
+                            String v = rs.getString(c);
+                            if (v != null) writeText(v);
+                        }
+                    }
+                }
+                out.write("\r\n");
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        private void writeText(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char ch = value.charAt(i);
+                quote = ch == ',' || ch == '"' || ch == '\n' || ch == '\r';
+            }
+            if (!quote) {
+                out.write(value);
+                return;
+            }
+            out.write('"');
+            out.write(value.replace("\"", "\"\""));
+            out.write('"');
+        }
+    }
+
+    /** Satır başına bir JSON nesnesi; Jackson streaming generator ile, ara nesne üretmeden. */
+    private final class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator json;
+
+        NdjsonRowWriter(Writer out) {
+            try {
+                this.json = jsonFactory.createGenerator(out)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            // Kök değerler arasına varsayılan boşluk yerine her satırın sonuna '\n' yazılır.
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void header(Column[] columns) {
+        }
+
+        @Override
+        public void row(ResultSet rs, Column[] columns) throws SQLException {
+            try {
+                json.writeStartObject();
+                for (int i = 0; i < columns.length; i++) {
+                    int c = i + 1;
+                    json.writeFieldName(columns[i].label());
+                    switch (columns[i].kind()) {
+                        case INTEGER -> {
+                            long v = rs.getLong(c);
+                            if (rs.wasNull()) json.writeNull();
+                            else json.writeNumber(v);
+                        }
+                        case DECIMAL -> json.writeNumber(rs.getBigDecimal(c));
+                        case TIMESTAMP -> {
+                            OffsetDateTime v = rs.getObject(c, OffsetDateTime.class);
+                            if (v == null) json.writeNull();
+                            else json.writeString(v.toInstant().toString());
+                        }
+                        case TEXT -> json.writeString(rs.getString(c));
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+}
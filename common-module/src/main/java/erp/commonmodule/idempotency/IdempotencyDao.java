@@ -0,0 +1,55 @@
+package erp.commonmodule.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+
+/**
+ * idempotency_keys tablosu; claim/complete aynı iş transaction'ında çağrılır.
+ */
+@Repository
+@RequiredArgsConstructor
+class IdempotencyDao {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Anahtarı bu transaction adına ayırır. Aynı anahtar başka bir açık transaction'da ayrılmışsa PostgreSQL
+     * o transaction bitene kadar bekletir: commit olduysa false (kayıt hazır), rollback olduysa anahtar bize kalır.
+     * Süresi dolmuş (temizlik job'ı henüz silmemiş) kayıt yeni istekle değiştirilir: anahtar bize kalır.
+     */
+    boolean claim(String scope, String key, byte[] requestHash, Instant now, Instant expiresAt) {
+        return jdbcTemplate.update(
+                "insert into idempotency_keys (scope, idem_key, request_hash, created_at, expires_at) values (?, ?, ?, ?, ?) " +
+                        "on conflict (scope, idem_key) do update set request_hash = excluded.request_hash, " +
+                        "response_body = null, created_at = excluded.created_at, expires_at = excluded.expires_at " +
+                        "where idempotency_keys.expires_at <= excluded.created_at",
+                scope, key, requestHash, Timestamp.from(now), Timestamp.from(expiresAt)) == 1;
+    }
+
+    void complete(String scope, String key, String responseBody) {
+        jdbcTemplate.update("update idempotency_keys set response_body = ? where scope = ? and idem_key = ?",
+                responseBody, scope, key);
+    }
+
+    // Süresi dolmuş kayıt yok sayılır.
+    Optional<StoredResponse> find(String scope, String key, Instant now) {
+        List<StoredResponse> rows = jdbcTemplate.query(
+                "select request_hash, response_body, expires_at from idempotency_keys " +
+                        "where scope = ? and idem_key = ? and expires_at > ?",
+                (rs, i) -> new StoredResponse(rs.getBytes("request_hash"), rs.getString("response_body"),
+                        rs.getTimestamp("expires_at").toInstant()),
+                scope, key, Timestamp.from(now));
+        return rows.stream().findFirst();
+    }
+
+    int deleteExpired() {
+        return jdbcTemplate.update("delete from idempotency_keys where expires_at < ?", Timestamp.from(Instant.now()));
+    }
+}
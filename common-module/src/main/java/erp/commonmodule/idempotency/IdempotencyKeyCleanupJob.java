@@ -0,0 +1,26 @@
+package erp.commonmodule.idempotency;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Süresi dolan idempotency kayıtlarını siler (idx_idempotency_keys_expires).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyKeyCleanupJob {
+
+    private final IdempotencyDao idempotencyDao;
+
+    @Scheduled(cron = "${erp.idempotency.cleanup-cron:0 */10 * * * *}", zone = "UTC")
+    public void run() {
+        int deleted = idempotencyDao.deleteExpired();
+        if (deleted > 0) {
+            log.info("Süresi dolan {} idempotency kaydı silindi", deleted);
+        }
+    }
+}
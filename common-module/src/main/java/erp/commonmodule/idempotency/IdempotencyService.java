@@ -0,0 +1,20 @@
+package erp.commonmodule.idempotency;
+
+import java.util.function.Supplier;
+
+
+public interface IdempotencyService {
+
+    /**
+     * Idempotency-Key ile korunan işlem. key null ise action doğrudan çalışır.
+     * - İlk istek: action, anahtar kaydıyla aynı transaction'da çalışır; başarılı sonuç JSON olarak saklanır (TTL)
+     * - Tekrar: sonuç hot cache'ten ya da DB'den döner, action yeniden çalışmaz
+     * - Eşzamanlı tekrar: ilk istek bitene kadar bekler, sonra onun sonucunu döner
+     * - Aynı anahtar farklı gövdeyle: IDEMPOTENCY_KEY_REUSED
+     * action hata verirse hiçbir şey saklanmaz (tekrar deneme işlemi yeniden çalıştırır).
+     *
+     * @param scope   uç nokta (+ path parametreleri); aynı anahtar farklı uç noktalarda bağımsızdır
+     * @param request istek gövdesi (parmak izi için JSON'a çevrilir)
+     */
+    <T> IdempotentResult<T> execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action);
+}
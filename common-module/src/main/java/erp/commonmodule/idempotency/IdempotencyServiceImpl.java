@@ -0,0 +1,182 @@
+package erp.commonmodule.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import erp.commonmodule.exception.BusinessException;
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ValidationException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+
+/**
+ * Kalıcı kayıt idempotency_keys'te (TTL: erp.idempotency.ttl), önünde sonuçların Caffeine hot cache'i durur.
+ * Süresi dolan kayıt (cache'te ya da henüz silinmemiş DB satırında) tekrar oynatılmaz; istek yeniden işlenir.
+ * Aynı instance'taki eşzamanlı tekrarlar in-flight future'ı bekler (DB bağlantısı tutmaz);
+ * farklı instance'lardaki tekrarlar anahtarın unique index'inde ilk transaction'ı bekler.
+ * Metrik: erp.idempotency{outcome=executed|cache|waited|db}.
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyDao idempotencyDao;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry registry;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Cache<String, StoredResponse> hot;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyServiceImpl(IdempotencyDao idempotencyDao,
+                                  TransactionTemplate transactionTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry registry,
+                                  @Value("${erp.idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${erp.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                                  @Value("${erp.idempotency.cache.max-size:100000}") long cacheMaxSize,
+                                  @Value("${erp.idempotency.cache.ttl:10m}") Duration cacheTtl) {
+        this.idempotencyDao = idempotencyDao;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.registry = registry;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.hot = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(cacheTtl.compareTo(ttl) < 0 ? cacheTtl : ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, hot, "idempotency");
+    }
+
+    @Override
+    public <T> IdempotentResult<T> execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null) {
+            return new IdempotentResult<>(action.get(), false);
+        }
+        validate(key);
+        byte[] requestHash = fingerprint(request);
+        String cacheKey = scope + '\n' + key;
+
+        StoredResponse cached = hot.getIfPresent(cacheKey);
+        if (cached != null) {
+            if (!cached.expired(Instant.now())) {
+                return replay(cached, requestHash, responseType, "cache");
+            }
+            hot.asMap().remove(cacheKey, cached);
+        }
+
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            StoredResponse first = await(running);
+            if (first != null) {
+                return replay(first, requestHash, responseType, "waited");
+            }
+            // İlk istek hata verdi (hiçbir şey saklanmadı): bu istek işlemi kendisi dener.
+            return execute(scope, key, request, responseType, action);
+        }
+
+        try {
+            Object[] executed = new Object[1];
+            StoredResponse stored = transactionTemplate.execute(status -> {
+                Instant now = Instant.now();
+                Instant expiresAt = now.plus(ttl);
+                if (!idempotencyDao.claim(scope, key, requestHash, now, expiresAt)) {
+                    return idempotencyDao.find(scope, key, now)
+                            .orElseThrow(() -> new BusinessException(ErrorCode.IDEMPOTENCY_IN_PROGRESS));
+                }
+                T body = action.get();
+                String json = toJson(body);
+                idempotencyDao.complete(scope, key, json);
+                executed[0] = body;
+                return new StoredResponse(requestHash, json, expiresAt);
+            });
+            hot.put(cacheKey, stored);
+            mine.complete(stored);
+            if (executed[0] == null) {
+                return replay(stored, requestHash, responseType, "db");
+            }
+            count("executed");
+            return new IdempotentResult<>(responseType.cast(executed[0]), false);
+        } catch (RuntimeException ex) {
+            mine.complete(null);
+            throw ex;
+        } finally {
+            inFlight.remove(cacheKey, mine);
+        }
+    }
+
+    private <T> IdempotentResult<T> replay(StoredResponse stored, byte[] requestHash, Class<T> responseType, String outcome) {
+        if (!Arrays.equals(stored.requestHash(), requestHash)) {
+            throw new BusinessException(ErrorCode.IDEMPOTENCY_KEY_REUSED); // ErrorCode'daki 422 ile döner
+        }
+        count(outcome);
+        try {
+            return new IdempotentResult<>(objectMapper.readValue(stored.body(), responseType), true);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Kaydedilmiş yanıt okunamadı", ex);
+        }
+    }
+
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new BusinessException(ErrorCode.IDEMPOTENCY_IN_PROGRESS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.IDEMPOTENCY_IN_PROGRESS);
+        } catch (ExecutionException ex) {
+            return null; // future yalnızca normal tamamlanır
+        }
+    }
+
+    private static void validate(String key) {
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH || !key.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            throw new ValidationException(ErrorCode.IDEMPOTENCY_KEY_INVALID);
+        }
+    }
+
+    private byte[] fingerprint(Object request) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("İstek parmak izi hesaplanamadı", ex);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Yanıt saklanamadı", ex);
+        }
+    }
+
+    private void count(String outcome) {
+        Counter.builder("erp.idempotency").tag("outcome", outcome).register(registry).increment();
+    }
+}
@@ -0,0 +1,11 @@
+package erp.commonmodule.idempotency;
+
+
+/**
+ * replayed: yanıt yeniden üretilmedi, ilk isteğin kaydedilmiş sonucu döndü.
+ */
+public record IdempotentResult<T>(T body, boolean replayed) {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+}
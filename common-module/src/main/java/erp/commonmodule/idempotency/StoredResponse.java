@@ -0,0 +1,13 @@
+package erp.commonmodule.idempotency;
+
+import java.time.Instant;
+
+/**
+ * Kaydedilmiş sonuç: istek gövdesinin SHA-256'sı + yanıt DTO'sunun JSON'u; expiresAt'ten sonra tekrar oynatılmaz.
+ */
+record StoredResponse(byte[] requestHash, String body, Instant expiresAt) {
+
+    boolean expired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
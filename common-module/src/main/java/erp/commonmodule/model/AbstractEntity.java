@@ -13,8 +13,10 @@ import java.time.Instant;
 @EntityListeners(AuditingEntityListener.class)
 public abstract class AbstractEntity {
 
+    // SEQUENCE (pooled): Hibernate her entity için "<entity>_seq" dizisini allocationSize=50 ile kullanır.
+    // IDENTITY insert batching'i kapatıyordu; sequence ile toplu faturalar JDBC batch olarak yazılabilir.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     private Long id;
 
     @Version
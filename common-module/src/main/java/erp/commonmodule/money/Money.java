@@ -0,0 +1,79 @@
+package erp.commonmodule.money;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+
+/**
+ * Kuruş (2 ondalık) cinsinden long ile tutulan para tutarı; bonus ve fatura aritmetiği BigDecimal üretmeden yapılır.
+ * Taşma ArithmeticException fırlatır (long: ±92 233 720 368 547 758,07).
+ * BigDecimal yalnızca kenarlarda: DB kolonu numeric(38,2) (MoneyConverter), JSON sayı (MoneySerializer/Deserializer),
+ * outbox event'leri ve raporlama DTO'ları.
+ * Hibernate 6 record'u değişmez sayar (ImmutableMutabilityPlan); dirty checking için kopya üretilmez.
+ */
+@JsonSerialize(using = MoneySerializer.class)
+@JsonDeserialize(using = MoneyDeserializer.class)
+public record Money(long cents) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+    public static final Money ZERO = new Money(0);
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /** Kuruşa tam sığmayan değerde (3+ anlamlı ondalık) veya taşmada ArithmeticException. */
+    public static Money of(BigDecimal value) {
+        return ofCents(value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    /** Fazla ondalıklar numeric(38,2) kolonunun yaptığı gibi HALF_UP yuvarlanır (JSON ve sorgu parametreleri). */
+    public static Money rounded(BigDecimal value) {
+        return ofCents(value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /** Spring'in String → Money dönüşümü (@RequestParam) ve cursor çözümü için. */
+    public static Money valueOf(String value) {
+        return rounded(new BigDecimal(value));
+    }
+
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    public int signum() {
+        return Long.signum(cents);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    /** Düz gösterim, her zaman 2 ondalık: "-12.05". */
+    @Override
+    public String toString() {
+        long abs = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        return (cents < 0 ? "-" : "") + abs + (fraction < 10 ? ".0" : ".") + fraction;
+    }
+}
@@ -0,0 +1,22 @@
+package erp.commonmodule.money;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+
+/** Money ↔ numeric(38,2). Alanlarda @Convert(converter = MoneyConverter.class) ile açıkça kullanılır. */
+@Converter
+public class MoneyConverter implements AttributeConverter<Money, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Money value) {
+        return value == null ? null : value.toBigDecimal();
+    }
+
+    @Override
+    public Money convertToEntityAttribute(BigDecimal value) {
+        return value == null ? null : Money.of(value);
+    }
+}
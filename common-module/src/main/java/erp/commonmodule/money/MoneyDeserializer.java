@@ -0,0 +1,44 @@
+package erp.commonmodule.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+
+import java.io.IOException;
+
+
+/**
+ * JSON sayı (veya sayı içeren string) → Money. Tam sayılar BigDecimal'e uğramaz;
+ * ondalıklı değerler HALF_UP ile kuruşa yuvarlanır (bkz. Money.rounded). Taşma/biçim hatası Jackson hatasıdır.
+ */
+public class MoneyDeserializer extends StdScalarDeserializer<Money> {
+
+    public MoneyDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        JsonToken token = p.currentToken();
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT && p.getNumberType() != JsonParser.NumberType.BIG_INTEGER) {
+                return Money.ofCents(Math.multiplyExact(p.getLongValue(), 100L));
+            }
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.rounded(p.getDecimalValue());
+            }
+        } catch (ArithmeticException ex) {
+            return (Money) ctxt.handleWeirdNumberValue(Money.class, p.getNumberValue(), "tutar sınır dışı");
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            String text = p.getText().trim();
+            try {
+                return Money.valueOf(text);
+            } catch (NumberFormatException | ArithmeticException ex) {
+                return (Money) ctxt.handleWeirdStringValue(Money.class, text, "geçerli bir tutar değil");
+            }
+        }
+        return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+    }
+}
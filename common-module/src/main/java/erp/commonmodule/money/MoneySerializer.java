@@ -0,0 +1,21 @@
+package erp.commonmodule.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+
+
+/** Money → JSON sayı, 2 ondalıkla (örn. 350.00); BigDecimal üretilmez. */
+public class MoneySerializer extends StdScalarSerializer<Money> {
+
+    public MoneySerializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeNumber(value.toString());
+    }
+}
@@ -0,0 +1,113 @@
+package erp.commonmodule.reload;
+
+import erp.commonmodule.util.TransactionHooks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * Bellekteki türetilmiş kopyaların (BonusHistogram, ProductSalesStore) DB taramasıyla yeniden kurulması ile
+ * commit sonrası uygulanan değişiklikleri uzlaştırır: bir değişiklik hem taramaya hem yeni kopyaya girmez, ikisini de kaçırmaz.
+ * - afterCommit: değişiklik commit sonrası çalışır. Yeniden kurulum sürerken commit eden transaction'ın id'si
+ *   (pg_current_xact_id) beforeCommit'te alınıp değişikliğe verilir; diğer zamanlarda ek sorgu yapılmaz (txid = null).
+ * - reload: önce txid'siz açık commit'lerin bitmesi beklenir (bunlar taramaya kesin girer), sonra REPEATABLE READ
+ *   transaction'da snapshot alınır ve tarama aynı snapshot'la yapılır. Yeni kopya yayınlanana kadar işaretleme sürer.
+ * Yalnızca bu instance'ın commit'lerini kapsar.
+ */
+@Component
+public class CommitFence {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate snapshotTx;
+    private final long waitNanos;
+    private final AtomicInteger reloading = new AtomicInteger();
+    // beforeCommit'i işaretlenmeden geçmiş, henüz bitmemiş transaction'lar
+    private final LongAdder untagged = new LongAdder();
+
+    public CommitFence(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${erp.reload.commit-wait-timeout:10s}") Duration waitTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.snapshotTx = new TransactionTemplate(transactionManager);
+        this.snapshotTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTx.setReadOnly(true);
+        this.waitNanos = waitTimeout.toNanos();
+    }
+
+    /** change commit sonrası çalışır; argüman yeniden kurulum sırasında commit edenlerde txid, diğerlerinde null. */
+    public void afterCommit(Consumer<Long> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.accept(null);
+            return;
+        }
+        TransactionHooks.register(new TransactionSynchronization() {
+            private Long txid;
+            private boolean open;
+
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                untagged.increment();
+                open = true;
+                if (reloading.get() > 0) {
+                    txid = Long.parseLong(jdbcTemplate.queryForObject("select cast(pg_current_xact_id() as text)", String.class));
+                    untagged.decrement();
+                    open = false;
+                }
+            }
+
+            @Override
+            public void afterCommit() {
+                change.accept(txid);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (open) {
+                    untagged.decrement();
+                }
+            }
+        });
+    }
+
+    /**
+     * loader'ı sabit bir snapshot'la çalıştırır ve sonucu snapshot'la birlikte publish'e verir.
+     * İşaretleme publish bitene kadar açık kalır: publish sonrası gelen txid'li değişiklik snapshot'la ayıklanabilir.
+     */
+    public <T> void reload(Supplier<T> loader, BiConsumer<T, TxSnapshot> publish) {
+        reloading.incrementAndGet();
+        try {
+            awaitUntagged();
+            snapshotTx.executeWithoutResult(status -> {
+                TxSnapshot snapshot = TxSnapshot.parse(
+                        jdbcTemplate.queryForObject("select cast(pg_current_snapshot() as text)", String.class));
+                publish.accept(loader.get(), snapshot);
+            });
+        } finally {
+            reloading.decrementAndGet();
+        }
+    }
+
+    private void awaitUntagged() {
+        long deadline = System.nanoTime() + waitNanos;
+        while (untagged.sum() > 0) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("Açık commit'ler bitmedi; yeniden kurulum yapılmadı");
+            }
+            LockSupport.parkNanos(100_000);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package erp.commonmodule.reload;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+
+/**
+ * DB taramasıyla kurulan ve commit sonrası değişikliklerle güncel tutulan bellek kopyası (bkz. CommitFence).
+ * - Yeniden kurulum sürerken gelen değişiklikler mevcut kopyaya uygulanır ve kaydedilir; tarama bitince yalnızca
+ *   taramanın snapshot'ında olmayanlar (txid'li ve snapshot.includes(txid) değil) yeni kopyaya uygulanır.
+ * - Yayından sonra geç gelen txid'li değişiklik, kopyanın snapshot'ında ise atlanır.
+ * Değişiklik uygulama ve yayın aynı kilit altındadır; okuyucular kilitsiz get() kullanır.
+ */
+public final class ReloadableView<T> {
+
+    private record Pending<T>(Long txid, Consumer<T> change) {
+    }
+
+    private final CommitFence fence;
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile T current;
+    private TxSnapshot snapshot;        // current'ın kurulduğu snapshot (kilit altında)
+    private List<Pending<T>> pending;   // yeniden kurulum sürerken gelen değişiklikler (kilit altında)
+
+    public ReloadableView(CommitFence fence) {
+        this.fence = fence;
+    }
+
+    public T get() {
+        return current;
+    }
+
+    /** DB'siz kurulum (benchmark): snapshot yok, her değişiklik uygulanır. */
+    public void set(T value) {
+        lock.lock();
+        try {
+            current = value;
+            snapshot = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void changeAfterCommit(Consumer<T> change) {
+        if (fence == null) {
+            apply(null, change);
+            return;
+        }
+        fence.afterCommit(txid -> apply(txid, change));
+    }
+
+    /** loader aynı snapshot'la çalışan tek bir tarama yapmalıdır (CommitFence'in transaction'ı içinde çağrılır). */
+    public void reload(Supplier<T> loader) {
+        lock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            fence.reload(loader, this::publish);
+        } finally {
+            lock.lock();
+            try {
+                pending = null;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    void apply(Long txid, Consumer<T> change) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.add(new Pending<>(txid, change));
+            }
+            T c = current;
+            if (c != null && (txid == null || snapshot == null || !snapshot.includes(txid))) {
+                change.accept(c);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void publish(T next, TxSnapshot loadedAt) {
+        lock.lock();
+        try {
+            // txid'siz olanlar işaretleme başlamadan commit etti; tarama onları zaten gördü.
+            for (Pending<T> p : pending) {
+                if (p.txid() != null && !loadedAt.includes(p.txid())) {
+                    p.change().accept(next);
+                }
+            }
+            current = next;
+            snapshot = loadedAt;
+            pending = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package erp.commonmodule.reload;
+
+import java.util.Arrays;
+
+
+/**
+ * PostgreSQL transaction snapshot'ı (pg_current_snapshot() metni: "xmin:xmax:xip1,xip2,...").
+ * includes(txid): bu snapshot'la yapılan okuma, commit edilmiş txid transaction'ının yazdıklarını görür mü.
+ */
+public record TxSnapshot(long xmin, long xmax, long[] inProgress) {
+
+    public static TxSnapshot parse(String text) {
+        String[] parts = text.split(":", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Geçersiz snapshot: " + text);
+        }
+        long[] xip = parts[2].isEmpty()
+                ? new long[0]
+                : Arrays.stream(parts[2].split(",")).mapToLong(Long::parseLong).toArray();
+        return new TxSnapshot(Long.parseLong(parts[0]), Long.parseLong(parts[1]), xip);
+    }
+
+    public boolean includes(long txid) {
+        if (txid < xmin) {
+            return true;
+        }
+        if (txid >= xmax) {
+            return false;
+        }
+        for (long running : inProgress) {
+            if (running == txid) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,11 +3,18 @@ package erp.commonmodule.response;
 import lombok.*;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Tüm uç noktaların yanıt zarfı; HTTP yanıtına ApiResponseHttpMessageConverter ile yazılır.
+ */
 @Data @Builder @NoArgsConstructor @AllArgsConstructor
 public class ApiResponse<T> {
+    static final String SUCCESS = "success";
+    static final String ERROR = "error";
+
     private String outcome_type;
     private int status;
     private Map<String, Object> query;
@@ -16,24 +23,24 @@ public class ApiResponse<T> {
     private List<String> iomessage;
 
     public static <T> ApiResponse<T> success(T data){
-        return ApiResponse.<T>builder()
-                .outcome_type("success")
-                .status(200)
-                .query(Collections.emptyMap())
-                .data(data)
-                .uimessage(Collections.emptyList())
-                .iomessage(Collections.emptyList())
-                .build();
+        // Her yanıtta çağrıldığından builder yerine doğrudan kurucu; boş koleksiyonlar paylaşılan singleton'lardır.
+        return new ApiResponse<>(SUCCESS, 200, Collections.emptyMap(), data, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Keyset sayfalı liste: data = sayfadaki kayıtlar, query = {limit, next}.
+     */
+    public static <T> ApiResponse<List<T>> success(CursorPage<T> page){
+        Map<String, Object> query = new LinkedHashMap<>();
+        query.put("limit", page.getLimit());
+        query.put("next", page.getNext());
+
+        ApiResponse<List<T>> response = success(page.getItems());
+        response.setQuery(query);
+        return response;
     }
 
     public static <T> ApiResponse<T> error(int status, String message){
-        return ApiResponse.<T>builder()
-                .outcome_type("error")
-                .status(status)
-                .query(Collections.emptyMap())
-                .data(null)
-                .uimessage(List.of(message))
-                .iomessage(Collections.emptyList())
-                .build();
+        return new ApiResponse<>(ERROR, status, Collections.emptyMap(), null, List.of(message), Collections.emptyList());
     }
 }
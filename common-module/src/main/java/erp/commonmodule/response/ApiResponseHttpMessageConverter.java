@@ -0,0 +1,132 @@
+package erp.commonmodule.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * ApiResponse'u JSON'a yazar: zarfın sabit parçaları ("outcome_type", "success", "query":{} ...) önceden UTF-8
+ * kodlanmış byte'lar olarak doğrudan çıkışa kopyalanır, yalnızca değişken değerler (data, dolu query/mesajlar)
+ * uygulamanın ObjectMapper'ıyla (Blackbird'lü serializer'lar) tek generator ve tek SerializerProvider üzerinden akıtılır.
+ * Zarfın generic tipi çözülmez, ApiResponse bean'i introspect edilmez. Çıktı varsayılan Jackson çıktısıyla byte byte aynıdır.
+ * Girintili çıktı (INDENT_OUTPUT) ya da null alanları atlayan inclusion ayarında zarf ObjectMapper'a bırakılır.
+ */
+public class ApiResponseHttpMessageConverter extends AbstractHttpMessageConverter<ApiResponse<?>> {
+
+    private static final SerializableString SUCCESS_200 = raw("{\"outcome_type\":\"success\",\"status\":200");
+    private static final SerializableString OUTCOME = raw("{\"outcome_type\":");
+    private static final SerializableString STATUS = raw(",\"status\":");
+    private static final SerializableString EMPTY_QUERY_DATA = raw(",\"query\":{},\"data\":");
+    private static final SerializableString QUERY = raw(",\"query\":");
+    private static final SerializableString DATA = raw(",\"data\":");
+    private static final SerializableString NO_MESSAGES = raw(",\"uimessage\":[],\"iomessage\":[]}");
+    private static final SerializableString UIMESSAGE = raw(",\"uimessage\":");
+    private static final SerializableString IOMESSAGE = raw(",\"iomessage\":");
+    private static final SerializableString EMPTY_ARRAY = raw("[]");
+    private static final SerializableString END = raw("}");
+
+    private final ObjectMapper objectMapper;
+    private final boolean preEncoded;
+
+    public ApiResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON, new MediaType("application", "*+json"));
+        this.objectMapper = objectMapper;
+        JsonInclude.Include inclusion = objectMapper.getSerializationConfig()
+                .getDefaultPropertyInclusion(ApiResponse.class).getValueInclusion();
+        this.preEncoded = !objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)
+                && (inclusion == JsonInclude.Include.ALWAYS || inclusion == JsonInclude.Include.USE_DEFAULTS);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return ApiResponse.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, @Nullable MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ApiResponse<?> readInternal(Class<? extends ApiResponse<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("ApiResponse yalnızca yazılır", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ApiResponse<?> response, HttpOutputMessage outputMessage) throws IOException {
+        try (JsonGenerator gen = objectMapper.createGenerator(StreamUtils.nonClosing(outputMessage.getBody()), JsonEncoding.UTF8)) {
+            if (!preEncoded) {
+                objectMapper.writeValue(gen, response);
+                return;
+            }
+            // Değerler kök seviyesinde yazılır; aralarına ayraç konmaz, alan adları ve noktalama raw parçalardadır.
+            gen.setRootValueSeparator(null);
+            DefaultSerializerProvider provider = ((DefaultSerializerProvider) objectMapper.getSerializerProviderInstance());
+            write(response, gen, provider);
+        }
+    }
+
+    private static void write(ApiResponse<?> response, JsonGenerator gen, DefaultSerializerProvider provider) throws IOException {
+        if (ApiResponse.SUCCESS.equals(response.getOutcome_type()) && response.getStatus() == 200) {
+            gen.writeRaw(SUCCESS_200);
+        } else {
+            gen.writeRaw(OUTCOME);
+            gen.writeString(response.getOutcome_type());
+            gen.writeRaw(STATUS);
+            gen.writeNumber(response.getStatus());
+        }
+
+        Map<String, Object> query = response.getQuery();
+        if (query != null && query.isEmpty()) {
+            gen.writeRaw(EMPTY_QUERY_DATA);
+        } else {
+            gen.writeRaw(QUERY);
+            provider.serializeValue(gen, query);
+            gen.writeRaw(DATA);
+        }
+        provider.serializeValue(gen, response.getData());
+
+        List<String> uimessage = response.getUimessage();
+        List<String> iomessage = response.getIomessage();
+        if (uimessage != null && uimessage.isEmpty() && iomessage != null && iomessage.isEmpty()) {
+            gen.writeRaw(NO_MESSAGES);
+            return;
+        }
+        gen.writeRaw(UIMESSAGE);
+        writeMessages(uimessage, gen, provider);
+        gen.writeRaw(IOMESSAGE);
+        writeMessages(iomessage, gen, provider);
+        gen.writeRaw(END);
+    }
+
+    private static void writeMessages(List<String> messages, JsonGenerator gen, DefaultSerializerProvider provider) throws IOException {
+        if (messages != null && messages.isEmpty()) {
+            gen.writeRaw(EMPTY_ARRAY);
+        } else {
+            provider.serializeValue(gen, messages);
+        }
+    }
+
+    private static SerializableString raw(String json) {
+        SerializedString encoded = new SerializedString(json);
+        encoded.asUnquotedUTF8(); // UTF-8 byte'ları bir kez kodlanıp saklanır
+        return encoded;
+    }
+}
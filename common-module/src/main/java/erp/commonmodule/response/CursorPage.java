@@ -0,0 +1,21 @@
+package erp.commonmodule.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+
+/**
+ * Keyset (cursor) sayfalama sonucu.
+ * - items: bu sayfadaki kayıtlar
+ * - limit: uygulanan sayfa boyutu
+ * - next : sonraki sayfanın imleci; son sayfada null
+ */
+@Data
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private int limit;
+    private String next;
+}
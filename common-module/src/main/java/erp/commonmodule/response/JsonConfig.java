@@ -0,0 +1,31 @@
+package erp.commonmodule.response;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * - Blackbird: DTO getter/setter çağrıları reflection yerine LambdaMetafactory ile üretilmiş erişicilerle yapılır.
+ *   Spring Boot, context'teki Module bean'lerini uygulamanın ObjectMapper'ına kendisi kaydeder.
+ * - ApiResponseHttpMessageConverter: zarfı önceden kodlanmış byte'larla yazar. Spring Boot, HttpMessageConverter
+ *   bean'lerini varsayılan Jackson converter'ından önce sıraya koyar.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JsonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "erp.json.blackbird.enabled", havingValue = "true", matchIfMissing = true)
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "erp.json.envelope-writer.enabled", havingValue = "true", matchIfMissing = true)
+    public ApiResponseHttpMessageConverter apiResponseHttpMessageConverter(ObjectMapper objectMapper) {
+        return new ApiResponseHttpMessageConverter(objectMapper);
+    }
+}
@@ -0,0 +1,59 @@
+package erp.commonmodule.util;
+
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+
+/**
+ * Keyset sayfalama imleci yardımcıları.
+ * İmleç, son kaydın sıralama anahtarlarının ("|" ile birleştirilmiş) base64url halidir;
+ * istemci için opak bir değerdir.
+ */
+public final class CursorUtils {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    /** @RequestParam(defaultValue) için DEFAULT_LIMIT (derleme zamanı sabiti). */
+    public static final String DEFAULT_LIMIT_PARAM = "" + DEFAULT_LIMIT;
+
+    private static final String SEPARATOR = "|";
+
+    private CursorUtils() {
+    }
+
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) sb.append(SEPARATOR);
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decode(String cursor, int expectedKeys) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] keys = raw.split("\\|", -1);
+            if (keys.length != expectedKeys) {
+                throw invalid();
+            }
+            return keys;
+        } catch (IllegalArgumentException ex) {
+            throw invalid();
+        }
+    }
+
+    /** Sayfa boyutunu 1..MAX_LIMIT aralığına çeker. */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) return DEFAULT_LIMIT;
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    public static ValidationException invalid() {
+        return new ValidationException(ErrorCode.PAGINATION_INVALID_CURSOR);
+    }
+}
@@ -0,0 +1,27 @@
+package erp.commonmodule.util;
+
+import java.time.Instant;
+
+
+/**
+ * Opsiyonel zaman filtreleri için sınır değerleri.
+ * Sorgularda "(:from is null or t.createdAt >= :from)" yerine "t.createdAt >= :from" + orMin(from) kullanılır:
+ * basit karşılaştırma, created_at'e göre partition'lı tablolarda PostgreSQL'in partition eleme (pruning)
+ * yapabilmesini sağlar (generic/prepared planlarda da, çalışma anında).
+ */
+public final class TimeBounds {
+
+    public static final Instant MIN = Instant.EPOCH;
+    public static final Instant MAX = Instant.parse("9999-12-31T23:59:59Z");
+
+    private TimeBounds() {
+    }
+
+    public static Instant orMin(Instant instant) {
+        return instant == null ? MIN : instant;
+    }
+
+    public static Instant orMax(Instant instant) {
+        return instant == null ? MAX : instant;
+    }
+}
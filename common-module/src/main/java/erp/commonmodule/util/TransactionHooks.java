@@ -0,0 +1,49 @@
+package erp.commonmodule.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Commit sonrası işlerin (TransactionSynchronization) kaydı. Normalde aktif transaction'a kaydedilir; collect ile
+ * açılmış bir kapsamda ise kapsamın listesine girer. Tek transaction'da birden çok bağımsız değişiklik yazan çağıran
+ * (ör. müşteri şeridi) böylece her değişikliğin işlerini ayrı tutar: savepoint'ine geri alınan değişikliğinkileri atar,
+ * diğerlerini transaction'a kaydeder.
+ */
+public final class TransactionHooks {
+
+    private static final ThreadLocal<List<TransactionSynchronization>> SCOPE = new ThreadLocal<>();
+
+    private TransactionHooks() {
+    }
+
+    /** Aktif transaction olmalı (TransactionSynchronizationManager.isSynchronizationActive). */
+    public static void register(TransactionSynchronization synchronization) {
+        List<TransactionSynchronization> scope = SCOPE.get();
+        if (scope != null) {
+            scope.add(synchronization);
+        } else {
+            TransactionSynchronizationManager.registerSynchronization(synchronization);
+        }
+    }
+
+    /** task'ı ayrı bir kapsamda çalıştırır ve kaydettiği synchronization'ları döner; task hata verirse kayıtlar atılır. */
+    public static List<TransactionSynchronization> collect(Runnable task) {
+        List<TransactionSynchronization> outer = SCOPE.get();
+        List<TransactionSynchronization> scope = new ArrayList<>();
+        SCOPE.set(scope);
+        try {
+            task.run();
+        } finally {
+            if (outer == null) {
+                SCOPE.remove();
+            } else {
+                SCOPE.set(outer);
+            }
+        }
+        return scope;
+    }
+}
@@ -0,0 +1,98 @@
+package erp.commonmodule.money;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class MoneyTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private record Holder(Money amount) {
+    }
+
+    @Test
+    void toStringAlwaysHasTwoDecimals() {
+        assertThat(Money.ZERO).hasToString("0.00");
+        assertThat(Money.ofCents(5)).hasToString("0.05");
+        assertThat(Money.ofCents(-5)).hasToString("-0.05");
+        assertThat(Money.ofCents(-1205)).hasToString("-12.05");
+        assertThat(Money.ofCents(35000)).hasToString("350.00");
+        assertThat(Money.ofCents(Long.MAX_VALUE)).hasToString("92233720368547758.07");
+        assertThat(Money.ofCents(Long.MIN_VALUE)).hasToString("-92233720368547758.08");
+    }
+
+    @Test
+    void ofIsExactAndRoundedIsHalfUp() {
+        assertThat(Money.of(new BigDecimal("12.3"))).isEqualTo(Money.ofCents(1230));
+        assertThat(Money.of(new BigDecimal("12.300"))).isEqualTo(Money.ofCents(1230));
+        assertThat(Money.of(new BigDecimal("1E+2"))).isEqualTo(Money.ofCents(10000));
+        assertThatThrownBy(() -> Money.of(new BigDecimal("0.005"))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1E+17"))).isInstanceOf(ArithmeticException.class);
+
+        assertThat(Money.rounded(new BigDecimal("0.005"))).isEqualTo(Money.ofCents(1));
+        assertThat(Money.rounded(new BigDecimal("0.004"))).isEqualTo(Money.ZERO);
+        assertThat(Money.rounded(new BigDecimal("-0.005"))).isEqualTo(Money.ofCents(-1));
+        assertThat(Money.valueOf("7.5")).isEqualTo(Money.ofCents(750));
+        assertThatThrownBy(() -> Money.valueOf("abc")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void arithmeticFailsOnOverflow() {
+        assertThat(Money.ofCents(150).plus(Money.ofCents(-200))).isEqualTo(Money.ofCents(-50));
+        assertThat(Money.ofCents(150).times(3)).isEqualTo(Money.ofCents(450));
+        assertThat(Money.ofCents(1).minus(Money.ofCents(1))).isSameAs(Money.ZERO);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1))).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MIN_VALUE).negate()).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.ofCents(Long.MAX_VALUE / 2).times(3)).isInstanceOf(ArithmeticException.class);
+    }
+
+    @Test
+    void converterMapsToNumericWithScaleTwo() {
+        MoneyConverter converter = new MoneyConverter();
+        assertThat(converter.convertToDatabaseColumn(Money.ofCents(-1205))).isEqualTo(new BigDecimal("-12.05"));
+        assertThat(converter.convertToDatabaseColumn(null)).isNull();
+        assertThat(converter.convertToEntityAttribute(new BigDecimal("350.00"))).isEqualTo(Money.ofCents(35000));
+        assertThat(converter.convertToEntityAttribute(null)).isNull();
+    }
+
+    @Test
+    void serializesAsNumberWithTwoDecimals() throws Exception {
+        assertThat(objectMapper.writeValueAsString(new Holder(Money.ofCents(35000)))).isEqualTo("{\"amount\":350.00}");
+        assertThat(objectMapper.writeValueAsString(List.of(Money.ofCents(-5), Money.ZERO))).isEqualTo("[-0.05,0.00]");
+    }
+
+    @Test
+    void deserializesNumbersAndStrings() throws Exception {
+        assertThat(read("350")).isEqualTo(Money.ofCents(35000));
+        assertThat(read("-12.05")).isEqualTo(Money.ofCents(-1205));
+        assertThat(read("1.005")).isEqualTo(Money.ofCents(101));
+        assertThat(read("\"7.5\"")).isEqualTo(Money.ofCents(750));
+        assertThat(read("92233720368547758")).isEqualTo(Money.ofCents(9223372036854775800L));
+        assertThat(read("null")).isNull();
+    }
+
+    @Test
+    void rejectsOutOfRangeAndMalformedAmounts() {
+        // units × 100 long'u aşar; Long.MIN_VALUE'da Math.abs negatif kaldığından ayrıca denenir
+        for (String json : List.of("92233720368547759", "-92233720368547759", String.valueOf(Long.MIN_VALUE),
+                String.valueOf(Long.MAX_VALUE), "1e30", "123456789012345678901234567890")) {
+            assertThatThrownBy(() -> read(json)).as(json).isInstanceOf(InvalidFormatException.class);
+        }
+        assertThatThrownBy(() -> read("\"abc\"")).isInstanceOf(InvalidFormatException.class);
+        assertThatThrownBy(() -> objectMapper.readValue("{\"amount\":{}}", Holder.class))
+                .isInstanceOf(MismatchedInputException.class);
+    }
+
+    private Money read(String json) throws Exception {
+        return objectMapper.readValue("{\"amount\":" + json + "}", Holder.class).amount();
+    }
+}
@@ -0,0 +1,124 @@
+package erp.commonmodule.reload;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class ReloadableViewTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicLong nextTxid = new AtomicLong();
+    private final CommitFence fence = new CommitFence(jdbcTemplate, mock(PlatformTransactionManager.class), Duration.ofSeconds(5));
+
+    ReloadableViewTest() {
+        when(jdbcTemplate.queryForObject(eq("select cast(pg_current_xact_id() as text)"), eq(String.class)))
+                .thenAnswer(inv -> String.valueOf(nextTxid.get()));
+        when(jdbcTemplate.queryForObject(eq("select cast(pg_current_snapshot() as text)"), eq(String.class)))
+                .thenReturn("120:140:125");
+    }
+
+    @AfterEach
+    void clear() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void snapshotVisibility() {
+        TxSnapshot snapshot = TxSnapshot.parse("120:140:125,131");
+        assertThat(snapshot.includes(119)).isTrue();
+        assertThat(snapshot.includes(120)).isTrue();
+        assertThat(snapshot.includes(125)).isFalse();
+        assertThat(snapshot.includes(131)).isFalse();
+        assertThat(snapshot.includes(139)).isTrue();
+        assertThat(snapshot.includes(140)).isFalse();
+        assertThat(TxSnapshot.parse("7:7:").inProgress()).isEmpty();
+        assertThatThrownBy(() -> TxSnapshot.parse("7:7")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void changesCommittedDuringReloadAreCountedOnce() {
+        ReloadableView<AtomicLong> view = new ReloadableView<>(fence);
+        view.set(new AtomicLong());
+
+        view.reload(() -> {
+            // Tarama sürerken commit edenler: 130 snapshot'ta (taramada var), 125 ve 150 değil.
+            commit(130, view, 1);
+            commit(125, view, 10);
+            commit(150, view, 100);
+            return new AtomicLong(1); // taramanın gördüğü: yalnızca 130
+        });
+        assertThat(view.get().get()).isEqualTo(111);
+
+        // Yayından sonra geç gelen callback: 130 snapshot'ta olduğundan atlanır, 160 uygulanır.
+        view.apply(130L, v -> v.addAndGet(1_000));
+        view.apply(160L, v -> v.addAndGet(10_000));
+        view.apply(null, v -> v.addAndGet(100_000));
+        assertThat(view.get().get()).isEqualTo(110_111);
+    }
+
+    @Test
+    void reloadWaitsForCommitsStartedBeforeIt() throws Exception {
+        ReloadableView<AtomicLong> view = new ReloadableView<>(fence);
+        view.set(new AtomicLong());
+
+        // İşaretleme başlamadan beforeCommit'i geçmiş açık commit: tarama onu görmeli, bu yüzden beklenir.
+        TransactionSynchronizationManager.initSynchronization();
+        view.changeAfterCommit(v -> v.addAndGet(1));
+        List<TransactionSynchronization> open = TransactionSynchronizationManager.getSynchronizations();
+        open.forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        CompletableFuture<Void> reload = CompletableFuture.runAsync(() -> view.reload(() -> new AtomicLong(1)));
+        Thread.sleep(100);
+        assertThat(reload).isNotDone();
+
+        open.forEach(TransactionSynchronization::afterCommit);
+        open.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        reload.get(5, TimeUnit.SECONDS);
+        assertThat(view.get().get()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackChangeIsNotApplied() {
+        ReloadableView<AtomicLong> view = new ReloadableView<>(fence);
+        view.set(new AtomicLong());
+
+        TransactionSynchronizationManager.initSynchronization();
+        view.changeAfterCommit(v -> v.addAndGet(1));
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        view.reload(AtomicLong::new);
+        assertThat(view.get().get()).isZero();
+    }
+
+    private void commit(long txid, ReloadableView<AtomicLong> view, long delta) {
+        nextTxid.set(txid);
+        TransactionSynchronizationManager.initSynchronization();
+        view.changeAfterCommit(v -> v.addAndGet(delta));
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.clearSynchronization();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
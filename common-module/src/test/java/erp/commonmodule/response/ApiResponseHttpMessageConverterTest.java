@@ -0,0 +1,74 @@
+package erp.commonmodule.response;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import erp.commonmodule.money.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class ApiResponseHttpMessageConverterTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new BlackbirdModule())
+            .build();
+
+    record Row(long id, String name, Money bonus) {
+    }
+
+    @Test
+    void writesSameBytesAsObjectMapper() throws IOException {
+        List<Row> rows = List.of(new Row(1, "Ali \"Veli\" Çağ", Money.ofCents(12345)), new Row(2, null, Money.ofCents(0)));
+        List<ApiResponse<?>> responses = new ArrayList<>();
+        responses.add(ApiResponse.success(rows));
+        responses.add(ApiResponse.success(new CursorPage<>(rows, 2, "c2")));
+        responses.add(ApiResponse.success(new CursorPage<>(List.of(), 50, null)));
+        responses.add(ApiResponse.success((Object) null));
+        responses.add(ApiResponse.success("metin"));
+        responses.add(ApiResponse.error(2002, "Yetersiz bonus"));
+        responses.add(ApiResponse.builder().outcome_type("partial").status(207)
+                .query(Map.of("k", 1)).data(rows).uimessage(List.of("a", "b")).iomessage(null).build());
+        responses.add(new ApiResponse<>());
+
+        ApiResponseHttpMessageConverter converter = new ApiResponseHttpMessageConverter(objectMapper);
+        for (ApiResponse<?> response : responses) {
+            assertThat(write(converter, response)).isEqualTo(objectMapper.writeValueAsString(response));
+        }
+    }
+
+    @Test
+    void leavesIndentedOutputToObjectMapper() throws IOException {
+        ObjectMapper indenting = objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT);
+        ApiResponse<List<Row>> response = ApiResponse.success(List.of(new Row(1, "Ali", Money.ofCents(100))));
+
+        assertThat(write(new ApiResponseHttpMessageConverter(indenting), response))
+                .isEqualTo(indenting.writeValueAsString(response));
+    }
+
+    @Test
+    void onlyWritesApiResponse() {
+        ApiResponseHttpMessageConverter converter = new ApiResponseHttpMessageConverter(objectMapper);
+
+        assertThat(converter.canWrite(ApiResponse.class, MediaType.APPLICATION_JSON)).isTrue();
+        assertThat(converter.canWrite(String.class, MediaType.APPLICATION_JSON)).isFalse();
+        assertThat(converter.canWrite(ApiResponse.class, MediaType.TEXT_PLAIN)).isFalse();
+        assertThat(converter.canRead(ApiResponse.class, MediaType.APPLICATION_JSON)).isFalse();
+    }
+
+    private static String write(ApiResponseHttpMessageConverter converter, ApiResponse<?> response) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(response, MediaType.APPLICATION_JSON, message);
+        assertThat(message.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        return message.getBodyAsString();
+    }
+}
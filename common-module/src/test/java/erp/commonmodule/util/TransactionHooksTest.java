@@ -0,0 +1,70 @@
+package erp.commonmodule.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+class TransactionHooksTest {
+
+    @BeforeEach
+    void open() {
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    void registersWithTransactionOutsideScope() {
+        TransactionSynchronization hook = new TransactionSynchronization() {
+        };
+        TransactionHooks.register(hook);
+
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(hook);
+    }
+
+    @Test
+    void collectsScopedHooksWithoutTouchingTransaction() {
+        TransactionSynchronization outer = new TransactionSynchronization() {
+        };
+        TransactionSynchronization inner = new TransactionSynchronization() {
+        };
+        TransactionSynchronization nested = new TransactionSynchronization() {
+        };
+
+        List<TransactionSynchronization>[] nestedHooks = new List[1];
+        List<TransactionSynchronization> hooks = TransactionHooks.collect(() -> {
+            TransactionHooks.register(inner);
+            nestedHooks[0] = TransactionHooks.collect(() -> TransactionHooks.register(nested));
+        });
+        TransactionHooks.register(outer);
+
+        assertThat(hooks).containsExactly(inner);
+        assertThat(nestedHooks[0]).containsExactly(nested);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(outer);
+    }
+
+    @Test
+    void failedScopeIsDropped() {
+        assertThatThrownBy(() -> TransactionHooks.collect(() -> {
+            TransactionHooks.register(new TransactionSynchronization() {
+            });
+            throw new IllegalStateException("geri alındı");
+        })).isInstanceOf(IllegalStateException.class);
+
+        TransactionSynchronization after = new TransactionSynchronization() {
+        };
+        TransactionHooks.register(after);
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).containsExactly(after);
+    }
+}
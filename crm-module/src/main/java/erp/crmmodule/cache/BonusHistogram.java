@@ -0,0 +1,254 @@
+package erp.crmmodule.cache;
+
+import erp.commonmodule.exception.BusinessException;
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.reload.CommitFence;
+import erp.commonmodule.reload.ReloadableView;
+import erp.crmmodule.dao.CustomerDao;
+import erp.crmmodule.dto.BonusRangeStatsDto;
+import erp.crmmodule.dto.BonusStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+
+/**
+ * Müşteri bonus bakiyelerinin aralık histogramı (GET /api/customers/bonus-stats), tabloyu taramadan cevap verir.
+ * - Aralıklar erp.customers.bonus-stats.bounds alt sınırlarıdır: [b0,b1), [b1,b2) ... [bn, ∞).
+ * - Aralık başına adet ve toplam kesindir; yüzdelikler log-lineer alt kovalardan tahmin edilir (göreli hata ≤ 1/64).
+ * - Açılışta tek taramayla doldurulur; sonra her bakiye değişimi commit sonrası eski kovadan yeni kovaya taşınır.
+ *   Tarama ile eşzamanlı commit'ler taramanın snapshot'ına göre bir kez sayılır (bkz. ReloadableView).
+ * Başka bir instance'ın yaptığı değişiklikler görünmez; çok instance'lı kurulumda rebuild-cron ile yeniden kurulur.
+ */
+@Slf4j
+@Component
+public class BonusHistogram {
+
+    // Kuruş cinsinden: 128'in altı birebir, üstünde her [2^k, 2^(k+1)) aralığı 64 alt kovaya bölünür.
+    private static final int LINEAR = 128;
+    private static final int SUB_BUCKETS = 64;
+    private static final int BINS = LINEAR + (Long.SIZE - 8) * SUB_BUCKETS;
+
+    public record Move(Money from, Money to) {
+    }
+
+    private final CustomerDao customerDao;
+    private final boolean enabled;
+    private final long[] bounds;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final ReloadableView<Buckets> view;
+    private volatile Instant builtAt;
+
+    public BonusHistogram(CustomerDao customerDao,
+                          CommitFence commitFence,
+                          @Value("${erp.customers.bonus-stats.enabled:true}") boolean enabled,
+                          @Value("${erp.customers.bonus-stats.bounds:0,100,1000,10000,100000}") BigDecimal[] bounds) {
+        this.customerDao = customerDao;
+        this.view = new ReloadableView<>(commitFence);
+        this.enabled = enabled;
+        this.bounds = Arrays.stream(bounds).mapToLong(BonusHistogram::cents).toArray();
+        for (int i = 1; i < this.bounds.length; i++) {
+            if (this.bounds[i] <= this.bounds[i - 1]) {
+                throw new IllegalStateException("erp.customers.bonus-stats.bounds artan sırada olmalı");
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    @Scheduled(cron = "${erp.customers.bonus-stats.rebuild-cron:-}", zone = "UTC")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /** Yeni müşteriler sıfır bakiyeyle başlar. */
+    public void addNewCustomersAfterCommit(int count) {
+        addAllAfterCommit(Map.of(BigDecimal.ZERO, (long) count));
+    }
+
+    /** Açılış bakiyeli yeni müşteriler (bakiye → adet), örn. CSV import. */
+    public void addAllAfterCommit(Map<BigDecimal, Long> countsByBalance) {
+        if (!enabled || countsByBalance.isEmpty()) {
+            return;
+        }
+        view.changeAfterCommit(b -> countsByBalance.forEach((balance, count) -> b.add(cents(balance), count)));
+    }
+
+    public void moveAfterCommit(Money from, Money to) {
+        moveAllAfterCommit(List.of(new Move(from, to)));
+    }
+
+    public void moveAllAfterCommit(Collection<Move> moves) {
+        if (!enabled || moves.isEmpty()) {
+            return;
+        }
+        view.changeAfterCommit(b -> {
+            for (Move move : moves) {
+                b.add(move.from().cents(), -1);
+                b.add(move.to().cents(), 1);
+            }
+        });
+    }
+
+    public BonusStatsDto stats() {
+        Buckets b = view.get();
+        if (!enabled || b == null) {
+            throw new BusinessException(ErrorCode.BONUS_STATS_UNAVAILABLE);
+        }
+
+        List<BonusRangeStatsDto> ranges = new ArrayList<>(bounds.length);
+        long totalCount = 0;
+        long totalSum = 0;
+        for (int r = 0; r < bounds.length; r++) {
+            long count = b.count.get(r);
+            long sum = b.sum.get(r);
+            totalCount += count;
+            totalSum += sum;
+            ranges.add(new BonusRangeStatsDto(
+                    amount(bounds[r]),
+                    r + 1 < bounds.length ? amount(bounds[r + 1]) : null,
+                    count,
+                    amount(sum),
+                    percentile(b, r, r, count, 0.50),
+                    percentile(b, r, r, count, 0.90),
+                    percentile(b, r, r, count, 0.99)));
+        }
+        int last = bounds.length - 1;
+        return new BonusStatsDto(totalCount, amount(totalSum),
+                percentile(b, 0, last, totalCount, 0.50),
+                percentile(b, 0, last, totalCount, 0.90),
+                percentile(b, 0, last, totalCount, 0.99),
+                builtAt, ranges);
+    }
+
+    void rebuild() {
+        if (!enabled || !rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            view.reload(() -> {
+                Buckets next = new Buckets(bounds.length);
+                try (Stream<Money> bonuses = customerDao.streamAllBonuses()) {
+                    bonuses.forEach(bonus -> next.add(bonus.cents(), 1));
+                }
+                return next;
+            });
+            builtAt = Instant.now();
+            log.info("Bonus histogramı hazır ({} müşteri, {} ms)", view.get().total(), System.currentTimeMillis() - start);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    /**
+     * [fromRange, toRange] aralıklarının birleşiminde q. yüzdelik; kovalar sıralı olduğundan sırayla toplanır.
+     * Tahmin alt kovanın orta noktasıdır, aralık sınırlarına kırpılır.
+     */
+    private BigDecimal percentile(Buckets b, int fromRange, int toRange, long count, double q) {
+        if (count == 0) {
+            return null;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int r = fromRange; r <= toRange; r++) {
+            for (int bin = 0; bin < BINS; bin++) {
+                long n = b.bins.get(r * BINS + bin);
+                if (n == 0) {
+                    continue;
+                }
+                seen += n;
+                if (seen >= rank) {
+                    long lo = r == 0 ? 0 : bounds[r];
+                    long hi = r + 1 < bounds.length ? bounds[r + 1] - 1 : Long.MAX_VALUE;
+                    long mid = binLow(bin) + (binWidth(bin) - 1) / 2;
+                    return amount(Math.min(hi, Math.max(lo, mid)));
+                }
+            }
+        }
+        return null;
+    }
+
+    private int range(long cents) {
+        int r = Arrays.binarySearch(bounds, cents);
+        // Bulunamazsa -(ekleme noktası) - 1 döner; ilk sınırın altı ilk aralığa sayılır.
+        return r >= 0 ? r : Math.max(0, -r - 2);
+    }
+
+    private static int bin(long cents) {
+        if (cents < LINEAR) {
+            return (int) Math.max(0, cents);
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(cents)) - 6;
+        return LINEAR + (shift - 1) * SUB_BUCKETS + (int) ((cents >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long binLow(int bin) {
+        if (bin < LINEAR) {
+            return bin;
+        }
+        int shift = (bin - LINEAR) / SUB_BUCKETS + 1;
+        return ((long) ((bin - LINEAR) % SUB_BUCKETS + SUB_BUCKETS)) << shift;
+    }
+
+    private static long binWidth(int bin) {
+        return bin < LINEAR ? 1 : 1L << ((bin - LINEAR) / SUB_BUCKETS + 1);
+    }
+
+    private static long cents(BigDecimal value) {
+        return value.movePointRight(2).longValue();
+    }
+
+    private static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    private final class Buckets {
+        final AtomicLongArray count;
+        final AtomicLongArray sum;   // kuruş
+        final AtomicLongArray bins;  // aralık başına BINS alt kova
+
+        Buckets(int ranges) {
+            this.count = new AtomicLongArray(ranges);
+            this.sum = new AtomicLongArray(ranges);
+            this.bins = new AtomicLongArray(ranges * BINS);
+        }
+
+        void add(long cents, long n) {
+            int r = range(cents);
+            count.addAndGet(r, n);
+            sum.addAndGet(r, n * cents);
+            bins.addAndGet(r * BINS + bin(cents), n);
+        }
+
+        long total() {
+            long total = 0;
+            for (int r = 0; r < count.length(); r++) {
+                total += count.get(r);
+            }
+            return total;
+        }
+    }
+}
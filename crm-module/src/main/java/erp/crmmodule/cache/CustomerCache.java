@@ -0,0 +1,139 @@
+package erp.crmmodule.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import erp.commonmodule.util.TransactionHooks;
+import erp.crmmodule.dto.CustomerDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+
+/**
+ * Uygulama içi müşteri okuma cache'i (Caffeine; boyut + TTL ile tahliye).
+ * - byId     : id → CustomerDto (bonus bakiyesi dahil)
+ * - idByEmail: email → id (email değişmediği için bakiye değişiminde geçersizlenmez)
+ * Yazma tarafı değişiklikleri transaction commit edildikten sonra uygular;
+ * böylece commit edilmemiş (geri alınabilecek) bir bakiye hiçbir zaman cache'e girmez.
+ *
+ * AsyncCache kullanılır: DB'den yükleme Caffeine'in (ConcurrentHashMap) kilidi dışında, çağıran thread'de
+ * yapılır; aynı anahtarı bekleyenler future üzerinde park eder. Böylece virtual thread'ler JDBC
+ * çağrısı sırasında synchronized bloğa sabitlenmez (pinning).
+ *
+ * Hit/miss/eviction sayıları Micrometer'a da bağlanır (cache.gets{cache=customers.byId|customers.idByEmail}).
+ */
+@Component
+public class CustomerCache {
+
+    private final AsyncCache<Long, CustomerDto> byId;
+    private final AsyncCache<String, Long> idByEmail;
+
+    public CustomerCache(@Value("${erp.customers.cache.max-size:100000}") long maxSize,
+                         @Value("${erp.customers.cache.ttl:10m}") Duration ttl,
+                         MeterRegistry meterRegistry) {
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.idByEmail = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "customers.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByEmail, "customers.idByEmail");
+    }
+
+    /** loader null dönerse (kayıt yok) cache'e bir şey yazılmaz. */
+    public CustomerDto get(Long id, Function<Long, CustomerDto> loader) {
+        return getOrLoad(byId, id, loader);
+    }
+
+    public Long getIdByEmail(String email, Function<String, Long> loader) {
+        return getOrLoad(idByEmail, email, loader);
+    }
+
+    public void putAfterCommit(CustomerDto customer) {
+        afterCommit(() -> {
+            byId.put(customer.getId(), CompletableFuture.completedFuture(customer));
+            idByEmail.put(customer.getEmail(), CompletableFuture.completedFuture(customer.getId()));
+        });
+    }
+
+    public void evictAfterCommit(Long customerId) {
+        afterCommit(() -> byId.synchronous().invalidate(customerId));
+    }
+
+    public void evictAllAfterCommit(Collection<Long> customerIds) {
+        afterCommit(() -> byId.synchronous().invalidateAll(customerIds));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("byId", toMap(byId.synchronous().stats(), byId.synchronous().estimatedSize()));
+        stats.put("idByEmail", toMap(idByEmail.synchronous().stats(), idByEmail.synchronous().estimatedSize()));
+        return stats;
+    }
+
+    private static Map<String, Object> toMap(CacheStats stats, long size) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("size", size);
+        map.put("hitCount", stats.hitCount());
+        map.put("missCount", stats.missCount());
+        map.put("hitRate", stats.hitRate());
+        map.put("evictionCount", stats.evictionCount());
+        return map;
+    }
+
+    /**
+     * Anahtar yoksa boş bir future yerleştirilir (kilit altında yalnızca bu yapılır) ve loader
+     * kilit dışında çalıştırılır. null sonuç (kayıt yok) ve hata Caffeine tarafından cache'ten düşürülür.
+     * Yükleme sürerken gelen invalidate future'ı düşürür; eski değer cache'e geri yazılmaz.
+     */
+    private static <K, V> V getOrLoad(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                V value = loader.apply(key);
+                created.complete(value);
+                return value;
+            } catch (RuntimeException ex) {
+                created.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
+    }
+
+    // Aktif transaction yoksa hemen uygula.
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionHooks.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
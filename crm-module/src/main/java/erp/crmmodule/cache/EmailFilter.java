@@ -0,0 +1,138 @@
+package erp.crmmodule.cache;
+
+import erp.commonmodule.util.TransactionHooks;
+import erp.crmmodule.dao.CustomerDao;
+import jakarta.transaction.Transactional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+
+/**
+ * Kayıtlı email'ler için Bloom filtresi (opsiyonel, erp.customers.email-filter.enabled).
+ * - mightContain=false → email kesinlikle kayıtlı değil; existsByEmail sorgusu atlanır.
+ * - mightContain=true  → yanlış pozitif olabilir; DB'ye sorulur.
+ * Filtre uygulama açılışında DB'den doldurulur; hazır olana kadar ve kapalıyken her zaman true döner.
+ * Başka bir instance'ın eklediği email'ler filtrede olmayabilir; son güvence unique constraint'tir.
+ */
+@Slf4j
+@Component
+public class EmailFilter {
+
+    private final CustomerDao customerDao;
+    private final boolean enabled;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLongArray bits;
+
+    private volatile boolean ready;
+
+    public EmailFilter(CustomerDao customerDao,
+                       @Value("${erp.customers.email-filter.enabled:false}") boolean enabled,
+                       @Value("${erp.customers.email-filter.expected-insertions:1000000}") long expectedInsertions,
+                       @Value("${erp.customers.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.customerDao = customerDao;
+        this.enabled = enabled;
+        // m = -n·ln(p) / ln(2)^2 , k = m/n · ln(2)
+        long m = enabled ? (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))) : 64;
+        this.bitCount = Math.max(64, m);
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / Math.max(1, expectedInsertions) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((bitCount + 63) >>> 6));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void warmUp() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try (Stream<String> emails = customerDao.streamAllEmails()) {
+            emails.forEach(this::put);
+        }
+        ready = true;
+        log.info("Email filtresi hazır ({} bit, {} hash, {} ms)", bitCount, hashCount, System.currentTimeMillis() - start);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean mightContain(String email) {
+        if (!enabled || !ready || email == null) {
+            return true;
+        }
+        long h1 = hash(email);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void putAfterCommit(String email) {
+        putAllAfterCommit(List.of(email));
+    }
+
+    public void putAllAfterCommit(Collection<String> emails) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            emails.forEach(this::put);
+            return;
+        }
+        TransactionHooks.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                emails.forEach(EmailFilter.this::put);
+            }
+        });
+    }
+
+    private void put(String email) {
+        long h1 = hash(email);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) break;
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    // FNV-1a (64 bit) + murmur3 fmix64
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -1,16 +1,37 @@
 package erp.crmmodule.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.idempotency.IdempotencyService;
+import erp.commonmodule.idempotency.IdempotentResult;
+import erp.commonmodule.money.Money;
 import erp.commonmodule.response.ApiResponse;
+import erp.commonmodule.response.CursorPage;
+import erp.commonmodule.util.CursorUtils;
+import erp.crmmodule.dto.BonusBalanceDto;
+import erp.crmmodule.dto.BonusStatsDto;
+import erp.crmmodule.dto.CustomerActivityDto;
+import erp.crmmodule.dto.CustomerSummaryDto;
 import erp.crmmodule.dto.BonusRequestDto;
 import erp.crmmodule.dto.BonusTransactionDto;
+import erp.crmmodule.dto.CustomerBulkResultDto;
 import erp.crmmodule.dto.CustomerDto;
+import erp.crmmodule.dto.CustomerImportResultDto;
 import erp.crmmodule.services.CustomerService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/customers")
@@ -18,6 +39,8 @@ import java.util.List;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
 
     @PostMapping
@@ -27,23 +50,131 @@ public class CustomerController {
     }
 
 
+    // Toplu onboarding: kayıtlı email'ler hata değil, duplicates olarak raporlanır.
+    @PostMapping("/bulk")
+    public ResponseEntity<ApiResponse<CustomerBulkResultDto>> createCustomers(@RequestBody List<CustomerDto> customers) {
+        CustomerBulkResultDto result = customerService.createCustomers(customers);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+
+    // Mağaza zinciri geçişi: CSV (name,email,bonus) gövdesi belleğe alınmadan COPY ile yüklenir; hatalı satırlar raporlanır.
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ApiResponse<CustomerImportResultDto>> importCustomers(InputStream body) {
+        return ResponseEntity.ok(ApiResponse.success(customerService.importCustomers(body)));
+    }
+
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<CustomerDto>> getCustomer(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(customerService.getCustomer(id)));
+    }
+
+
+    @GetMapping("/by-email")
+    public ResponseEntity<ApiResponse<CustomerDto>> getCustomerByEmail(@RequestParam String email) {
+        return ResponseEntity.ok(ApiResponse.success(customerService.getCustomerByEmail(email)));
+    }
+
+
+    // Müşteri cache'i isabet/ıskalama/tahliye sayaçları
+    @GetMapping("/cache-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> cacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(customerService.cacheStats()));
+    }
+
+
+    // Bonus aralıklarına göre müşteri adedi, toplam ve yüzdelikler (bellekteki histogramdan)
+    @GetMapping("/bonus-stats")
+    public ResponseEntity<ApiResponse<BonusStatsDto>> bonusStats() {
+        return ResponseEntity.ok(ApiResponse.success(customerService.getBonusStats()));
+    }
+
+
+    // Keyset sayfalı liste: sonraki sayfa için query.next değeri cursor olarak gönderilir.
     @GetMapping
-    public ResponseEntity<ApiResponse<List<CustomerDto>>> listCustomers(@RequestParam(required = false) BigDecimal minBonus, @RequestParam(required = false) BigDecimal maxBonus) {
-        List<CustomerDto> customers = customerService.listCustomers(minBonus, maxBonus);
+    public ResponseEntity<ApiResponse<List<CustomerDto>>> listCustomers(@RequestParam(required = false) Money minBonus,
+                                                                        @RequestParam(required = false) Money maxBonus,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(defaultValue = CursorUtils.DEFAULT_LIMIT_PARAM) int limit) {
+        CursorPage<CustomerDto> customers = customerService.listCustomers(minBonus, maxBonus, cursor, limit);
         return ResponseEntity.ok(ApiResponse.success(customers));
     }
 
 
+    // Tüm sonuç NDJSON olarak akıtılır (satır başına bir müşteri); ApiResponse zarfı yok.
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamCustomers(@RequestParam(required = false) Money minBonus,
+                                                                 @RequestParam(required = false) Money maxBonus) {
+        StreamingResponseBody body = out -> customerService.streamCustomers(minBonus, maxBonus, customer -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(customer));
+                out.write('\n');
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+
+    // Idempotency-Key verilirse istemci tekrarları bonusu ikinci kez eklemez, ilk yanıt döner.
     @PostMapping("/{id}/bonus")
-    public ResponseEntity<ApiResponse<CustomerDto>> addBonus(@PathVariable Long id, @RequestBody BonusRequestDto request) {
-        CustomerDto updated = customerService.addBonus(id, request);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+    public ResponseEntity<ApiResponse<CustomerDto>> addBonus(@RequestHeader(value = IdempotentResult.HEADER, required = false) String idempotencyKey,
+                                                             @PathVariable Long id,
+                                                             @RequestBody BonusRequestDto request) {
+        IdempotentResult<CustomerDto> updated = idempotencyService.execute("POST /api/customers/" + id + "/bonus", idempotencyKey, request,
+                CustomerDto.class, () -> customerService.addBonus(id, request));
+        return ResponseEntity.ok()
+                .header(IdempotentResult.REPLAYED_HEADER, String.valueOf(updated.replayed()))
+                .body(ApiResponse.success(updated.body()));
+    }
+
+
+    // asOf (ISO-8601 instant, dahil) anındaki bakiye; verilmezse şu an. En yakın snapshot + sonraki hareketler.
+    @GetMapping("/{id}/bonus")
+    public ResponseEntity<ApiResponse<BonusBalanceDto>> getBonusBalance(@PathVariable Long id,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant asOf) {
+        return ResponseEntity.ok(ApiResponse.success(customerService.getBonusBalance(id, asOf)));
+    }
+
+
+    // Fatura sayısı, son fatura ve son bonus değişimi; outbox üzerinden asenkron güncellenir.
+    @GetMapping("/{id}/activity")
+    public ResponseEntity<ApiResponse<CustomerActivityDto>> getActivity(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(customerService.getActivity(id)));
+    }
+
+
+    // Satış/iade/net harcama (tip bazında) ve kazanılan/harcanan bonus; from/to ISO tarih (UTC gün, dahil).
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<ApiResponse<CustomerSummaryDto>> getSummary(@PathVariable Long id,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(ApiResponse.success(customerService.getSummary(id, from, to)));
     }
 
 
+    // Yeni → eski, keyset sayfalı; from/to ISO-8601 instant ([from, to) aralığı).
     @GetMapping("/{id}/bonus-transactions")
-    public ResponseEntity<ApiResponse<List<BonusTransactionDto>>> listBonusTransactions(@PathVariable Long id) {
-        List<BonusTransactionDto> transactions = customerService.listBonusTransactions(id);
+    public ResponseEntity<ApiResponse<List<BonusTransactionDto>>> listBonusTransactions(@PathVariable Long id,
+                                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                                        @RequestParam(required = false) String cursor,
+                                                                                        @RequestParam(defaultValue = CursorUtils.DEFAULT_LIMIT_PARAM) int limit) {
+        CursorPage<BonusTransactionDto> transactions = customerService.listBonusTransactions(id, from, to, cursor, limit);
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
+
+
+    // Finans export'u: tüm müşterilerin [from, to) hareketleri DB cursor'ından CSV/NDJSON olarak akıtılır.
+    @GetMapping("/bonus-transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportBonusTransactions(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                         @RequestParam(defaultValue = "csv") String format,
+                                                                         @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> customerService.exportBonusTransactions(from, to, exportFormat, gzip, out);
+        return ResponseEntity.ok().headers(exportFormat.headers("bonus-transactions", gzip)).body(body);
+    }
 }
@@ -0,0 +1,29 @@
+package erp.crmmodule.dao;
+
+import erp.crmmodule.models.BonusSnapshotEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BonusSnapshotDao extends JpaRepository<BonusSnapshotEntity, Long> {
+
+    // asOf anındaki bakiye için başlangıç noktası (uk_bonus_snapshots_customer_as_of üzerinden).
+    Optional<BonusSnapshotEntity> findFirstByCustomer_IdAndAsOfLessThanEqualOrderByAsOfDesc(Long customerId, Instant asOf);
+
+    // Snapshot job'ının bir önceki sınırı (ilk çalıştırmada null).
+    @Query("select max(s.asOf) from BonusSnapshotEntity s where s.asOf < :asOf")
+    Instant findLastAsOfBefore(@Param("asOf") Instant asOf);
+
+    // Her müşterinin asOf'a kadarki (dahil) en güncel snapshot'ı.
+    @Query("select s from BonusSnapshotEntity s " +
+            "where s.customer.id in :customerIds " +
+            "and s.asOf = (select max(s2.asOf) from BonusSnapshotEntity s2 " +
+            "              where s2.customer.id = s.customer.id and s2.asOf <= :asOf)")
+    List<BonusSnapshotEntity> findLatest(@Param("customerIds") Collection<Long> customerIds,
+                                         @Param("asOf") Instant asOf);
+}
@@ -1,10 +1,50 @@
 package erp.crmmodule.dao;
 
+import erp.crmmodule.dto.BonusSumDto;
+import erp.crmmodule.dto.BonusTransactionDto;
 import erp.crmmodule.models.BonusTransactionEntity;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface BonusTransactionDao extends JpaRepository<BonusTransactionEntity, Long> {
-    List<BonusTransactionEntity> findByCustomer_IdOrderByCreatedAtDesc(Long customerId);
+
+    /**
+     * Müşterinin hareketleri (yeni → eski), keyset sayfalı DTO projeksiyonu.
+     * - from/to      : createdAt aralığı (verilmezse TimeBounds.MIN/MAX)
+     * - afterCreatedAt/afterId : önceki sayfanın son kaydı (ilk sayfada TimeBounds.MAX / Long.MAX_VALUE)
+     * idx_bonus_tx_customer_created index'i üzerinden okunur; entity yüklenmez.
+     * created_at koşulları null kontrolsüz yazılır ki aralık dışındaki aylık partition'lar elensin.
+     */
+    @Query("select new erp.crmmodule.dto.BonusTransactionDto(t.id, t.amount, t.description, t.createdAt) " +
+            "from BonusTransactionEntity t " +
+            "where t.customer.id = :customerId " +
+            "and t.createdAt >= :from " +
+            "and t.createdAt < :to " +
+            "and t.createdAt <= :afterCreatedAt " +
+            "and (t.createdAt < :afterCreatedAt or t.id < :afterId) " +
+            "order by t.createdAt desc, t.id desc")
+    List<BonusTransactionDto> findPage(@Param("customerId") Long customerId,
+                                       @Param("from") Instant from,
+                                       @Param("to") Instant to,
+                                       @Param("afterCreatedAt") Instant afterCreatedAt,
+                                       @Param("afterId") Long afterId,
+                                       Pageable pageable);
+
+    /**
+     * [from, asOf] aralığındaki hareketlerin toplamı ve sayısı; ledger başından için from = TimeBounds.MIN.
+     * Snapshot'tan sonraki kuyruğu idx_bonus_tx_customer_created aralık taramasıyla toplar.
+     */
+    @Query("select new erp.crmmodule.dto.BonusSumDto(coalesce(sum(t.amount), 0), count(t)) " +
+            "from BonusTransactionEntity t " +
+            "where t.customer.id = :customerId " +
+            "and t.createdAt >= :from " +
+            "and t.createdAt <= :asOf")
+    BonusSumDto sumBetween(@Param("customerId") Long customerId,
+                           @Param("from") Instant from,
+                           @Param("asOf") Instant asOf);
 }
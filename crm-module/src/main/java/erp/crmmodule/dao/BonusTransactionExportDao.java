@@ -0,0 +1,29 @@
+package erp.crmmodule.dao;
+
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.export.RowExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+
+/**
+ * Bonus ledger export sorgusu (bkz. RowExporter); sıralama yok, created_at aralığı partition'ları eler.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BonusTransactionExportDao {
+
+    private static final String SQL =
+            "select id, customer_id as \"customerId\", amount, description, created_at as \"createdAt\" " +
+                    "from bonus_transactions where created_at >= ? and created_at < ?";
+
+    private final RowExporter rowExporter;
+
+    public long export(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return rowExporter.export(SQL, new Object[]{Timestamp.from(from), Timestamp.from(to)}, format, gzip, out);
+    }
+}
@@ -0,0 +1,33 @@
+package erp.crmmodule.dao;
+
+import erp.crmmodule.models.CustomerActivityEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+
+@Repository
+public interface CustomerActivityDao extends JpaRepository<CustomerActivityEntity, Long> {
+
+    // count: batch içinde aynı müşteriye ait olay sayısı.
+    // Olaylar sırasız gelebilir (yeniden deneme): son zaman damgası greatest ile korunur.
+    @Modifying
+    @Query(value = "insert into customer_activity (customer_id, invoice_count, last_invoice_at, bonus_change_count) " +
+            "values (:customerId, :count, :at, 0) " +
+            "on conflict (customer_id) do update set invoice_count = customer_activity.invoice_count + excluded.invoice_count, " +
+            "last_invoice_at = greatest(customer_activity.last_invoice_at, excluded.last_invoice_at)",
+            nativeQuery = true)
+    void recordInvoices(@Param("customerId") Long customerId, @Param("count") long count, @Param("at") Instant at);
+
+    @Modifying
+    @Query(value = "insert into customer_activity (customer_id, invoice_count, bonus_change_count, last_bonus_change_at) " +
+            "values (:customerId, 0, :count, :at) " +
+            "on conflict (customer_id) do update set bonus_change_count = customer_activity.bonus_change_count + excluded.bonus_change_count, " +
+            "last_bonus_change_at = greatest(customer_activity.last_bonus_change_at, excluded.last_bonus_change_at)",
+            nativeQuery = true)
+    void recordBonusChanges(@Param("customerId") Long customerId, @Param("count") long count, @Param("at") Instant at);
+}
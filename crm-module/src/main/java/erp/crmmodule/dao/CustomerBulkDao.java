@@ -0,0 +1,19 @@
+package erp.crmmodule.dao;
+
+import erp.crmmodule.models.CustomerEntity;
+
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * CustomerDao'ya eklenen toplu yazma parçası (Spring Data custom fragment).
+ */
+public interface CustomerBulkDao {
+
+    /**
+     * INSERT ... ON CONFLICT (email) DO NOTHING RETURNING id, email
+     * Email'i zaten kayıtlı olan satırlar atlanır; dönen map yalnızca eklenenleri içerir (email → id).
+     */
+    Map<String, Long> insertIgnoringDuplicateEmails(List<CustomerEntity> customers);
+}
@@ -0,0 +1,68 @@
+package erp.crmmodule.dao;
+
+import erp.crmmodule.models.CustomerEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+@RequiredArgsConstructor
+public class CustomerBulkDaoImpl implements CustomerBulkDao {
+
+    // 7 parametre/satır; PostgreSQL tek statement'ta en fazla 32767 parametre kabul eder.
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public Map<String, Long> insertIgnoringDuplicateEmails(List<CustomerEntity> customers) {
+        // Id'ler Hibernate'in sequence generator'ından alınır; böylece entity üzerinden yapılan insert'lerle çakışmaz.
+        SharedSessionContractImplementor session = em.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(CustomerEntity.class)
+                .getGenerator();
+        Timestamp now = Timestamp.from(Instant.now());
+
+        Map<String, Long> inserted = new HashMap<>(customers.size() * 2);
+        for (int from = 0; from < customers.size(); from += ROWS_PER_STATEMENT) {
+            List<CustomerEntity> chunk = customers.subList(from, Math.min(from + ROWS_PER_STATEMENT, customers.size()));
+
+            StringBuilder sql = new StringBuilder(
+                    "insert into customers (id, name, email, bonus, version, created_at, updated_at) values ");
+            List<Object> args = new ArrayList<>(chunk.size() * 7);
+            for (int i = 0; i < chunk.size(); i++) {
+                CustomerEntity customer = chunk.get(i);
+                sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+                args.add(generator.generate(session, customer, null, EventType.INSERT));
+                args.add(customer.getName());
+                args.add(customer.getEmail());
+                args.add(customer.getBonus().toBigDecimal());
+                args.add(0L);
+                args.add(now);
+                args.add(now);
+            }
+            sql.append(" on conflict (email) do nothing returning id, email");
+
+            jdbcTemplate.query(sql.toString(),
+                    (RowCallbackHandler) rs -> inserted.put(rs.getString("email"), rs.getLong("id")),
+                    args.toArray());
+        }
+        return inserted;
+    }
+}
@@ -1,20 +1,60 @@
 package erp.crmmodule.dao;
 
+import erp.commonmodule.money.Money;
 import erp.crmmodule.models.CustomerEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 
 @Repository
-public interface CustomerDao extends JpaRepository<CustomerEntity, Long>, JpaSpecificationExecutor<CustomerEntity> {
+public interface CustomerDao extends JpaRepository<CustomerEntity, Long>, JpaSpecificationExecutor<CustomerEntity>, CustomerBulkDao {
 
     boolean existsByEmail(String email);
 
-    List<CustomerEntity> findByBonusBetween(BigDecimal min, BigDecimal max);
+    @Query("select c.id from CustomerEntity c where c.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // Email filtresini doldurmak için; transaction içinde DB cursor'ı ile akıtılır.
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select c.email from CustomerEntity c")
+    Stream<String> streamAllEmails();
+
+    // Bonus histogramını kurmak için; CommitFence'in REPEATABLE READ transaction'ında tek sorgu, DB cursor'ı ile akıtılır.
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("select c.bonus from CustomerEntity c")
+    Stream<Money> streamAllBonuses();
+
+    List<CustomerEntity> findByBonusBetween(Money min, Money max);
+
+    /**
+     * Atomik bonus güncellemesi: bakiye kontrolü ve yazma tek UPDATE ile DB tarafında yapılır.
+     * Bakiye sıfırın altına düşecekse (veya müşteri yoksa) satır güncellenmez → 0 döner.
+     * version da artırılır; aynı satırı entity üzerinden güncelleyen işlemler çakışmayı yine görür.
+     * bonus alanı Money (converter) olduğundan aritmetik native SQL'de; delta kolona BigDecimal olarak bağlanır.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "update customers set bonus = bonus + :delta, version = version + 1 " +
+            "where id = :id and bonus + :delta >= 0", nativeQuery = true)
+    int applyBonusDelta(@Param("id") Long id, @Param("delta") BigDecimal delta);
+
+    /**
+     * applyBonusDelta ile aynı koşullu UPDATE; yeni bakiyeyi RETURNING ile ek okuma yapmadan döndürür (PostgreSQL).
+     * Satır güncellenmezse boş döner.
+     */
+    @Query(value = "update customers set bonus = bonus + :delta, version = version + 1 " +
+            "where id = :id and bonus + :delta >= 0 returning bonus", nativeQuery = true)
+    Optional<BigDecimal> applyBonusDeltaReturning(@Param("id") Long id, @Param("delta") BigDecimal delta);
 
 
 }
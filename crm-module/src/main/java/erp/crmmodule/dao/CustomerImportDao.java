@@ -0,0 +1,191 @@
+package erp.crmmodule.dao;
+
+import erp.commonmodule.events.BonusChanged;
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ValidationException;
+import erp.crmmodule.dto.CustomerImportErrorDto;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Müşteri CSV import'u (PostgreSQL): COPY → staging → küme tabanlı doğrulama → tek statement'ta merge.
+ * Staging tablosu transaction'a özel geçici tablodur (on commit drop); tüm metotlar aynı transaction'da çağrılmalıdır.
+ * row_no: CSV'deki veri satırı sırası (başlık hariç, 1'den başlar).
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerImportDao {
+
+    // Sequence'lar Hibernate pooled optimizer ile allocationSize=50 kullanılır (bkz. AbstractEntity):
+    // nextval = V ise [V-49, V] aralığı bu çağırana aittir. İlk değer (1) Hibernate'te özel durum olduğundan atlanır.
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String MERGE_SQL = """
+            with valid as (
+                select row_no, trim(name) as name, trim(email) as email,
+                       cast(coalesce(nullif(trim(bonus), ''), '0') as numeric(38, 2)) as bonus,
+                       row_number() over (order by row_no) - 1 as rn
+                from customer_import where error is null
+            ),
+            customer_blocks as (
+                select row_number() over (order by hi) - 1 as blk, hi
+                from (select nextval('customers_seq') as hi
+                      from generate_series(0, (select count(*) from valid) / %1$d + 1)) s
+                where hi >= %1$d
+            ),
+            inserted as (
+                insert into customers (id, name, email, bonus, version, created_at, updated_at)
+                select b.hi - (%1$d - 1) + v.rn %% %1$d, v.name, v.email, v.bonus, 0, now(), now()
+                from valid v join customer_blocks b on b.blk = v.rn / %1$d
+                on conflict (email) do nothing
+                returning id, email, bonus
+            ),
+            opening as (
+                select id, bonus, row_number() over (order by id) - 1 as rn from inserted where bonus > 0
+            ),
+            ledger_blocks as (
+                select row_number() over (order by hi) - 1 as blk, hi
+                from (select nextval('bonus_transactions_seq') as hi
+                      from generate_series(0, (select count(*) from valid where bonus > 0) / %1$d + 1)) s
+                where hi >= %1$d
+            ),
+            ledger as (
+                insert into bonus_transactions (id, customer_id, amount, description, version, created_at, updated_at)
+                select b.hi - (%1$d - 1) + o.rn %% %1$d, o.id, o.bonus, ?, 0, now(), now()
+                from opening o join ledger_blocks b on b.blk = o.rn / %1$d
+                returning 1
+            ),
+            events as (
+                -- Her açılış hareketi için BonusChanged (OutboxPublisher'ın yazdığı JSON ile aynı biçim);
+                -- rollup ve activity projection'ları diğer bonus değişimleri gibi outbox'tan beslenir.
+                insert into outbox_events (event_type, aggregate_id, payload, created_at, available_at)
+                select ?, o.id,
+                       jsonb_build_object('customerId', o.id, 'delta', o.bonus, 'description', cast(? as text),
+                                          'changedAt', to_char(now() at time zone 'UTC', 'YYYY-MM-DD"T"HH24:MI:SS.US"Z"')),
+                       now(), now()
+                from opening o
+                where cast(? as boolean)
+                order by o.id
+                returning 1
+            ),
+            conflicts as (
+                -- Doğrulamadan sonra başka bir istekle eklenmiş email'ler
+                update customer_import s set error = 'EMAIL_EXISTS'
+                from valid v
+                where s.row_no = v.row_no and not exists (select 1 from inserted i where i.email = v.email)
+                returning 1
+            )
+            select (select count(*) from inserted), (select count(*) from ledger), (select count(*) from conflicts)
+            """.formatted(ALLOCATION_SIZE);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createStaging() {
+        jdbcTemplate.execute("""
+                create temp table customer_import (
+                    row_no bigint generated always as identity,
+                    name   text,
+                    email  text,
+                    bonus  text,
+                    error  varchar(30)
+                ) on commit drop""");
+    }
+
+    /** CSV (başlık name,email,bonus) COPY ile staging'e akıtılır; biçim hatasında tüm import reddedilir. */
+    public long copy(InputStream csv) {
+        try {
+            Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                try {
+                    return con.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                            "copy customer_import (name, email, bonus) from stdin with (format csv, header match)", csv);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            return rows == null ? 0 : rows;
+        } catch (DataAccessException ex) {
+            if (ex.getMostSpecificCause() instanceof SQLException sql) {
+                throw new ValidationException(ErrorCode.CUSTOMER_IMPORT_INVALID_CSV, sql.getMessage());
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Tek UPDATE ile satır hataları. Dosya içi tekrarda satır kontrollerinden geçen ilk satır geçerli sayılır;
+     * böylece hatalı bir satır aynı email'li geçerli satırı EMAIL_DUPLICATE yapmaz.
+     * Yalnızca hatalı satırlar yazılır (geçici tabloda tüm satırları yeniden yazmak doğrulamanın çoğunu alıyordu);
+     * trim okuyan sorgularda yapılır.
+     */
+    public void validate() {
+        jdbcTemplate.update("""
+                update customer_import s set error = e.error
+                from (
+                    select row_no, case
+                        when row_error is not null then row_error
+                        when min(row_no) filter (where row_error is null) over (partition by email) <> row_no then 'EMAIL_DUPLICATE'
+                        when exists (select 1 from customers c where c.email = r.email) then 'EMAIL_EXISTS'
+                    end as error
+                    from (select row_no, email, case
+                                     when coalesce(name, '') = '' or length(name) > 150 then 'NAME_INVALID'
+                                     when coalesce(email, '') = '' or length(email) > 150 or email not like '_%@_%' then 'EMAIL_INVALID'
+                                     when bonus like '-%' then 'BONUS_NEGATIVE'
+                                     when coalesce(bonus, '') <> '' and bonus !~ '^[0-9]{1,36}(\\.[0-9]{1,2})?$' then 'BONUS_INVALID'
+                                 end as row_error
+                          from (select row_no, trim(name) as name, trim(email) as email, trim(bonus) as bonus
+                                from customer_import) x) r
+                ) e
+                where s.row_no = e.row_no and e.error is not null""");
+    }
+
+    /**
+     * [eklenen müşteri, açılış hareketi, çakışan email] sayıları.
+     * publishEvents: açılış hareketleri aynı statement'ta BonusChanged olarak outbox_events'e yazılır.
+     */
+    public long[] merge(String openingDescription, boolean publishEvents) {
+        return jdbcTemplate.queryForObject(MERGE_SQL,
+                (rs, i) -> new long[]{rs.getLong(1), rs.getLong(2), rs.getLong(3)},
+                openingDescription, BonusChanged.class.getSimpleName(), openingDescription, publishEvents);
+    }
+
+    public long countErrors() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from customer_import where error is not null", Long.class);
+        return count == null ? 0 : count;
+    }
+
+    public List<CustomerImportErrorDto> findErrors(int limit) {
+        return jdbcTemplate.query(
+                "select row_no, trim(email) as email, error from customer_import where error is not null order by row_no limit ?",
+                (rs, i) -> new CustomerImportErrorDto(rs.getLong("row_no"), rs.getString("email"), rs.getString("error")),
+                limit);
+    }
+
+    /** Eklenen müşterilerin bakiye dağılımı (bakiye → adet); bonus histogramı için. */
+    public Map<BigDecimal, Long> countImportedByBonus() {
+        Map<BigDecimal, Long> counts = new LinkedHashMap<>();
+        jdbcTemplate.query(
+                "select cast(coalesce(nullif(trim(bonus), ''), '0') as numeric(38, 2)) as bonus, count(*) as n " +
+                        "from customer_import where error is null group by 1",
+                (RowCallbackHandler) rs -> counts.put(rs.getBigDecimal("bonus"), rs.getLong("n")));
+        return counts;
+    }
+
+    public List<String> findImportedEmails() {
+        return jdbcTemplate.queryForList("select trim(email) from customer_import where error is null", String.class);
+    }
+}
@@ -0,0 +1,87 @@
+package erp.crmmodule.dao;
+
+import erp.crmmodule.dto.InvoiceTypeSummaryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+
+/**
+ * Müşteri rollup tabloları (customer_invoice_rollups, customer_bonus_rollups); gün UTC tarihidir.
+ * Yazmalar toplamsal upsert'tür: aynı anahtar için gelen satırlar mevcut satıra eklenir.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerRollupDao {
+
+    // Opsiyonel gün filtreleri için sınırlar (PostgreSQL date aralığı içinde).
+    public static final LocalDate MIN_DAY = LocalDate.of(1, 1, 1);
+    public static final LocalDate MAX_DAY = LocalDate.of(9999, 12, 31);
+
+    public record InvoiceRollup(Long customerId, LocalDate day, String invoiceType, long count, BigDecimal amount) {
+    }
+
+    public record BonusRollup(Long customerId, LocalDate day, BigDecimal earned, BigDecimal spent, long count) {
+    }
+
+    public record BonusTotals(BigDecimal earned, BigDecimal spent, long count) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Satırlar anahtar sırasıyla verilmelidir: eşzamanlı dispatcher'lar satır kilitlerini aynı sırayla alır. */
+    public void addInvoices(Collection<InvoiceRollup> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (InvoiceRollup row : rows) {
+            args.add(new Object[]{row.customerId(), row.day(), row.invoiceType(), row.count(), row.amount()});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into customer_invoice_rollups (customer_id, day, invoice_type, invoice_count, total_amount)
+                values (?, ?, ?, ?, ?)
+                on conflict (customer_id, day, invoice_type) do update
+                set invoice_count = customer_invoice_rollups.invoice_count + excluded.invoice_count,
+                    total_amount = customer_invoice_rollups.total_amount + excluded.total_amount""", args);
+    }
+
+    /** Satırlar anahtar sırasıyla verilmelidir (bkz. addInvoices). */
+    public void addBonusChanges(Collection<BonusRollup> rows) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (BonusRollup row : rows) {
+            args.add(new Object[]{row.customerId(), row.day(), row.earned(), row.spent(), row.count()});
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into customer_bonus_rollups (customer_id, day, earned, spent, change_count)
+                values (?, ?, ?, ?, ?)
+                on conflict (customer_id, day) do update
+                set earned = customer_bonus_rollups.earned + excluded.earned,
+                    spent = customer_bonus_rollups.spent + excluded.spent,
+                    change_count = customer_bonus_rollups.change_count + excluded.change_count""", args);
+    }
+
+    /** [from, to] günleri (dahil) için fatura tipi başına adet ve tutar. */
+    public List<InvoiceTypeSummaryDto> sumInvoicesByType(Long customerId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.query("""
+                        select invoice_type, sum(invoice_count) as n, sum(total_amount) as amount
+                        from customer_invoice_rollups
+                        where customer_id = ? and day between ? and ?
+                        group by invoice_type order by invoice_type""",
+                (rs, i) -> new InvoiceTypeSummaryDto(rs.getString("invoice_type"), rs.getLong("n"), rs.getBigDecimal("amount")),
+                customerId, from, to);
+    }
+
+    public BonusTotals sumBonus(Long customerId, LocalDate from, LocalDate to) {
+        return jdbcTemplate.queryForObject("""
+                        select coalesce(sum(earned), 0) as earned, coalesce(sum(spent), 0) as spent,
+                               coalesce(sum(change_count), 0) as n
+                        from customer_bonus_rollups
+                        where customer_id = ? and day between ? and ?""",
+                (rs, i) -> new BonusTotals(rs.getBigDecimal("earned"), rs.getBigDecimal("spent"), rs.getLong("n")),
+                customerId, from, to);
+    }
+}
@@ -0,0 +1,24 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Belirli bir andaki bonus bakiyesi.
+ * - snapshotAsOf      : başlangıç alınan snapshot (yoksa null → ledger baştan toplandı)
+ * - replayedTransactions: snapshot'tan sonra üzerine eklenen hareket sayısı
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BonusBalanceDto {
+    private Long customerId;
+    private Instant asOf;
+    private BigDecimal balance;
+    private Instant snapshotAsOf;
+    private long replayedTransactions;
+}
@@ -0,0 +1,18 @@
+package erp.crmmodule.dto;
+
+import erp.commonmodule.money.Money;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Tek bir bonus değişimi (delta > 0 ekleme/iade, delta < 0 harcama).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BonusDeltaDto {
+    private Money amount;
+    private String description;
+}
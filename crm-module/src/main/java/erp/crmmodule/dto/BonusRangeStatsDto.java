@@ -0,0 +1,23 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Tek bonus aralığı [from, to); to null ise üst sınır yok. Boş aralıkta yüzdelikler null.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BonusRangeStatsDto {
+    private BigDecimal from;
+    private BigDecimal to;
+    private long count;
+    private BigDecimal sum;
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p99;
+}
@@ -1,13 +1,12 @@
 package erp.crmmodule.dto;
 
+import erp.commonmodule.money.Money;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 
 @Data
 public class BonusRequestDto {
-    private BigDecimal amount;
+    private Money amount;
     private String description;
 }
 
@@ -0,0 +1,27 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Bonus bakiyesi dağılımı (bkz. BonusHistogram).
+ * - p50/p90/p99: yaklaşık yüzdelikler (göreli hata ≤ 1/64); adet ve toplamlar kesindir
+ * - builtAt    : histogramın DB'den son kurulduğu an; sonraki değişiklikler commit sonrası işlenir
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BonusStatsDto {
+    private long customerCount;
+    private BigDecimal totalBonus;
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p99;
+    private Instant builtAt;
+    private List<BonusRangeStatsDto> ranges;
+}
@@ -0,0 +1,23 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Bir zaman aralığındaki bonus hareketlerinin toplamı (JPQL constructor projeksiyonu).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BonusSumDto {
+    private Long customerId;
+    private BigDecimal amount;
+    private long count;
+
+    public BonusSumDto(BigDecimal amount, Long count) {
+        this(null, amount, count);
+    }
+}
@@ -1,17 +1,18 @@
 package erp.crmmodule.dto;
 
+import erp.commonmodule.money.Money;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class BonusTransactionDto {
     private Long id;
-    private BigDecimal amount;
+    private Money amount;
     private String description;
     private Instant createdAt;
 }
-
-
-
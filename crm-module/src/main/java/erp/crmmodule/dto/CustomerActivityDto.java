@@ -0,0 +1,21 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Müşteri hareket özeti. Outbox üzerinden güncellenir; son işlemlere göre birkaç yüz ms geriden gelebilir.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerActivityDto {
+    private Long customerId;
+    private long invoiceCount;
+    private Instant lastInvoiceAt;
+    private long bonusChangeCount;
+    private Instant lastBonusChangeAt;
+}
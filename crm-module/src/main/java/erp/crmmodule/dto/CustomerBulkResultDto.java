@@ -0,0 +1,19 @@
+package erp.crmmodule.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Toplu müşteri oluşturma sonucu.
+ * - created   : eklenen müşteriler (id atanmış)
+ * - duplicates: zaten kayıtlı (veya istekte tekrar eden) email'ler
+ */
+@Data
+public class CustomerBulkResultDto {
+    private int requested;
+    private List<CustomerDto> created = new ArrayList<>();
+    private List<String> duplicates = new ArrayList<>();
+}
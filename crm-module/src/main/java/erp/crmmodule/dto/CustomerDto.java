@@ -1,14 +1,14 @@
 package erp.crmmodule.dto;
 
+import erp.commonmodule.money.Money;
 import lombok.Data;
-import java.math.BigDecimal;
 
 @Data
 public class CustomerDto {
     private Long id;
     private String name;
     private String email;
-    private BigDecimal bonus;
+    private Money bonus;
 }
 
 
@@ -0,0 +1,18 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Import'ta reddedilen satır. row: başlık hariç 1'den başlayan veri satırı sırası.
+ * error: NAME_INVALID | EMAIL_INVALID | BONUS_NEGATIVE | BONUS_INVALID | EMAIL_DUPLICATE (dosyada tekrar) | EMAIL_EXISTS
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerImportErrorDto {
+    private long row;
+    private String email;
+    private String error;
+}
@@ -0,0 +1,23 @@
+package erp.crmmodule.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * CSV müşteri import sonucu.
+ * - rows           : CSV'deki veri satırı sayısı
+ * - imported       : eklenen müşteri sayısı
+ * - openingBalances: açılış bakiyesi için yazılan ledger hareketi sayısı (bonus > 0)
+ * - failed         : hatalı satır sayısı; errors ilk erp.customers.import.max-errors tanesini satır sırasıyla içerir
+ */
+@Data
+public class CustomerImportResultDto {
+    private long rows;
+    private long imported;
+    private long openingBalances;
+    private long failed;
+    private List<CustomerImportErrorDto> errors = new ArrayList<>();
+}
@@ -0,0 +1,32 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Müşterinin [from, to] günlerindeki (UTC, dahil; null = sınırsız) satış/iade ve bonus toplamları.
+ * Rollup tabloları outbox üzerinden güncellenir; son işlemlere göre birkaç yüz ms geriden gelebilir.
+ * netSpend = salesAmount - returnsAmount.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerSummaryDto {
+    private Long customerId;
+    private LocalDate from;
+    private LocalDate to;
+    private long salesCount;
+    private BigDecimal salesAmount;
+    private long returnsCount;
+    private BigDecimal returnsAmount;
+    private BigDecimal netSpend;
+    private BigDecimal bonusEarned;
+    private BigDecimal bonusSpent;
+    private long bonusChangeCount;
+    private List<InvoiceTypeSummaryDto> byType;
+}
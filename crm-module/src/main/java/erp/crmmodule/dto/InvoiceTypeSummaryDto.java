@@ -0,0 +1,16 @@
+package erp.crmmodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceTypeSummaryDto {
+    private String type;
+    private long count;
+    private BigDecimal amount;
+}
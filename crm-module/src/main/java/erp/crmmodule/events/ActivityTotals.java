@@ -0,0 +1,20 @@
+package erp.crmmodule.events;
+
+import java.time.Instant;
+
+
+/**
+ * Bir batch'te tek müşteriye ait olayların sayısı ve en son zamanı.
+ */
+final class ActivityTotals {
+
+    long count;
+    Instant last;
+
+    void add(Instant at) {
+        count++;
+        if (last == null || at.isAfter(last)) {
+            last = at;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package erp.crmmodule.events;
+
+import erp.commonmodule.events.BonusChanged;
+import erp.commonmodule.events.DomainEventHandler;
+import erp.crmmodule.dao.CustomerActivityDao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * customer_activity projection'ı: bonus değişim sayısı + son değişim zamanı (müşteri başına tek upsert).
+ */
+@Component
+@RequiredArgsConstructor
+public class BonusActivityHandler implements DomainEventHandler<BonusChanged> {
+
+    private final CustomerActivityDao customerActivityDao;
+
+    @Override
+    public Class<BonusChanged> eventType() {
+        return BonusChanged.class;
+    }
+
+    @Override
+    public void handle(long eventId, BonusChanged event) {
+        customerActivityDao.recordBonusChanges(event.customerId(), 1, event.changedAt());
+    }
+
+    @Override
+    public void handleAll(List<Long> eventIds, List<BonusChanged> events) {
+        Map<Long, ActivityTotals> byCustomer = new LinkedHashMap<>();
+        for (BonusChanged event : events) {
+            byCustomer.computeIfAbsent(event.customerId(), id -> new ActivityTotals()).add(event.changedAt());
+        }
+        byCustomer.forEach((customerId, totals) ->
+                customerActivityDao.recordBonusChanges(customerId, totals.count, totals.last));
+    }
+}
@@ -0,0 +1,59 @@
+package erp.crmmodule.events;
+
+import erp.commonmodule.events.BonusChanged;
+import erp.commonmodule.events.DomainEventHandler;
+import erp.crmmodule.dao.CustomerRollupDao;
+import erp.crmmodule.dao.CustomerRollupDao.BonusRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * customer_bonus_rollups projection'ı: pozitif delta kazanılan, negatif delta harcanan bonusa yazılır;
+ * batch müşteri × gün başına toplanır → anahtar başına tek upsert.
+ */
+@Component
+@RequiredArgsConstructor
+public class BonusRollupHandler implements DomainEventHandler<BonusChanged> {
+
+    private record Key(Long customerId, LocalDate day) {
+    }
+
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::customerId).thenComparing(Key::day);
+
+    private final CustomerRollupDao customerRollupDao;
+
+    @Override
+    public Class<BonusChanged> eventType() {
+        return BonusChanged.class;
+    }
+
+    @Override
+    public void handle(long eventId, BonusChanged event) {
+        handleAll(List.of(eventId), List.of(event));
+    }
+
+    @Override
+    public void handleAll(List<Long> eventIds, List<BonusChanged> events) {
+        Map<Key, BonusRollup> byKey = new TreeMap<>(ORDER);
+        for (BonusChanged event : events) {
+            Key key = new Key(event.customerId(), LocalDate.ofInstant(event.changedAt(), ZoneOffset.UTC));
+            BigDecimal delta = event.delta();
+            BonusRollup change = new BonusRollup(key.customerId(), key.day(),
+                    delta.signum() > 0 ? delta : BigDecimal.ZERO,
+                    delta.signum() < 0 ? delta.negate() : BigDecimal.ZERO,
+                    1);
+            byKey.merge(key, change, (a, b) -> new BonusRollup(a.customerId(), a.day(),
+                    a.earned().add(b.earned()), a.spent().add(b.spent()), a.count() + b.count()));
+        }
+        customerRollupDao.addBonusChanges(byKey.values());
+    }
+}
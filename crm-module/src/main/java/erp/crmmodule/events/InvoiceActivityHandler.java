@@ -0,0 +1,43 @@
+package erp.crmmodule.events;
+
+import erp.commonmodule.events.DomainEventHandler;
+import erp.commonmodule.events.InvoiceCreated;
+import erp.crmmodule.dao.CustomerActivityDao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * customer_activity projection'ı: fatura sayısı + son fatura zamanı.
+ * Batch'teki olaylar müşteri başına toplanır → müşteri başına tek upsert.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceActivityHandler implements DomainEventHandler<InvoiceCreated> {
+
+    private final CustomerActivityDao customerActivityDao;
+
+    @Override
+    public Class<InvoiceCreated> eventType() {
+        return InvoiceCreated.class;
+    }
+
+    @Override
+    public void handle(long eventId, InvoiceCreated event) {
+        customerActivityDao.recordInvoices(event.customerId(), 1, event.createdAt());
+    }
+
+    @Override
+    public void handleAll(List<Long> eventIds, List<InvoiceCreated> events) {
+        Map<Long, ActivityTotals> byCustomer = new LinkedHashMap<>();
+        for (InvoiceCreated event : events) {
+            byCustomer.computeIfAbsent(event.customerId(), id -> new ActivityTotals()).add(event.createdAt());
+        }
+        byCustomer.forEach((customerId, totals) ->
+                customerActivityDao.recordInvoices(customerId, totals.count, totals.last));
+    }
+}
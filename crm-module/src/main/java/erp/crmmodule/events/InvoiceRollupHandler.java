@@ -0,0 +1,54 @@
+package erp.crmmodule.events;
+
+import erp.commonmodule.events.DomainEventHandler;
+import erp.commonmodule.events.InvoiceCreated;
+import erp.crmmodule.dao.CustomerRollupDao;
+import erp.crmmodule.dao.CustomerRollupDao.InvoiceRollup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+
+/**
+ * customer_invoice_rollups projection'ı: batch'teki faturalar müşteri × gün × tip başına toplanır → anahtar başına tek upsert.
+ */
+@Component
+@RequiredArgsConstructor
+public class InvoiceRollupHandler implements DomainEventHandler<InvoiceCreated> {
+
+    private record Key(Long customerId, LocalDate day, String invoiceType) {
+    }
+
+    private static final Comparator<Key> ORDER = Comparator.comparing(Key::customerId)
+            .thenComparing(Key::day)
+            .thenComparing(Key::invoiceType);
+
+    private final CustomerRollupDao customerRollupDao;
+
+    @Override
+    public Class<InvoiceCreated> eventType() {
+        return InvoiceCreated.class;
+    }
+
+    @Override
+    public void handle(long eventId, InvoiceCreated event) {
+        handleAll(List.of(eventId), List.of(event));
+    }
+
+    @Override
+    public void handleAll(List<Long> eventIds, List<InvoiceCreated> events) {
+        Map<Key, InvoiceRollup> byKey = new TreeMap<>(ORDER);
+        for (InvoiceCreated event : events) {
+            Key key = new Key(event.customerId(), LocalDate.ofInstant(event.createdAt(), ZoneOffset.UTC), event.invoiceType());
+            byKey.merge(key, new InvoiceRollup(key.customerId(), key.day(), key.invoiceType(), 1, event.totalAmount()),
+                    (a, b) -> new InvoiceRollup(a.customerId(), a.day(), a.invoiceType(), a.count() + b.count(), a.amount().add(b.amount())));
+        }
+        customerRollupDao.addInvoices(byKey.values());
+    }
+}
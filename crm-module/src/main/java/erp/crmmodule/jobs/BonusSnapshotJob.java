@@ -0,0 +1,35 @@
+package erp.crmmodule.jobs;
+
+import erp.crmmodule.services.BonusSnapshotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+
+/**
+ * Günlük bonus snapshot'ı (UTC gün sınırı).
+ * Cron sınırdan biraz sonra çalışır: sınırdan önce başlayıp sonra commit edilen hareketler de pencereye girer.
+ * Birden fazla instance aynı anda çalıştırırsa uk_bonus_snapshots_customer_as_of tekrar yazmayı engeller.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "erp.bonus.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class BonusSnapshotJob {
+
+    private final BonusSnapshotService bonusSnapshotService;
+
+    @Scheduled(cron = "${erp.bonus.snapshot.cron:0 15 0 * * *}", zone = "UTC")
+    public void run() {
+        Instant asOf = LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant();
+        long start = System.nanoTime();
+        int written = bonusSnapshotService.createSnapshots(asOf);
+        log.info("Bonus snapshot {} : {} müşteri, {} ms", asOf, written, (System.nanoTime() - start) / 1_000_000);
+    }
+}
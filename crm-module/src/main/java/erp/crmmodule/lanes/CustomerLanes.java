@@ -0,0 +1,341 @@
+package erp.crmmodule.lanes;
+
+import erp.commonmodule.exception.BusinessException;
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.util.TransactionHooks;
+import erp.crmmodule.metrics.BonusMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+
+/**
+ * Aynı müşterinin bakiye değişimlerini süreç içinde tek şeritten (lane) geçirir; şerit = hash(customerId) % stripes.
+ * Aynı müşteriye eşzamanlı değişimler DB'de satır kilidi beklemez ve @Version çakışmasıyla düşmez.
+ * - Transaction dışından gelen değişiklik şeridin kuyruğuna girer; şerit kilidini alan çağıran kuyrukta biriken
+ *   değişiklikleri (en fazla max-batch) tek transaction'da, her birini kendi savepoint'inde yazar. Hata veren
+ *   değişiklik savepoint'ine geri alınıp hatasıyla döner, diğerleri aynı transaction'da commit edilir. Commit sonrası
+ *   işler (TransactionHooks) değişiklik başına toplanır; geri alınan değişikliğinkiler atılır.
+ * - Biriken değişiklikler şeridi alan çağıranın thread'inde, kendi EntityManager'ı olan bir transaction'da çalışır
+ *   (çağıranın open-in-view EntityManager'ı kullanılmaz). Değişikliği kuyruğa koyanın thread-local durumu LaneContext
+ *   bean'leriyle taşınır.
+ * - Açık bir transaction içinden gelen değişiklikte şerit, o transaction bitene kadar tutulur (birleştirme yok).
+ * Kilit ReentrantLock (virtual thread'i pinlemez); wait-timeout içinde alınamazsa 1008 döner. Kuyruktaki değişikliği
+ * başka bir çağıran almışsa: henüz başlamadıysa iptal edilir (1008), başladıysa sonucu kendi transaction'ı bitince döner.
+ * Yalnızca bu instance'ı kapsar; instance'lar arası tutarlılık yine DB'nin koşullu UPDATE'i ve @Version ile sağlanır.
+ */
+@Component
+public class CustomerLanes {
+
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BonusMetrics bonusMetrics;
+    private final List<LaneContext> contexts;
+    private final boolean enabled;
+    private final int maxBatch;
+    private final long waitNanos;
+    private final Lane[] lanes;
+
+    public CustomerLanes(TransactionTemplate transactionTemplate,
+                         EntityManagerFactory entityManagerFactory,
+                         BonusMetrics bonusMetrics,
+                         ObjectProvider<LaneContext> contexts,
+                         @Value("${erp.customers.lanes.enabled:true}") boolean enabled,
+                         @Value("${erp.customers.lanes.stripes:1024}") int stripes,
+                         @Value("${erp.customers.lanes.max-batch:64}") int maxBatch,
+                         @Value("${erp.customers.lanes.wait-timeout:10s}") Duration waitTimeout) {
+        if (stripes <= 0 || maxBatch <= 0) {
+            throw new IllegalStateException("erp.customers.lanes.stripes ve max-batch pozitif olmalı");
+        }
+        this.transactionTemplate = transactionTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.bonusMetrics = bonusMetrics;
+        this.contexts = contexts.orderedStream().toList();
+        this.enabled = enabled;
+        this.maxBatch = maxBatch;
+        this.waitNanos = waitTimeout.toNanos();
+        this.lanes = new Lane[stripes];
+        for (int i = 0; i < stripes; i++) {
+            lanes[i] = new Lane();
+        }
+    }
+
+    /**
+     * mutation'ı müşterinin şeridinde, bir transaction içinde çalıştırır ve sonucunu döner (hatasını fırlatır).
+     * Çağıranın transaction'ı varsa ona katılır.
+     */
+    public <R> R execute(Long customerId, Supplier<R> mutation) {
+        if (!enabled) {
+            return transactionTemplate.execute(status -> mutation.get());
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            hold(stripe(customerId), System.nanoTime() + waitNanos);
+            return mutation.get();
+        }
+
+        Lane lane = lanes[stripe(customerId)];
+        Op<R> op = new Op<>(mutation);
+        Runnable task = op::invoke;
+        for (LaneContext context : contexts) {
+            task = context.decorate(task);
+        }
+        op.task = task;
+        long deadline = System.nanoTime() + waitNanos;
+        lane.queue.add(op);
+        if (tryLock(lane, deadline)) {
+            try {
+                while (!op.completion.isDone()) {
+                    runBatch(lane);
+                }
+            } finally {
+                lane.lock.unlock();
+            }
+        }
+        return await(lane, op, deadline);
+    }
+
+    // Şeridi alamayan çağıran, op'u başka bir çağıranın toplu transaction'ı yazıyorsa sonucunu bekler.
+    private <R> R await(Lane lane, Op<R> op, long deadline) {
+        try {
+            try {
+                return op.completion.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException | InterruptedException ex) {
+                if (ex instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                if (op.cancel()) {
+                    lane.queue.remove(op);
+                    throw new BusinessException(ErrorCode.CUSTOMER_LANE_BUSY);
+                }
+                return op.completion.join(); // başlamış: sonucu yürüten transaction'la belirlenir
+            }
+        } catch (ExecutionException | CompletionException ex) {
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    /**
+     * Açık transaction bitene kadar müşterilerin şeritlerini tutar (toplu bakiye güncellemesi).
+     * Şeritler artan sırada alınır; aynı anda birden çok şerit tutan çağıranlar birbirini kilitlemez.
+     * wait-timeout tüm şeritler için toplam bekleme süresidir (şerit başına değil); aşılırsa 1008 döner ve
+     * o ana kadar alınan şeritler transaction bitince bırakılır.
+     */
+    public void holdAll(Collection<Long> customerIds) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        long deadline = System.nanoTime() + waitNanos;
+        customerIds.stream().mapToInt(this::stripe).distinct().sorted().forEach(stripe -> hold(stripe, deadline));
+    }
+
+    private void hold(int stripe, long deadline) {
+        Lane lane = lanes[stripe];
+        if (lane.lock.isHeldByCurrentThread()) {
+            return; // aynı transaction'da zaten tutuluyor ya da bu thread şeridin toplu transaction'ını yürütüyor
+        }
+        if (!tryLock(lane, deadline)) {
+            throw new BusinessException(ErrorCode.CUSTOMER_LANE_BUSY);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lane.lock.unlock();
+            }
+        });
+    }
+
+    private void runBatch(Lane lane) {
+        List<Op<?>> batch = new ArrayList<>(Math.min(maxBatch, 16));
+        for (Op<?> op; batch.size() < maxBatch && (op = lane.queue.poll()) != null; ) {
+            batch.add(op);
+        }
+        // Çağıranın open-in-view EntityManager'ı diğer çağıranların entity'leriyle dolmasın: transaction kendi EM'ini açar.
+        Object requestEntityManager = TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        try {
+            if (batch.size() > 1 && !runMerged(batch)) {
+                bonusMetrics.laneFallback();
+            }
+            for (Op<?> op : batch) {
+                if (!op.completion.isDone() && op.start()) {
+                    op.runAlone(transactionTemplate);
+                }
+            }
+        } finally {
+            if (requestEntityManager != null) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, requestEntityManager);
+            }
+            for (Op<?> op : batch) {
+                op.abandon(); // Error gibi beklenmeyen durumlarda bekleyen çağıran sonsuza kadar dönmesin
+            }
+        }
+    }
+
+    /**
+     * Değişiklikleri tek transaction'da yazar; her biri kendi savepoint'inde çalışır ve flush edilir. Hata veren
+     * değişiklik savepoint'e geri alınır: persistence context temizlenir (önceki değişiklikler flush edildiği için
+     * kayıp olmaz), topladığı commit sonrası işler atılır ve hatasıyla döner; başarılı olanınkiler transaction'a
+     * kaydedilir. İptal edilmiş değişiklik atlanır. Commit edilemeyen ya da Hibernate'in
+     * geri alınacak diye işaretlediği transaction'da hiçbir sonuç geçerli sayılmaz: false döner, hepsi tek tek denenir.
+     */
+    private boolean runMerged(List<Op<?>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // JpaTransactionManager (HibernateJpaDialect) savepoint desteklemez: transaction'ın JDBC bağlantısında açılır.
+                Session session = Objects.requireNonNull(
+                        EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)).unwrap(Session.class);
+                for (Op<?> op : batch) {
+                    if (!op.start()) {
+                        continue;
+                    }
+                    Savepoint savepoint = session.doReturningWork(Connection::setSavepoint);
+                    try {
+                        List<TransactionSynchronization> hooks = op.run(status);
+                        session.doWork(connection -> connection.releaseSavepoint(savepoint));
+                        hooks.forEach(TransactionSynchronizationManager::registerSynchronization);
+                    } catch (RuntimeException ex) {
+                        session.doWork(connection -> connection.rollback(savepoint));
+                        session.clear();
+                        if (status.isRollbackOnly()) {
+                            throw ex;
+                        }
+                    }
+                }
+            });
+        } catch (RuntimeException ex) {
+            batch.forEach(Op::reset);
+            return false;
+        }
+        int committed = 0;
+        for (Op<?> op : batch) {
+            if (op.complete() && op.failure == null) {
+                committed++;
+            }
+        }
+        bonusMetrics.laneBatch(committed);
+        return true;
+    }
+
+    private boolean tryLock(Lane lane, long deadline) {
+        try {
+            return lane.lock.tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private int stripe(Long customerId) {
+        int h = Objects.hashCode(customerId);
+        h ^= h >>> 16;
+        return Math.floorMod(h * 0x9E3779B9, lanes.length);
+    }
+
+    private static final class Lane {
+        final ReentrantLock lock = new ReentrantLock();
+        final Queue<Op<?>> queue = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * mutation..failure şerit kilidi altında yazılır/okunur; çağıran sonucu completion'dan alır.
+     * state: NEW → STARTED (şeridi yürüten çalıştırmadan önce) ya da NEW → CANCELLED (süresi dolan çağıran).
+     */
+    private static final class Op<R> {
+        static final int NEW = 0, STARTED = 1, CANCELLED = 2;
+
+        final Supplier<R> mutation;
+        final CompletableFuture<R> completion = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(NEW);
+        Runnable task; // invoke, kuyruğa koyanın LaneContext'leriyle
+        TransactionStatus status;
+        R result;
+        RuntimeException failure;
+
+        Op(Supplier<R> mutation) {
+            this.mutation = mutation;
+        }
+
+        /** Şeridi yürüten çağıran çalıştırmadan önce çağırır; iptal edilmişse false. */
+        boolean start() {
+            return state.compareAndSet(NEW, STARTED) || state.get() == STARTED;
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(NEW, CANCELLED);
+        }
+
+        void invoke() {
+            result = mutation.get();
+            status.flush();
+        }
+
+        /** status'un transaction'ında çalışır ve kaydettiği commit sonrası işleri döner; hatayı kaydeder ve fırlatır. */
+        List<TransactionSynchronization> run(TransactionStatus status) {
+            this.status = status;
+            try {
+                return TransactionHooks.collect(task);
+            } catch (RuntimeException ex) {
+                result = null;
+                failure = ex;
+                throw ex;
+            } finally {
+                this.status = null;
+            }
+        }
+
+        void reset() {
+            result = null;
+            failure = null;
+        }
+
+        void runAlone(TransactionTemplate transactionTemplate) {
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> run(status).forEach(TransactionSynchronizationManager::registerSynchronization));
+            } catch (RuntimeException ex) {
+                result = null;
+                failure = ex;
+            }
+            complete();
+        }
+
+        /** Transaction bittikten sonra sonucu çağırana verir; iptal edilmiş ya da zaten tamamlanmışsa false. */
+        boolean complete() {
+            if (state.get() != STARTED) {
+                return false;
+            }
+            return failure == null ? completion.complete(result) : completion.completeExceptionally(failure);
+        }
+
+        void abandon() {
+            if (!completion.isDone()) {
+                completion.completeExceptionally(
+                        new IllegalStateException("Şeritteki toplu transaction beklenmedik şekilde sonlandı"));
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package erp.crmmodule.lanes;
+
+
+/**
+ * Şeritte biriken değişiklikler, şeridi alan çağıranın thread'inde çalışır. Çağırana bağlı thread-local durum
+ * (ör. istek başına SQL sayacı) değişikliğe bu arayüzle taşınır; bean olarak tanımlanan her LaneContext uygulanır.
+ */
+@FunctionalInterface
+public interface LaneContext {
+
+    /** Değişikliği kuyruğa koyan çağıranın thread'inde çağrılır; dönen Runnable şeridi yürüten thread'de çalışır. */
+    Runnable decorate(Runnable task);
+}
@@ -1,16 +0,0 @@
-package erp.crmmodule.mapper;
-
-import erp.crmmodule.dto.BonusTransactionDto;
-import erp.crmmodule.models.BonusTransactionEntity;
-import org.mapstruct.Mapper;
-import org.mapstruct.factory.Mappers;
-
-import java.util.List;
-
-
-@Mapper(componentModel = "spring")
-public interface BonusTransactionMapper {
-
-    BonusTransactionDto toDto(BonusTransactionEntity entity);
-    List<BonusTransactionDto> toDtoList(List<BonusTransactionEntity> entities);
-}
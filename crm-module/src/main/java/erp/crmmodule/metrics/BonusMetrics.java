@@ -0,0 +1,59 @@
+package erp.crmmodule.metrics;
+
+import erp.commonmodule.exception.ErrorCode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * Bonus bakiye güncellemelerinin Micrometer metrikleri.
+ * - erp.bonus.update{mode=single|batch}: atomik UPDATE + ledger kaydı (single) / müşteri başına toplu uygulama (batch)
+ * - erp.bonus.rejected{code}           : reddedilen değişiklikler (yetersiz bakiye, müşteri yok...)
+ * - erp.bonus.lane.*                   : müşteri şeritleri (tek transaction'da commit edilen değişiklik sayısı, tekile düşen batch'ler)
+ */
+@Component
+public class BonusMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer single;
+    private final Timer batch;
+    private final DistributionSummary laneBatch;
+    private final Counter laneFallback;
+
+    public BonusMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.single = update("single");
+        this.batch = update("batch");
+        this.laneBatch = DistributionSummary.builder("erp.bonus.lane.batch")
+                .description("Şeritte tek transaction'da commit edilen değişiklik sayısı (savepoint'ine geri alınanlar hariç)")
+                .register(registry);
+        this.laneFallback = Counter.builder("erp.bonus.lane.fallback")
+                .description("Bir bütün olarak commit edilemediği için değişiklikleri tek tek yeniden yazılan şerit transaction'ları")
+                .register(registry);
+    }
+
+    public Timer single() { return single; }
+
+    public Timer batch() { return batch; }
+
+    public void laneBatch(int size) { laneBatch.record(size); }
+
+    public void laneFallback() { laneFallback.increment(); }
+
+    public void rejected(ErrorCode error) {
+        Counter.builder("erp.bonus.rejected")
+                .tag("code", error.name())
+                .register(registry)
+                .increment();
+    }
+
+    private Timer update(String mode) {
+        return Timer.builder("erp.bonus.update")
+                .description("Bonus bakiye güncelleme süresi")
+                .tag("mode", mode)
+                .register(registry);
+    }
+}
@@ -0,0 +1,33 @@
+package erp.crmmodule.models;
+
+import erp.commonmodule.model.AbstractEntity;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Müşterinin belirli bir andaki bonus bakiyesi (ledger özeti).
+ * balance = createdAt < asOf olan tüm bonus_transactions satırlarının toplamı.
+ * Geçmiş bir tarihteki bakiye, en yakın snapshot + sonrasındaki hareketler (kuyruk) ile hesaplanır.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "bonus_snapshots",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bonus_snapshots_customer_as_of", columnNames = {"customer_id", "as_of"}),
+        indexes = @Index(name = "idx_bonus_snapshots_as_of", columnList = "as_of"))
+public class BonusSnapshotEntity extends AbstractEntity {
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "customer_id", nullable = false)
+    private CustomerEntity customer;
+
+    @Column(name = "as_of", nullable = false)
+    private Instant asOf;
+
+    @Column(nullable = false)
+    private BigDecimal balance;
+}
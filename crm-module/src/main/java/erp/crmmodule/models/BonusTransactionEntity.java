@@ -1,14 +1,18 @@
 package erp.crmmodule.models;
 
 import erp.commonmodule.model.AbstractEntity;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.money.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 @Entity
-@Table(name = "bonus_transactions")
+// Snapshot job'ının pencere taraması için created_at üzerinde BRIN index'i vardır (V6; JPA ile tanımlanamaz).
+@Table(name = "bonus_transactions", indexes = {
+        // Müşteri hareket geçmişi: customer_id filtresi + (created_at, id) keyset sıralaması
+        @Index(name = "idx_bonus_tx_customer_created", columnList = "customer_id, created_at, id")
+})
 public class BonusTransactionEntity extends AbstractEntity {
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -16,7 +20,8 @@ public class BonusTransactionEntity extends AbstractEntity {
     private CustomerEntity customer;
 
     @Column(nullable = false)
-    private BigDecimal amount;
+    @Convert(converter = MoneyConverter.class)
+    private Money amount;
     private String description;
 
 
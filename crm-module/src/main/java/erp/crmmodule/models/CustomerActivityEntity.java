@@ -0,0 +1,35 @@
+package erp.crmmodule.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Müşteri hareket özeti (projection). Outbox olaylarından (InvoiceCreated, BonusChanged) istek yolu dışında güncellenir;
+ * yalnızca upsert ile yazıldığı için AbstractEntity (version/audit) kullanılmaz.
+ */
+@Data
+@Entity
+@Table(name = "customer_activity")
+public class CustomerActivityEntity {
+
+    @Id
+    @Column(name = "customer_id")
+    private Long customerId;
+
+    @Column(name = "invoice_count", nullable = false)
+    private long invoiceCount;
+
+    @Column(name = "last_invoice_at")
+    private Instant lastInvoiceAt;
+
+    @Column(name = "bonus_change_count", nullable = false)
+    private long bonusChangeCount;
+
+    @Column(name = "last_bonus_change_at")
+    private Instant lastBonusChangeAt;
+}
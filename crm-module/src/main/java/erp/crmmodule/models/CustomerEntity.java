@@ -1,14 +1,17 @@
 package erp.crmmodule.models;
 
 import erp.commonmodule.model.AbstractEntity;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.money.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 @Data
 @Entity
-@Table(name = "customers")
+@Table(name = "customers", indexes = {
+        // Bonus filtresi + (bonus, id) keyset sayfalaması için
+        @Index(name = "idx_customers_bonus_id", columnList = "bonus, id")
+})
 public class CustomerEntity extends AbstractEntity {
 
     @Column(nullable = false, length = 150)
@@ -18,5 +21,6 @@ public class CustomerEntity extends AbstractEntity {
     private String email;
 
     @Column(nullable = false)
-    private BigDecimal bonus = BigDecimal.ZERO;
+    @Convert(converter = MoneyConverter.class)
+    private Money bonus = Money.ZERO;
 }
@@ -0,0 +1,27 @@
+package erp.crmmodule.services;
+
+import erp.crmmodule.dto.BonusBalanceDto;
+
+import java.time.Instant;
+
+
+/**
+ * Bonus ledger snapshot'ları.
+ * Geçmiş bakiye tüm ledger'ı tekrar oynatmak yerine en yakın snapshot + sonraki hareketlerden hesaplanır.
+ */
+public interface BonusSnapshotService {
+
+    /**
+     * asOf anındaki bakiye (createdAt <= asOf olan hareketler); asOf null ise şu an.
+     * Müşteri yoksa CUSTOMER_NOT_FOUND.
+     */
+    BonusBalanceDto getBalance(Long customerId, Instant asOf);
+
+    /**
+     * asOf sınırı için snapshot yazar: önceki sınırdan bu yana hareketi olan her müşteri için
+     * önceki snapshot + pencere toplamı. Yarıda kalırsa tekrar çalıştırılabilir (yazılmış müşteriler atlanır).
+     *
+     * @return yazılan snapshot sayısı
+     */
+    int createSnapshots(Instant asOf);
+}
@@ -0,0 +1,141 @@
+package erp.crmmodule.services;
+
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ResourceNotFoundException;
+import erp.commonmodule.util.TimeBounds;
+import erp.crmmodule.dao.BonusSnapshotDao;
+import erp.crmmodule.dao.BonusTransactionDao;
+import erp.crmmodule.dao.CustomerDao;
+import erp.crmmodule.dto.BonusBalanceDto;
+import erp.crmmodule.dto.BonusSumDto;
+import erp.crmmodule.models.BonusSnapshotEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+
+@Service
+@RequiredArgsConstructor
+public class BonusSnapshotServiceImpl implements BonusSnapshotService {
+
+    private final BonusSnapshotDao bonusSnapshotDao;
+    private final BonusTransactionDao bonusTransactionDao;
+    private final CustomerDao customerDao;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${erp.bonus.snapshot.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${erp.bonus.snapshot.fetch-size:1000}")
+    private int fetchSize;
+
+
+    @Override
+    @Transactional
+    public BonusBalanceDto getBalance(Long customerId, Instant asOf) {
+        if (!customerDao.existsById(customerId)) {
+            throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+        Instant at = asOf == null ? Instant.now() : asOf;
+
+        Optional<BonusSnapshotEntity> snapshot =
+                bonusSnapshotDao.findFirstByCustomer_IdAndAsOfLessThanEqualOrderByAsOfDesc(customerId, at);
+        Instant snapshotAsOf = snapshot.map(BonusSnapshotEntity::getAsOf).orElse(null);
+
+        // Snapshot createdAt < asOf hareketleri kapsar; kuyruk [snapshotAsOf, at] aralığıdır.
+        BonusSumDto tail = bonusTransactionDao.sumBetween(customerId, TimeBounds.orMin(snapshotAsOf), at);
+        BigDecimal balance = snapshot.map(BonusSnapshotEntity::getBalance).orElse(BigDecimal.ZERO).add(tail.getAmount());
+        return new BonusBalanceDto(customerId, at, balance, snapshotAsOf, tail.getCount());
+    }
+
+
+    @Override
+    public int createSnapshots(Instant boundary) {
+        // DB timestamp hassasiyeti mikro saniye; tekrar çalıştırmada asOf eşitliği bu değerle kontrol edilir.
+        Instant asOf = boundary.truncatedTo(ChronoUnit.MICROS);
+        // Pencereler ardışıktır: bir müşterinin son snapshot'ı ile 'from' arasında hareketi yoktur.
+        Instant from = bonusSnapshotDao.findLastAsOfBefore(asOf);
+        String hql = "select new erp.crmmodule.dto.BonusSumDto(t.customer.id, sum(t.amount), count(t)) " +
+                "from BonusTransactionEntity t where t.createdAt < :asOf" +
+                (from != null ? " and t.createdAt >= :from" : "") +
+                " group by t.customer.id";
+
+        // Pencere toplamı tek taramayla akıtılır; snapshot'lar chunk'lar halinde ayrı transaction'larda yazılır.
+        SessionFactory sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+        int written = 0;
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            Transaction tx = session.beginTransaction();
+            try {
+                SelectionQuery<BonusSumDto> query = session.createSelectionQuery(hql, BonusSumDto.class)
+                        .setParameter("asOf", asOf);
+                if (from != null) query.setParameter("from", from);
+
+                List<BonusSumDto> chunk = new ArrayList<>(chunkSize);
+                try (ScrollableResults<BonusSumDto> rows = query
+                        .setFetchSize(fetchSize)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()) {
+                        chunk.add(rows.get());
+                        if (chunk.size() == chunkSize) {
+                            written += writeChunk(chunk, asOf);
+                            chunk.clear();
+                        }
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    written += writeChunk(chunk, asOf);
+                }
+            } finally {
+                tx.rollback(); // salt okuma
+            }
+        }
+        return written;
+    }
+
+    private int writeChunk(List<BonusSumDto> sums, Instant asOf) {
+        Integer written = transactionTemplate.execute(status -> {
+            List<Long> customerIds = sums.stream().map(BonusSumDto::getCustomerId).toList();
+            Map<Long, BonusSnapshotEntity> previous = bonusSnapshotDao.findLatest(customerIds, asOf).stream()
+                    .collect(Collectors.toMap(s -> s.getCustomer().getId(), Function.identity()));
+
+            List<BonusSnapshotEntity> snapshots = new ArrayList<>(sums.size());
+            for (BonusSumDto sum : sums) {
+                BonusSnapshotEntity last = previous.get(sum.getCustomerId());
+                if (last != null && last.getAsOf().equals(asOf)) {
+                    continue; // yarıda kalan önceki çalıştırmada yazılmış
+                }
+                BonusSnapshotEntity snapshot = new BonusSnapshotEntity();
+                snapshot.setCustomer(customerDao.getReferenceById(sum.getCustomerId()));
+                snapshot.setAsOf(asOf);
+                snapshot.setBalance((last == null ? BigDecimal.ZERO : last.getBalance()).add(sum.getAmount()));
+                snapshots.add(snapshot);
+            }
+            bonusSnapshotDao.saveAll(snapshots);
+            return snapshots.size();
+        });
+        return written == null ? 0 : written;
+    }
+}
@@ -1,16 +1,31 @@
 package erp.crmmodule.services;
 
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.CursorPage;
+import erp.crmmodule.dto.BonusDeltaDto;
 import erp.crmmodule.dto.BonusTransactionDto;
 import erp.crmmodule.models.CustomerEntity;
 
-import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.time.Instant;
 import java.util.List;
 
 
 public interface BonusTransactionService {
 
 
-    List<BonusTransactionDto> listTransactions(Long customerId);
+    /**
+     * Hareketler yeni → eski; [from, to) aralığı opsiyonel, cursor null ise ilk sayfa.
+     */
+    CursorPage<BonusTransactionDto> listTransactions(Long customerId, Instant from, Instant to, String cursor, int limit);
 
-    void save(CustomerEntity customer, BigDecimal delta, String description);
+    /**
+     * [from, to) aralığındaki tüm hareketleri out'a akıtır (export).
+     */
+    long exportTransactions(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out);
+
+    void save(CustomerEntity customer, Money delta, String description);
+
+    void saveAll(CustomerEntity customer, List<BonusDeltaDto> deltas);
 }
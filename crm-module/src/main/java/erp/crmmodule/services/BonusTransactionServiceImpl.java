@@ -1,14 +1,26 @@
 package erp.crmmodule.services;
 
+import erp.commonmodule.events.BonusChanged;
+import erp.commonmodule.events.OutboxPublisher;
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.CursorPage;
+import erp.commonmodule.util.CursorUtils;
+import erp.commonmodule.util.TimeBounds;
 import erp.crmmodule.dao.BonusTransactionDao;
+import erp.crmmodule.dao.BonusTransactionExportDao;
+import erp.crmmodule.dto.BonusDeltaDto;
 import erp.crmmodule.dto.BonusTransactionDto;
-import erp.crmmodule.mapper.BonusTransactionMapper;
 import erp.crmmodule.models.BonusTransactionEntity;
 import erp.crmmodule.models.CustomerEntity;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 
 
@@ -25,26 +37,70 @@ import java.util.List;
 public class BonusTransactionServiceImpl implements BonusTransactionService {
 
     private final BonusTransactionDao bonusTransactionDao;
-    private final BonusTransactionMapper bonusTransactionMapper;
+    private final OutboxPublisher outboxPublisher;
+    private final BonusTransactionExportDao bonusTransactionExportDao;
 
 
     @Override
-    public List<BonusTransactionDto> listTransactions(Long customerId) {
+    public CursorPage<BonusTransactionDto> listTransactions(Long customerId, Instant from, Instant to, String cursor, int limit) {
+        Instant afterCreatedAt = TimeBounds.MAX;
+        Long afterId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] key = CursorUtils.decode(cursor, 2);
+            try {
+                afterCreatedAt = Instant.parse(key[0]);
+                afterId = Long.valueOf(key[1]);
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw CursorUtils.invalid();
+            }
+        }
 
-        return bonusTransactionDao.findByCustomer_IdOrderByCreatedAtDesc(customerId)
-                .stream()
-                .map(bonusTransactionMapper::toDto)
-                .toList();
+        int pageSize = CursorUtils.clampLimit(limit);
+        List<BonusTransactionDto> rows = bonusTransactionDao.findPage(
+                customerId, TimeBounds.orMin(from), TimeBounds.orMax(to), afterCreatedAt, afterId, PageRequest.ofSize(pageSize + 1));
+
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            BonusTransactionDto last = rows.get(pageSize - 1);
+            next = CursorUtils.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(rows, pageSize, next);
     }
 
 
     @Override
-    public void save(CustomerEntity customer, BigDecimal delta, String description) {
+    public long exportTransactions(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return bonusTransactionExportDao.export(TimeBounds.orMin(from), TimeBounds.orMax(to), format, gzip, out);
+    }
+
+    @Override
+    public void save(CustomerEntity customer, Money delta, String description) {
+        outboxPublisher.publish(new BonusChanged(customer.getId(), delta.toBigDecimal(), description, Instant.now()));
+        bonusTransactionDao.save(toEntity(customer, delta, description));
+    }
+
+
+    @Override
+    public void saveAll(CustomerEntity customer, List<BonusDeltaDto> deltas) {
+        Instant now = Instant.now();
+        outboxPublisher.publishAll(deltas.stream()
+                .map(d -> new BonusChanged(customer.getId(), d.getAmount().toBigDecimal(), d.getDescription(), now))
+                .toList());
+        List<BonusTransactionEntity> entities = new ArrayList<>(deltas.size());
+        for (BonusDeltaDto delta : deltas) {
+            entities.add(toEntity(customer, delta.getAmount(), delta.getDescription()));
+        }
+        bonusTransactionDao.saveAll(entities);
+    }
+
+
+    private BonusTransactionEntity toEntity(CustomerEntity customer, Money delta, String description) {
         BonusTransactionEntity bonusTransaction = new BonusTransactionEntity();
         bonusTransaction.setCustomer(customer);
         bonusTransaction.setAmount(delta);
         bonusTransaction.setDescription(description);
-        bonusTransactionDao.save(bonusTransaction);
+        return bonusTransaction;
     }
 
 
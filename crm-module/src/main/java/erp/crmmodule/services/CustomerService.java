@@ -1,13 +1,28 @@
 package erp.crmmodule.services;
 
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.CursorPage;
+import erp.crmmodule.dto.BonusBalanceDto;
+import erp.crmmodule.dto.CustomerActivityDto;
+import erp.crmmodule.dto.BonusDeltaDto;
+import erp.crmmodule.dto.CustomerBulkResultDto;
 import erp.crmmodule.dto.CustomerDto;
+import erp.crmmodule.dto.CustomerImportResultDto;
+import erp.crmmodule.dto.CustomerSummaryDto;
 import erp.crmmodule.dto.BonusRequestDto;
+import erp.crmmodule.dto.BonusStatsDto;
 import erp.crmmodule.dto.BonusTransactionDto;
 import erp.crmmodule.models.CustomerEntity;
 import jakarta.transaction.Transactional;
 
-import java.math.BigDecimal;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * CustomerService
@@ -17,15 +32,69 @@ import java.util.List;
 public interface CustomerService {
 
     CustomerDto createCustomer(CustomerDto customerDto);
-    List<CustomerDto> listCustomers(BigDecimal minBonus, BigDecimal maxBonus);
+
+    /**
+     * Toplu müşteri ekleme (onboarding).
+     * Email tekilliği ön sorgu yerine unique constraint + ON CONFLICT DO NOTHING ile sağlanır;
+     * zaten kayıtlı email'ler hata yerine duplicates listesinde döner.
+     */
+    CustomerBulkResultDto createCustomers(List<CustomerDto> customers);
+
+    /**
+     * CSV (name,email,bonus) import'u: COPY ile staging'e, küme tabanlı doğrulama, tek statement'ta merge.
+     * Geçerli satırlar müşteri + açılış bakiyesi hareketi olarak tek transaction'da eklenir; hatalı satırlar raporlanır.
+     */
+    CustomerImportResultDto importCustomers(InputStream csv);
+
+    /** Cache üzerinden (bkz. CustomerCache); bulunamazsa CUSTOMER_NOT_FOUND. */
+    CustomerDto getCustomer(Long customerId);
+    CustomerDto getCustomerByEmail(String email);
+    Map<String, Object> cacheStats();
+
+    /** Bakiye aralıklarına göre adet/toplam/yüzdelik; tablo taranmaz (bkz. BonusHistogram). */
+    BonusStatsDto getBonusStats();
+
+    /**
+     * (bonus, id) sıralı keyset sayfalama; cursor null ise ilk sayfa.
+     */
+    CursorPage<CustomerDto> listCustomers(Money minBonus, Money maxBonus, String cursor, int limit);
+
+    /**
+     * Filtreye uyan tüm müşterileri persistence context'e almadan sırayla sink'e verir (NDJSON export).
+     */
+    void streamCustomers(Money minBonus, Money maxBonus, Consumer<CustomerDto> sink);
+
     CustomerDto addBonus(Long customerId, BonusRequestDto request);
-    List<BonusTransactionDto> listBonusTransactions(Long customerId);
+    CursorPage<BonusTransactionDto> listBonusTransactions(Long customerId, Instant from, Instant to, String cursor, int limit);
+
+    /** Tüm müşterilerin [from, to) hareketleri, CSV/NDJSON export (bkz. BonusTransactionService). */
+    long exportBonusTransactions(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out);
+
+    /** asOf anındaki bakiye (snapshot + kuyruk, bkz. BonusSnapshotService); asOf null ise şu an. */
+    BonusBalanceDto getBonusBalance(Long customerId, Instant asOf);
+
+    /** Outbox olaylarından güncellenen hareket özeti (fatura sayısı, son fatura/bonus değişimi). */
+    CustomerActivityDto getActivity(Long customerId);
+
+    /** Rollup tablolarından satış/iade/net harcama ve kazanılan/harcanan bonus; from/to UTC gün (dahil), null = sınırsız. */
+    CustomerSummaryDto getSummary(Long customerId, LocalDate from, LocalDate to);
+
+    /**
+     * Tekil bakiye değişimleri müşterinin şeridinden geçer (CustomerLanes): transaction dışından gelenler şeritte
+     * biriken diğerleriyle tek transaction'da yazılabilir, açık transaction'dan gelenler şeridi commit'e kadar tutar.
+     */
+    void applyBonusChange(Long customerId, Money delta, String description);
 
-    void applyBonusChange(Long customerId, BigDecimal delta, String description);
+    CustomerEntity addBonus(Long customerId, Money amount, String description);
 
-    CustomerEntity addBonus(Long customerId, BigDecimal amount, String description);
+    void applyDelta(Long customerId, Money delta, String description);
 
-    void applyDelta(Long customerId, BigDecimal delta, String description);
+    /**
+     * Toplu bonus değişimi (müşteri → sıralı delta listesi).
+     * - Müşteriler tek IN sorgusuyla yüklenir, bakiye deltaların sırasıyla bellekte kontrol edilir.
+     * - Bakiyeler ve ledger satırları flush'ta JDBC batch olarak yazılır.
+     */
+    void applyBonusChanges(Map<Long, List<BonusDeltaDto>> deltasByCustomer);
 
 
 }
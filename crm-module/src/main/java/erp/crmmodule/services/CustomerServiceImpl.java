@@ -1,25 +1,72 @@
 package erp.crmmodule.services;
 
+import erp.commonmodule.events.BonusChanged;
+import erp.commonmodule.events.OutboxPublisher;
+import erp.commonmodule.exception.BaseException;
 import erp.commonmodule.exception.BusinessException;
 import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ResourceNotFoundException;
 import erp.commonmodule.exception.ValidationException;
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.CursorPage;
+import erp.commonmodule.util.CursorUtils;
+import erp.crmmodule.cache.BonusHistogram;
+import erp.crmmodule.cache.CustomerCache;
+import erp.crmmodule.cache.EmailFilter;
+import erp.crmmodule.dao.CustomerActivityDao;
 import erp.crmmodule.dao.CustomerDao;
+import erp.crmmodule.dao.CustomerImportDao;
+import erp.crmmodule.dao.CustomerRollupDao;
+import erp.crmmodule.dto.BonusBalanceDto;
+import erp.crmmodule.dto.BonusDeltaDto;
+import erp.crmmodule.dto.CustomerBulkResultDto;
 import erp.crmmodule.dto.BonusRequestDto;
+import erp.crmmodule.dto.BonusStatsDto;
 import erp.crmmodule.dto.BonusTransactionDto;
+import erp.crmmodule.dto.CustomerActivityDto;
 import erp.crmmodule.dto.CustomerDto;
+import erp.crmmodule.dto.CustomerImportResultDto;
+import erp.crmmodule.dto.CustomerSummaryDto;
+import erp.crmmodule.dto.InvoiceTypeSummaryDto;
+import erp.crmmodule.lanes.CustomerLanes;
 import erp.crmmodule.mapper.CustomerMapper;
+import erp.crmmodule.metrics.BonusMetrics;
 import erp.crmmodule.models.CustomerEntity;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CustomerServiceImpl implements CustomerService {
@@ -27,22 +74,145 @@ public class CustomerServiceImpl implements CustomerService {
     private final CustomerDao customerDao;
     private final CustomerMapper customerMapper;
     private final BonusTransactionService bonusTransactionService;
+    private final BonusSnapshotService bonusSnapshotService;
+    private final CustomerCache customerCache;
+    private final EmailFilter emailFilter;
+    private final BonusMetrics bonusMetrics;
+    private final CustomerActivityDao customerActivityDao;
+    private final BonusHistogram bonusHistogram;
+    private final CustomerImportDao customerImportDao;
+    private final CustomerRollupDao customerRollupDao;
+    private final CustomerLanes customerLanes;
+    private final OutboxPublisher outboxPublisher;
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Value("${erp.customers.stream.fetch-size:1000}")
+    private int streamFetchSize;
+
+    @Value("${erp.customers.import.max-errors:1000}")
+    private int importMaxErrors;
 
     @Override
     public CustomerDto createCustomer(CustomerDto customerDto) {
 
-        if (customerDao.existsByEmail(customerDto.getEmail())) {
+        // Filtre "kesinlikle yok" diyorsa DB sorgusu atlanır; unique constraint yine son güvencedir.
+        if (emailFilter.mightContain(customerDto.getEmail()) && customerDao.existsByEmail(customerDto.getEmail())) {
             throw new ValidationException(ErrorCode.CUSTOMER_EMAIL_EXISTS);
         }
 
         CustomerEntity entity = customerMapper.toEntity(customerDto);
-        entity.setBonus(BigDecimal.ZERO);
-        CustomerEntity saved = customerDao.save(entity);
-        return customerMapper.toDto(saved);
+        entity.setBonus(Money.ZERO);
+        CustomerEntity saved;
+        try {
+            saved = customerDao.save(entity);
+        } catch (DataIntegrityViolationException ex) {
+            // Kontrol ile insert arasında aynı email'i eşzamanlı bir istek yazdı (filtre "yok" dediyse kontrol hiç yapılmadı).
+            if (customerDao.existsByEmail(customerDto.getEmail())) {
+                throw new ValidationException(ErrorCode.CUSTOMER_EMAIL_EXISTS);
+            }
+            throw ex;
+        }
+        CustomerDto dto = customerMapper.toDto(saved);
+        customerCache.putAfterCommit(dto);
+        emailFilter.putAfterCommit(dto.getEmail());
+        bonusHistogram.addNewCustomersAfterCommit(1);
+        return dto;
+    }
+
+    @Override
+    @Transactional
+    public CustomerBulkResultDto createCustomers(List<CustomerDto> customers) {
+        CustomerBulkResultDto result = new CustomerBulkResultDto();
+        result.setRequested(customers.size());
+
+        // İstek içinde tekrar eden email'ler DB'ye gitmeden ayıklanır.
+        Map<String, CustomerEntity> unique = new LinkedHashMap<>();
+        for (CustomerDto dto : customers) {
+            if (dto.getName() == null || dto.getEmail() == null) {
+                throw new ValidationException(ErrorCode.VALIDATION_FAILED);
+            }
+            CustomerEntity entity = customerMapper.toEntity(dto);
+            entity.setId(null);
+            entity.setBonus(Money.ZERO);
+            if (unique.putIfAbsent(dto.getEmail(), entity) != null) {
+                result.getDuplicates().add(dto.getEmail());
+            }
+        }
+
+        Map<String, Long> inserted = customerDao.insertIgnoringDuplicateEmails(new ArrayList<>(unique.values()));
+
+        for (CustomerEntity entity : unique.values()) {
+            Long id = inserted.get(entity.getEmail());
+            if (id == null) {
+                result.getDuplicates().add(entity.getEmail());
+                continue;
+            }
+            entity.setId(id);
+            result.getCreated().add(customerMapper.toDto(entity));
+        }
+        emailFilter.putAllAfterCommit(inserted.keySet());
+        bonusHistogram.addNewCustomersAfterCommit(inserted.size());
+        return result;
+    }
+
+    @Override
+    @Transactional
+    public CustomerImportResultDto importCustomers(InputStream csv) {
+        long start = System.currentTimeMillis();
+        customerImportDao.createStaging();
+        long rows = customerImportDao.copy(csv);
+        customerImportDao.validate();
+        long[] merged = customerImportDao.merge("Açılış bakiyesi (import)", outboxPublisher.publishes(BonusChanged.class));
+
+        CustomerImportResultDto result = new CustomerImportResultDto();
+        result.setRows(rows);
+        result.setImported(merged[0]);
+        result.setOpeningBalances(merged[1]);
+        result.setFailed(customerImportDao.countErrors());
+        result.setErrors(customerImportDao.findErrors(importMaxErrors));
+
+        bonusHistogram.addAllAfterCommit(customerImportDao.countImportedByBonus());
+        if (emailFilter.isEnabled()) {
+            emailFilter.putAllAfterCommit(customerImportDao.findImportedEmails());
+        }
+        log.info("Müşteri import'u: {} satır, {} eklendi, {} hatalı ({} ms)",
+                rows, result.getImported(), result.getFailed(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    @Override
+    public CustomerDto getCustomer(Long customerId) {
+        CustomerDto customer = customerCache.get(customerId,
+                id -> customerDao.findById(id).map(customerMapper::toDto).orElse(null));
+        if (customer == null) {
+            throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+        return customer;
+    }
+
+    @Override
+    public CustomerDto getCustomerByEmail(String email) {
+        Long customerId = customerCache.getIdByEmail(email, e -> customerDao.findIdByEmail(e).orElse(null));
+        if (customerId == null) {
+            throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+        return getCustomer(customerId);
+    }
+
+    @Override
+    public Map<String, Object> cacheStats() {
+        return customerCache.stats();
+    }
+
+    @Override
+    public BonusStatsDto getBonusStats() {
+        return bonusHistogram.stats();
     }
 
     @Override
-    public List<CustomerDto> listCustomers(BigDecimal minBonus, BigDecimal maxBonus) {
+    public CursorPage<CustomerDto> listCustomers(Money minBonus, Money maxBonus, String cursor, int limit) {
         // Dinamik filtre (Specification)
         //Bonus aralığı isteğe bağlı; gelen parametreye göre dinamik filtre kuruyoruz.
         Specification<CustomerEntity> spec = (root, query, cb) -> {
@@ -52,75 +222,254 @@ public class CustomerServiceImpl implements CustomerService {
             return cb.and(preds.toArray(new Predicate[0]));
         };
 
-        return customerDao.findAll(spec)
-                .stream()
-                .map(customerMapper::toDto)
-                .toList();
+        // Keyset: (bonus, id) > (afterBonus, afterId) — OFFSET yok, sayfa maliyeti sayfa boyutuna bağlı.
+        if (cursor != null) {
+            String[] key = CursorUtils.decode(cursor, 2);
+            final Money afterBonus;
+            final Long afterId;
+            try {
+                afterBonus = Money.valueOf(key[0]);
+                afterId = Long.valueOf(key[1]);
+            } catch (NumberFormatException | ArithmeticException ex) {
+                throw CursorUtils.invalid();
+            }
+            spec = spec.and((root, query, cb) -> cb.or(
+                    cb.greaterThan(root.get("bonus"), afterBonus),
+                    cb.and(cb.equal(root.get("bonus"), afterBonus), cb.greaterThan(root.get("id"), afterId))));
+        }
+
+        int pageSize = CursorUtils.clampLimit(limit);
+        List<CustomerEntity> rows = customerDao.findBy(spec, q -> q
+                .sortBy(Sort.by("bonus", "id"))
+                .limit(pageSize + 1)
+                .all());
+
+        String next = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            CustomerEntity last = rows.get(pageSize - 1);
+            next = CursorUtils.encode(last.getBonus().toString(), last.getId());
+        }
+        return new CursorPage<>(customerMapper.toDtoList(rows), pageSize, next);
+    }
+
+    @Override
+    public void streamCustomers(Money minBonus, Money maxBonus, Consumer<CustomerDto> sink) {
+        StringBuilder hql = new StringBuilder("from CustomerEntity c where 1 = 1");
+        if (minBonus != null) hql.append(" and c.bonus >= :minBonus");
+        if (maxBonus != null) hql.append(" and c.bonus <= :maxBonus");
+        hql.append(" order by c.bonus, c.id");
+
+        // StatelessSession: persistence context yok → okunan satırlar birikmez, bellek sabit kalır.
+        SessionFactory sessionFactory = em.getEntityManagerFactory().unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // PostgreSQL fetch size'ı yalnızca autocommit kapalıyken (transaction içinde) cursor olarak uygular.
+            Transaction tx = session.beginTransaction();
+            try {
+                SelectionQuery<CustomerEntity> query = session.createSelectionQuery(hql.toString(), CustomerEntity.class);
+                if (minBonus != null) query.setParameter("minBonus", minBonus);
+                if (maxBonus != null) query.setParameter("maxBonus", maxBonus);
+
+                try (ScrollableResults<CustomerEntity> rows = query
+                        .setFetchSize(streamFetchSize)
+                        .setReadOnly(true)
+                        .scroll(ScrollMode.FORWARD_ONLY)) {
+                    while (rows.next()) {
+                        sink.accept(customerMapper.toDto(rows.get()));
+                    }
+                }
+            } finally {
+                tx.rollback(); // salt okuma; commit edilecek bir şey yok
+            }
+        }
     }
 
     @Override
-    @Transactional
     public CustomerDto addBonus(Long customerId, BonusRequestDto request) {
-        CustomerEntity updated = addBonus(customerId, request.getAmount(), request.getDescription());
-        return customerMapper.toDto(updated);
+        requirePositive(request.getAmount());
+        // Aynı şeritteki başka bir değişiklik aynı entity'i yenileyebilir: DTO şerit içinde üretilir.
+        return customerLanes.execute(customerId, () -> customerMapper.toDto(
+                addBonusInLane(customerId, request.getAmount(), request.getDescription())));
     }
 
     @Override
-    public List<BonusTransactionDto> listBonusTransactions(Long customerId) {
-        return bonusTransactionService.listTransactions(customerId);
+    public CursorPage<BonusTransactionDto> listBonusTransactions(Long customerId, Instant from, Instant to, String cursor, int limit) {
+        return bonusTransactionService.listTransactions(customerId, from, to, cursor, limit);
     }
 
+    @Override
+    public long exportBonusTransactions(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return bonusTransactionService.exportTransactions(from, to, format, gzip, out);
+    }
 
     @Override
-    @Transactional
-    public void applyBonusChange(Long customerId, BigDecimal delta, String description) {
+    public BonusBalanceDto getBonusBalance(Long customerId, Instant asOf) {
+        return bonusSnapshotService.getBalance(customerId, asOf);
+    }
+
+    @Override
+    public CustomerActivityDto getActivity(Long customerId) {
+        return customerActivityDao.findById(customerId)
+                .map(a -> new CustomerActivityDto(customerId, a.getInvoiceCount(), a.getLastInvoiceAt(),
+                        a.getBonusChangeCount(), a.getLastBonusChangeAt()))
+                .orElseGet(() -> {
+                    if (!customerDao.existsById(customerId)) {
+                        throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND);
+                    }
+                    return new CustomerActivityDto(customerId, 0, null, 0, null);
+                });
+    }
+
+    @Override
+    public CustomerSummaryDto getSummary(Long customerId, LocalDate from, LocalDate to) {
+        LocalDate fromDay = from == null ? CustomerRollupDao.MIN_DAY : from;
+        LocalDate toDay = to == null ? CustomerRollupDao.MAX_DAY : to;
+        List<InvoiceTypeSummaryDto> byType = customerRollupDao.sumInvoicesByType(customerId, fromDay, toDay);
+        CustomerRollupDao.BonusTotals bonus = customerRollupDao.sumBonus(customerId, fromDay, toDay);
+        if (byType.isEmpty() && bonus.count() == 0 && !customerDao.existsById(customerId)) {
+            throw new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND);
+        }
+
+        CustomerSummaryDto summary = new CustomerSummaryDto();
+        summary.setCustomerId(customerId);
+        summary.setFrom(from);
+        summary.setTo(to);
+        summary.setSalesAmount(BigDecimal.ZERO);
+        summary.setReturnsAmount(BigDecimal.ZERO);
+        for (InvoiceTypeSummaryDto type : byType) {
+            // crm-module InvoiceType'a bağımlı değil: *_RETURN tipleri iade, diğerleri satıştır.
+            if (type.getType().endsWith("_RETURN")) {
+                summary.setReturnsCount(summary.getReturnsCount() + type.getCount());
+                summary.setReturnsAmount(summary.getReturnsAmount().add(type.getAmount()));
+            } else {
+                summary.setSalesCount(summary.getSalesCount() + type.getCount());
+                summary.setSalesAmount(summary.getSalesAmount().add(type.getAmount()));
+            }
+        }
+        summary.setNetSpend(summary.getSalesAmount().subtract(summary.getReturnsAmount()));
+        summary.setBonusEarned(bonus.earned());
+        summary.setBonusSpent(bonus.spent());
+        summary.setBonusChangeCount(bonus.count());
+        summary.setByType(byType);
+        return summary;
+    }
+
+
+    @Override
+    public void applyBonusChange(Long customerId, Money delta, String description) {
         applyDelta(customerId, delta, description);
     }
 
 
 
     @Override
-    @Transactional
-    public CustomerEntity addBonus(Long customerId, BigDecimal amount, String description) {
-        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+    public CustomerEntity addBonus(Long customerId, Money amount, String description) {
+        requirePositive(amount);
+        return customerLanes.execute(customerId, () -> addBonusInLane(customerId, amount, description));
+    }
+
+    private void requirePositive(Money amount) {
+        if (amount == null || amount.signum() <= 0) {
             throw new ValidationException(ErrorCode.BONUS_NEGATIVE_OR_ZERO);
         }
+    }
 
-        CustomerEntity customer = customerDao.findById(customerId)
-                .orElseThrow(() -> new erp.commonmodule.exception.ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND));
-
-        return applyDeltaInternal(customer, amount,
+    private CustomerEntity addBonusInLane(Long customerId, Money amount, String description) {
+        applyDeltaInternal(customerId, amount,
                 "Bonus eklendi: " + (description == null ? "" : description));
+
+        // UPDATE persistence context'i atladığı için güncel bakiye DB'den okunur (tek select).
+        CustomerEntity customer = customerDao.getReferenceById(customerId);
+        em.refresh(customer);
+        return customer;
     }
 
 
 
     @Override
-    @Transactional
-    public void applyDelta(Long customerId, BigDecimal delta, String description) {
+    public void applyDelta(Long customerId, Money delta, String description) {
+        customerLanes.execute(customerId, () -> {
+            applyDeltaInternal(customerId, delta, (description == null ? "" : description));
+            return null;
+        });
+    }
 
-        CustomerEntity customer = customerDao.findById(customerId)
-                .orElseThrow(() -> new erp.commonmodule.exception.ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND));
 
-        if (delta.signum() < 0 && customer.getBonus().compareTo(delta.abs()) < 0) {
-            throw new BusinessException(ErrorCode.INVOICE_BONUS_INSUFFICIENT);
-        }
 
-        applyDeltaInternal(customer, delta, (description == null ? "" : description));
+    @Override
+    @Transactional
+    public void applyBonusChanges(Map<Long, List<BonusDeltaDto>> deltasByCustomer) {
+        if (deltasByCustomer.isEmpty()) {
+            return;
+        }
+        // Okunan bakiyeler @Version ile yazılır: şeritler tutulurken aynı instance'tan eşzamanlı değişiklik gelmez.
+        customerLanes.holdAll(deltasByCustomer.keySet());
+        bonusMetrics.batch().record(() -> applyBonusChangesInternal(deltasByCustomer));
     }
 
+    private void applyBonusChangesInternal(Map<Long, List<BonusDeltaDto>> deltasByCustomer) {
+        Map<Long, CustomerEntity> customers = customerDao.findAllById(deltasByCustomer.keySet())
+                .stream()
+                .collect(Collectors.toMap(CustomerEntity::getId, Function.identity()));
+
+        List<BonusHistogram.Move> moves = new ArrayList<>(deltasByCustomer.size());
+        deltasByCustomer.forEach((customerId, deltas) -> {
+            CustomerEntity customer = customers.get(customerId);
+            if (customer == null) {
+                throw rejected(new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND));
+            }
+
+            // Bakiye, deltalar geliş sırasıyla uygulanırken hiçbir adımda sıfırın altına düşmemeli (kuruş, long).
+            long balance = customer.getBonus().cents();
+            for (BonusDeltaDto delta : deltas) {
+                balance = Math.addExact(balance, delta.getAmount().cents());
+                if (balance < 0) {
+                    throw rejected(new BusinessException(ErrorCode.INVOICE_BONUS_INSUFFICIENT));
+                }
+            }
+            Money updated = Money.ofCents(balance);
+            moves.add(new BonusHistogram.Move(customer.getBonus(), updated));
+            customer.setBonus(updated);
+            bonusTransactionService.saveAll(customer, deltas);
+        });
+        customerCache.evictAllAfterCommit(deltasByCustomer.keySet());
+        bonusHistogram.moveAllAfterCommit(moves);
+    }
 
 
-    private CustomerEntity applyDeltaInternal(CustomerEntity customer, BigDecimal delta, String description) {
-        BigDecimal updated = customer.getBonus().add(delta);
 
-        if (updated.compareTo(BigDecimal.ZERO) < 0) {
-            throw new BusinessException(ErrorCode.BONUS_BALANCE_NEGATIVE);
-        }
-        customer.setBonus(updated);
-        bonusTransactionService.save(customer, delta, description);
+    /**
+     * Bakiye kontrolü + güncelleme tek atomik UPDATE ile yapılır (read-modify-write yok).
+     * Etkilenen satır yoksa: müşteri yok → 404, varsa bakiye yetersiz.
+     * Histogram açıksa yeni bakiye aynı UPDATE'in RETURNING'i ile alınır (eski = yeni - delta).
+     */
+    private void applyDeltaInternal(Long customerId, Money delta, String description) {
+        bonusMetrics.single().record(() -> {
+            boolean updated;
+            if (bonusHistogram.isEnabled()) {
+                Optional<BigDecimal> balance = customerDao.applyBonusDeltaReturning(customerId, delta.toBigDecimal());
+                balance.map(Money::of).ifPresent(b -> bonusHistogram.moveAfterCommit(b.minus(delta), b));
+                updated = balance.isPresent();
+            } else {
+                updated = customerDao.applyBonusDelta(customerId, delta.toBigDecimal()) == 1;
+            }
+
+            if (!updated) {
+                if (!customerDao.existsById(customerId)) {
+                    throw rejected(new ResourceNotFoundException(ErrorCode.CUSTOMER_NOT_FOUND));
+                }
+                throw rejected(new BusinessException(delta.signum() < 0
+                        ? ErrorCode.INVOICE_BONUS_INSUFFICIENT
+                        : ErrorCode.BONUS_BALANCE_NEGATIVE));
+            }
+            bonusTransactionService.save(customerDao.getReferenceById(customerId), delta, description);
+        });
+        customerCache.evictAfterCommit(customerId);
+    }
 
-        return customer;
+    private <E extends BaseException> E rejected(E ex) {
+        bonusMetrics.rejected(ex.getError());
+        return ex;
     }
 
 
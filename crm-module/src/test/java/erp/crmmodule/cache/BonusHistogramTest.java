@@ -0,0 +1,137 @@
+package erp.crmmodule.cache;
+
+import erp.commonmodule.money.Money;
+import erp.commonmodule.reload.CommitFence;
+import erp.crmmodule.dao.CustomerDao;
+import erp.crmmodule.dto.BonusRangeStatsDto;
+import erp.crmmodule.dto.BonusStatsDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class BonusHistogramTest {
+
+    private static final BigDecimal[] BOUNDS = {new BigDecimal("0"), new BigDecimal("100"), new BigDecimal("1000")};
+
+    private final CustomerDao customerDao = mock(CustomerDao.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final AtomicLong nextTxid = new AtomicLong();
+    private final BonusHistogram histogram = new BonusHistogram(customerDao,
+            new CommitFence(jdbcTemplate, mock(PlatformTransactionManager.class), Duration.ofSeconds(5)), true, BOUNDS);
+
+    BonusHistogramTest() {
+        when(jdbcTemplate.queryForObject(eq("select cast(pg_current_xact_id() as text)"), eq(String.class)))
+                .thenAnswer(inv -> String.valueOf(nextTxid.get()));
+        when(jdbcTemplate.queryForObject(eq("select cast(pg_current_snapshot() as text)"), eq(String.class)))
+                .thenReturn("120:140:");
+    }
+
+    @Test
+    void percentilesStayWithinRelativeError() {
+        // 1.00 .. 1000.00
+        when(customerDao.streamAllBonuses()).thenReturn(LongStream.rangeClosed(1, 1000).mapToObj(i -> Money.ofCents(i * 100)));
+        histogram.rebuild();
+
+        BonusStatsDto stats = histogram.stats();
+        assertThat(stats.getCustomerCount()).isEqualTo(1000);
+        assertThat(stats.getTotalBonus()).isEqualByComparingTo("500500.00");
+        assertNear(stats.getP50(), 500);
+        assertNear(stats.getP90(), 900);
+        assertNear(stats.getP99(), 990);
+
+        List<BonusRangeStatsDto> ranges = stats.getRanges();
+        assertThat(ranges).extracting(BonusRangeStatsDto::getCount).containsExactly(99L, 900L, 1L);
+        assertThat(ranges.get(0).getSum()).isEqualByComparingTo("4950.00");
+        assertNear(ranges.get(1).getP50(), 549);
+        assertThat(ranges.get(2).getTo()).isNull();
+        // Tek elemanlı aralıkta tahmin aralık sınırına kırpılır.
+        assertThat(ranges.get(2).getP50()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    void movesShiftBalancesBetweenRanges() {
+        when(customerDao.streamAllBonuses()).thenReturn(Stream.of(Money.ofCents(5_000), Money.ofCents(5_000)));
+        histogram.rebuild();
+
+        histogram.moveAfterCommit(Money.ofCents(5_000), Money.ofCents(250_000));
+        histogram.addNewCustomersAfterCommit(2);
+        histogram.addAllAfterCommit(Map.of(new BigDecimal("1500.00"), 1L));
+
+        BonusStatsDto stats = histogram.stats();
+        assertThat(stats.getCustomerCount()).isEqualTo(5);
+        assertThat(stats.getTotalBonus()).isEqualByComparingTo("4050.00");
+        assertThat(stats.getRanges()).extracting(BonusRangeStatsDto::getCount).containsExactly(3L, 0L, 2L);
+        assertThat(stats.getRanges().get(1).getP50()).isNull();
+        assertThat(stats.getRanges().get(2).getSum()).isEqualByComparingTo("4000.00");
+    }
+
+    @Test
+    void rolledBackMoveIsIgnored() {
+        when(customerDao.streamAllBonuses()).thenReturn(Stream.of(Money.ofCents(5_000)));
+        histogram.rebuild();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            histogram.moveAfterCommit(Money.ofCents(5_000), Money.ofCents(250_000));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(histogram.stats().getRanges()).extracting(BonusRangeStatsDto::getCount).containsExactly(1L, 0L, 0L);
+    }
+
+    @Test
+    void movesCommittedDuringRebuildAreNotDoubleCounted() {
+        when(customerDao.streamAllBonuses()).thenReturn(Stream.of(Money.ofCents(5_000), Money.ofCents(5_000)));
+        histogram.rebuild();
+
+        // İki müşteri 50.00 → 200.00. 130'un satırı taramada güncel görünür (snapshot 120:140), 150'ninki eski.
+        when(customerDao.streamAllBonuses()).thenReturn(Stream.of(Money.ofCents(20_000), Money.ofCents(5_000))
+                .peek(bonus -> {
+                    if (bonus.cents() == 20_000) {
+                        commitMove(130, Money.ofCents(5_000), Money.ofCents(20_000));
+                        commitMove(150, Money.ofCents(5_000), Money.ofCents(20_000));
+                    }
+                }));
+        histogram.rebuild();
+
+        BonusStatsDto stats = histogram.stats();
+        assertThat(stats.getCustomerCount()).isEqualTo(2);
+        assertThat(stats.getTotalBonus()).isEqualByComparingTo("400.00");
+        assertThat(stats.getRanges()).extracting(BonusRangeStatsDto::getCount).containsExactly(0L, 2L, 0L);
+        assertThat(stats.getRanges().get(0).getSum()).isEqualByComparingTo("0.00");
+    }
+
+    private void commitMove(long txid, Money from, Money to) {
+        nextTxid.set(txid);
+        TransactionSynchronizationManager.initSynchronization();
+        histogram.moveAfterCommit(from, to);
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.clearSynchronization();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static void assertNear(BigDecimal actual, double expected) {
+        assertThat(actual.doubleValue()).isCloseTo(expected, within(expected / 64));
+    }
+}
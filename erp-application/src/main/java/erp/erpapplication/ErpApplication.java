@@ -1,10 +1,14 @@
 package erp.erpapplication;
 
+import erp.erpapplication.metrics.QueryMetricsConfig;
+import erp.erpapplication.partition.PartitionMaintenanceJob;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Import;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(
         scanBasePackages = {
@@ -24,6 +28,8 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 })
 
 @EnableJpaAuditing
+@EnableScheduling
+@Import({QueryMetricsConfig.class, PartitionMaintenanceJob.class})
 public class ErpApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,43 @@
+package erp.erpapplication.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+
+/**
+ * İstek başına çalışan SQL sayısı: erp.http.db.statements{method,uri}.
+ * uri, controller'daki şablondur (/api/customers/{id}); böylece etiket sayısı sınırlı kalır.
+ * StreamingResponseBody gibi async gövdeler başka thread'de yazıldığı için sayılmaz.
+ */
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        StatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = StatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("erp.http.db.statements")
+                    .description("İstek başına SQL ifadesi sayısı")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package erp.erpapplication.metrics;
+
+import erp.crmmodule.lanes.LaneContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+
+/**
+ * İstek başına SQL sayısı metriği: StatementCounter Hibernate'e bağlanır, QueryCountFilter kaydeder.
+ * Müşteri şeridinde başka bir isteğin thread'inde çalışan değişikliklerin SQL'i kendi isteğine sayılır (LaneContext).
+ * Hikari havuzu ve Hibernate istatistikleri (hibernate-micrometer) Spring Boot tarafından otomatik bağlanır.
+ */
+@Configuration(proxyBeanMethods = false)
+public class QueryMetricsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, StatementCounter.INSTANCE);
+    }
+
+    @Bean
+    public LaneContext statementCounterLaneContext() {
+        return StatementCounter::propagate;
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(new QueryCountFilter(meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
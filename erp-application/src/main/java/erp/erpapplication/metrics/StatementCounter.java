@@ -0,0 +1,59 @@
+package erp.erpapplication.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+
+/**
+ * Hibernate'in hazırladığı her SQL ifadesini o anki HTTP isteğine sayar (N+1 tespiti için).
+ * Sayaç yalnızca QueryCountFilter'ın başlattığı thread'lerde aktiftir; arka plan işleri sayılmaz.
+ * Müşteri şeridinde başka thread'de çalışan değişiklikler propagate ile isteğin sayacına yazılır.
+ */
+public final class StatementCounter implements StatementInspector {
+
+    public static final StatementCounter INSTANCE = new StatementCounter();
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    /** task'ın SQL'ini, çağıran thread'in (varsa) sayacına yazar; task başka bir thread'de çalışabilir. */
+    static Runnable propagate(Runnable task) {
+        int[] count = COUNT.get();
+        if (count == null) {
+            return task;
+        }
+        return () -> {
+            int[] previous = COUNT.get();
+            COUNT.set(count);
+            try {
+                task.run();
+            } finally {
+                if (previous == null) {
+                    COUNT.remove();
+                } else {
+                    COUNT.set(previous);
+                }
+            }
+        };
+    }
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
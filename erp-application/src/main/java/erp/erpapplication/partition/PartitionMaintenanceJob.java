@@ -0,0 +1,148 @@
+package erp.erpapplication.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * created_at'e göre aylık partition'lı tabloların bakımı (bkz. V2__partition_by_created_at.sql).
+ * - Önümüzdeki months-ahead ay için partition'ları önceden açar (insert'ler hiçbir zaman partition'sız kalmaz)
+ * - retention-months'tan eski aylık partition'ları ayırır (DETACH CONCURRENTLY) ve arşiv şemasına taşır ya da siler
+ * DDL'ler autocommit çalışır (DETACH CONCURRENTLY transaction içinde çalıştırılamaz).
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "erp.partitions.maintenance.enabled", havingValue = "true", matchIfMissing = true)
+public class PartitionMaintenanceJob {
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+    // PostgreSQL: "partition ... would overlap partition ..." (ör. geçiş sırasında oluşan *_legacy aralığı)
+    private static final String INVALID_OBJECT_DEFINITION = "42P17";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<String> tables;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final String retentionAction;
+    private final String archiveSchema;
+
+    public PartitionMaintenanceJob(JdbcTemplate jdbcTemplate,
+                                   @Value("${erp.partitions.tables:bonus_transactions,invoices,invoice_lines}") List<String> tables,
+                                   @Value("${erp.partitions.months-ahead:3}") int monthsAhead,
+                                   @Value("${erp.partitions.retention-months:0}") int retentionMonths,
+                                   @Value("${erp.partitions.retention-action:archive}") String retentionAction,
+                                   @Value("${erp.partitions.archive-schema:archive}") String archiveSchema) {
+        tables.forEach(PartitionMaintenanceJob::requireIdentifier);
+        requireIdentifier(archiveSchema);
+        if (!retentionAction.equals("archive") && !retentionAction.equals("drop")) {
+            throw new IllegalArgumentException("erp.partitions.retention-action: archive | drop");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.tables = tables;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+        this.archiveSchema = archiveSchema;
+    }
+
+    // Uygulama uzun süre kapalı kaldıysa içinde bulunulan ayın partition'ı açılışta da garanti edilir.
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        run();
+    }
+
+    @Scheduled(cron = "${erp.partitions.cron:0 30 1 * * *}", zone = "UTC")
+    public void run() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        for (String table : tables) {
+            createFuturePartitions(table, current);
+            if (retentionMonths > 0) {
+                detachExpiredPartitions(table, current.minusMonths(retentionMonths));
+            }
+        }
+    }
+
+    private void createFuturePartitions(String table, YearMonth current) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String partition = partitionName(table, month);
+            if (exists(partition)) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("create table if not exists " + partition + " partition of " + table +
+                        " for values from ('" + month.atDay(1) + " 00:00:00+00') to ('" + month.plusMonths(1).atDay(1) + " 00:00:00+00')");
+                log.info("Partition oluşturuldu: {}", partition);
+            } catch (DataAccessException ex) {
+                if (!INVALID_OBJECT_DEFINITION.equals(sqlState(ex))) {
+                    throw ex;
+                }
+                log.debug("Partition atlandı ({} aralığı başka bir partition'da): {}", month, ex.getMessage());
+            }
+        }
+    }
+
+    private void detachExpiredPartitions(String table, YearMonth cutoff) {
+        Pattern monthly = Pattern.compile(Pattern.quote(table) + "_p(\\d{4})_(\\d{2})");
+        List<String> partitions = jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i " +
+                        "join pg_class c on c.oid = i.inhrelid " +
+                        "join pg_class p on p.oid = i.inhparent " +
+                        "join pg_namespace n on n.oid = p.relnamespace " +
+                        "where p.relname = ? and n.nspname = current_schema()",
+                String.class, table);
+
+        for (String partition : partitions) {
+            Matcher m = monthly.matcher(partition);
+            if (!m.matches()) {
+                continue; // *_legacy gibi aylık olmayan partition'lar elle yönetilir
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            jdbcTemplate.execute("alter table " + table + " detach partition " + partition + " concurrently");
+            if (retentionAction.equals("drop")) {
+                jdbcTemplate.execute("drop table " + partition);
+            } else {
+                jdbcTemplate.execute("create schema if not exists " + archiveSchema);
+                jdbcTemplate.execute("alter table " + partition + " set schema " + archiveSchema);
+            }
+            log.info("Partition ayrıldı ({}): {}", retentionAction, partition);
+        }
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, relation));
+    }
+
+    private static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    private static String sqlState(DataAccessException ex) {
+        return ex.getMostSpecificCause() instanceof SQLException sql ? sql.getSQLState() : null;
+    }
+
+    private static void requireIdentifier(String name) {
+        if (!IDENTIFIER.matcher(name).matches()) {
+            throw new IllegalArgumentException("Geçersiz tablo/şema adı: " + name);
+        }
+    }
+}
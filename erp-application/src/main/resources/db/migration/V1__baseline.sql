@@ -0,0 +1,101 @@
+-- Başlangıç şeması (daha önce ddl-auto: update ile oluşturulan hali).
+-- ddl-auto ile oluşmuş mevcut veritabanlarında da çalışabilmesi için tüm ifadeler idempotenttir:
+-- eksik nesneler oluşturulur, var olanlara dokunulmaz.
+
+create sequence if not exists bonus_snapshots_seq start with 1 increment by 50;
+create sequence if not exists bonus_transactions_seq start with 1 increment by 50;
+create sequence if not exists bonuses_seq start with 1 increment by 50;
+create sequence if not exists customers_seq start with 1 increment by 50;
+create sequence if not exists invoice_lines_seq start with 1 increment by 50;
+create sequence if not exists invoices_seq start with 1 increment by 50;
+
+create table if not exists customers (
+    id         bigint                      not null primary key,
+    name       varchar(150)                not null,
+    email      varchar(150)                not null unique,
+    bonus      numeric(38, 2)              not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    version    bigint
+);
+
+create table if not exists bonuses (
+    id          bigint                      not null primary key,
+    customer_id bigint                      not null,
+    amount      numeric(38, 2)              not null,
+    description varchar(255),
+    created_at  timestamp(6) with time zone not null,
+    updated_at  timestamp(6) with time zone not null,
+    version     bigint
+);
+
+create table if not exists bonus_transactions (
+    id          bigint                      not null primary key,
+    customer_id bigint                      not null,
+    amount      numeric(38, 2)              not null,
+    description varchar(255),
+    created_at  timestamp(6) with time zone not null,
+    updated_at  timestamp(6) with time zone not null,
+    version     bigint
+);
+
+create table if not exists bonus_snapshots (
+    id          bigint                      not null primary key,
+    customer_id bigint                      not null,
+    as_of       timestamp(6) with time zone not null,
+    balance     numeric(38, 2)              not null,
+    created_at  timestamp(6) with time zone not null,
+    updated_at  timestamp(6) with time zone not null,
+    version     bigint,
+    constraint uk_bonus_snapshots_customer_as_of unique (customer_id, as_of)
+);
+
+create table if not exists invoices (
+    id           bigint                      not null primary key,
+    customer_id  bigint                      not null,
+    type         varchar(30)                 not null
+        check (type in ('RETAIL_SALE', 'WHOLESALE_SALE', 'RETAIL_RETURN', 'WHOLESALE_RETURN')),
+    total_amount numeric(19, 2)              not null,
+    created_at   timestamp(6) with time zone not null,
+    updated_at   timestamp(6) with time zone not null,
+    version      bigint
+);
+
+create table if not exists invoice_lines (
+    id         bigint                      not null primary key,
+    invoice_id bigint                      not null,
+    product_id bigint                      not null,
+    quantity   integer                     not null,
+    price      numeric(38, 2)              not null,
+    created_at timestamp(6) with time zone not null,
+    updated_at timestamp(6) with time zone not null,
+    version    bigint
+);
+
+create index if not exists idx_customers_bonus_id on customers (bonus, id);
+create index if not exists idx_bonus_tx_customer_created on bonus_transactions (customer_id, created_at, id);
+create index if not exists idx_bonus_tx_created on bonus_transactions (created_at);
+create index if not exists idx_bonus_snapshots_as_of on bonus_snapshots (as_of);
+create index if not exists idx_invoices_customer_created on invoices (customer_id, created_at, id);
+create index if not exists idx_invoices_created on invoices (created_at, id);
+
+-- FK adları Hibernate'in ürettiği adlarla aynıdır (mevcut veritabanlarında zaten vardır).
+do $$
+declare
+    fk record;
+begin
+    for fk in
+        select * from (values
+            ('bonuses',            'fkig8lw4rmkv2srq5pdvjjppgj3', 'customer_id', 'customers'),
+            ('bonus_transactions', 'fkpq4k7e1sq13f63n5lhwmnr0gg', 'customer_id', 'customers'),
+            ('bonus_snapshots',    'fkeausuq3x1jjs32r9ghcbrqofy', 'customer_id', 'customers'),
+            ('invoices',           'fkq2w4hmh6l9othnp6cepp0cfe2', 'customer_id', 'customers'),
+            ('invoice_lines',      'fksgudq2lwpa9wc92a23nggah1w', 'invoice_id',  'invoices')
+        ) as t(tbl, name, col, ref)
+    loop
+        if not exists (select 1 from pg_constraint where conname = fk.name) then
+            execute format('alter table %I add constraint %I foreign key (%I) references %I',
+                           fk.tbl, fk.name, fk.col, fk.ref);
+        end if;
+    end loop;
+end $$;
@@ -0,0 +1,52 @@
+-- bonus_transactions, invoices, invoice_lines: created_at'e göre aylık RANGE partition.
+--
+-- Mevcut tablo "<tablo>_legacy" adıyla, gelecek ayın başına kadar olan aralığın partition'ı olarak eklenir
+-- (veri kopyalanmaz; ATTACH sırasında yalnızca aralık kontrolü ve yeni PK index'i için bir tarama yapılır).
+-- Sonraki aylar burada ve ardından PartitionMaintenanceJob tarafından açılır.
+--
+-- Partition anahtarı PK'da bulunmak zorunda: PK (id, created_at) olur. Bu yüzden partition'lı invoices'a
+-- FK verilemez; invoice_lines.invoice_id bütünlüğünü uygulama (InvoiceEntity cascade) sağlar.
+
+alter table invoice_lines drop constraint if exists fksgudq2lwpa9wc92a23nggah1w;
+
+do $$
+declare
+    tbl   text;
+    idx   record;
+    bound timestamptz := (date_trunc('month', now() at time zone 'UTC') + interval '1 month') at time zone 'UTC';
+    start timestamptz;
+begin
+    foreach tbl in array array['bonus_transactions', 'invoices', 'invoice_lines'] loop
+        execute format('alter table %I rename to %I', tbl, tbl || '_legacy');
+        execute format('alter table %I drop constraint %I', tbl || '_legacy', tbl || '_pkey');
+        -- index adları şema genelinde tekil; eşdeğer index'ler ATTACH'ta parent index'e bağlanır (yeniden kurulmaz)
+        for idx in select indexname from pg_indexes
+                   where schemaname = current_schema() and tablename = tbl || '_legacy' loop
+            execute format('alter index %I rename to %I', idx.indexname, idx.indexname || '_legacy');
+        end loop;
+
+        execute format('create table %I (like %I including defaults including constraints) partition by range (created_at)',
+                       tbl, tbl || '_legacy');
+        execute format('alter table %I add primary key (id, created_at)', tbl);
+    end loop;
+
+    alter table bonus_transactions add constraint fkpq4k7e1sq13f63n5lhwmnr0gg foreign key (customer_id) references customers;
+    alter table invoices add constraint fkq2w4hmh6l9othnp6cepp0cfe2 foreign key (customer_id) references customers;
+
+    create index idx_bonus_tx_customer_created on bonus_transactions (customer_id, created_at, id);
+    create index idx_bonus_tx_created on bonus_transactions (created_at);
+    create index idx_invoices_customer_created on invoices (customer_id, created_at, id);
+    create index idx_invoices_created on invoices (created_at, id);
+    create index idx_invoice_lines_invoice on invoice_lines (invoice_id);
+
+    foreach tbl in array array['bonus_transactions', 'invoices', 'invoice_lines'] loop
+        execute format('alter table %I attach partition %I for values from (minvalue) to (%L)',
+                       tbl, tbl || '_legacy', bound);
+        for i in 0..2 loop
+            start := bound + make_interval(months => i);
+            execute format('create table %I partition of %I for values from (%L) to (%L)',
+                           tbl || '_p' || to_char(start at time zone 'UTC', 'YYYY_MM'), tbl,
+                           start, start + interval '1 month');
+        end loop;
+    end loop;
+end $$;
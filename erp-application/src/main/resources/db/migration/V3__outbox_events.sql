@@ -0,0 +1,23 @@
+-- Transactional outbox: domain event'leri iş transaction'ında yazılır, OutboxDispatcher işleyip siler.
+-- available_at: yeniden deneme zamanı (dead letter: 9999-12-31).
+create table if not exists outbox_events (
+    id           bigint generated always as identity primary key,
+    event_type   varchar(100)                not null,
+    aggregate_id bigint,
+    payload      jsonb                       not null,
+    created_at   timestamp(6) with time zone not null,
+    available_at timestamp(6) with time zone not null,
+    attempts     integer                     not null default 0,
+    last_error   varchar(1000)
+);
+
+create index if not exists idx_outbox_events_available on outbox_events (available_at, id);
+
+-- Outbox projection'ı (crm-module): müşteri başına hareket özeti.
+create table if not exists customer_activity (
+    customer_id          bigint not null primary key references customers (id),
+    invoice_count        bigint not null,
+    last_invoice_at      timestamp(6) with time zone,
+    bonus_change_count   bigint not null,
+    last_bonus_change_at timestamp(6) with time zone
+);
@@ -0,0 +1,12 @@
+-- Idempotency-Key kayıtları: istek parmak izi (SHA-256) + ilk başarılı yanıtın JSON'u, expires_at'e kadar.
+create table if not exists idempotency_keys (
+    scope         varchar(200)                not null,
+    idem_key      varchar(100)                not null,
+    request_hash  bytea                       not null,
+    response_body text,
+    created_at    timestamp(6) with time zone not null,
+    expires_at    timestamp(6) with time zone not null,
+    primary key (scope, idem_key)
+);
+
+create index if not exists idx_idempotency_keys_expires on idempotency_keys (expires_at);
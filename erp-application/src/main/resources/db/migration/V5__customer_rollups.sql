@@ -0,0 +1,47 @@
+-- Outbox projection'ı (crm-module): müşteri × gün (UTC) × fatura tipi toplamları ve müşteri × gün bonus toplamları.
+-- GET /api/customers/{id}/summary ham faturaları değil bu satırları okur.
+create table if not exists customer_invoice_rollups (
+    customer_id   bigint         not null references customers (id),
+    day           date           not null,
+    invoice_type  varchar(30)    not null,
+    invoice_count bigint         not null,
+    total_amount  numeric(38, 2) not null,
+    primary key (customer_id, day, invoice_type)
+);
+
+-- earned: pozitif bonus hareketleri (ekleme, iade, açılış bakiyesi); spent: negatif hareketlerin mutlak değeri.
+create table if not exists customer_bonus_rollups (
+    customer_id  bigint         not null references customers (id),
+    day          date           not null,
+    earned       numeric(38, 2) not null,
+    spent        numeric(38, 2) not null,
+    change_count bigint         not null,
+    primary key (customer_id, day)
+);
+
+-- Mevcut veriden doldurma. Outbox'ta hâlâ bekleyen olaylar açılışta handler'lar tarafından eklenecekleri için hariç tutulur
+-- (faturalar invoiceId ile birebir; bonus hareketleri toplamdan çıkarılarak). Dead letter'lar işlenmeyeceğinden dahil edilir.
+insert into customer_invoice_rollups (customer_id, day, invoice_type, invoice_count, total_amount)
+select i.customer_id, cast(i.created_at at time zone 'UTC' as date), i.type, count(*), sum(i.total_amount)
+from invoices i
+where not exists (select 1
+                  from outbox_events o
+                  where o.event_type = 'InvoiceCreated'
+                    and o.available_at < timestamptz '9999-12-31T00:00:00Z'
+                    and cast(o.payload ->> 'invoiceId' as bigint) = i.id)
+group by 1, 2, 3;
+
+insert into customer_bonus_rollups (customer_id, day, earned, spent, change_count)
+select customer_id, cast(at at time zone 'UTC' as date),
+       sum(case when amount > 0 then amount * n else 0 end),
+       sum(case when amount < 0 then -amount * n else 0 end),
+       sum(n)
+from (select customer_id, created_at as at, amount, 1 as n from bonus_transactions
+      union all
+      select cast(payload ->> 'customerId' as bigint), cast(payload ->> 'changedAt' as timestamptz),
+             cast(payload ->> 'delta' as numeric), -1
+      from outbox_events
+      where event_type = 'BonusChanged'
+        and available_at < timestamptz '9999-12-31T00:00:00Z') m
+group by 1, 2
+having sum(n) > 0;
@@ -0,0 +1,6 @@
+-- Snapshot job'ının günlük pencere taraması ([önceki sınır, sınır)) için created_at index'i btree yerine BRIN.
+-- bonus_transactions en sık insert edilen tablo; btree her insert'te güncellenir ve sayfa bölünmesi yaşar.
+-- created_at ekleme sırasıyla artar: BRIN blok aralığı başına yalnızca min/max tutar, bakımı ihmal edilebilir
+-- ve legacy partition'daki eski satırları da pencere taramasının dışında bırakır.
+drop index if exists idx_bonus_tx_created;
+create index if not exists idx_bonus_tx_created_brin on bonus_transactions using brin (created_at);
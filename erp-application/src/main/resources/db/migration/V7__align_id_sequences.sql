@@ -0,0 +1,19 @@
+-- id'ler sequence'tan (pooled, increment 50) gelir. IDENTITY ile ya da sequence'lar oluşmadan önce yazılmış satırları
+-- olan veritabanlarında (ddl-auto döneminden baseline'lananlar) sequence'lar 1'de kalır ve ilk insert mevcut PK'larla
+-- çakışır. Her sequence max(id)'ye taşınır; sonraki nextval max(id) + 50 döner ve Hibernate (max(id), max(id) + 50]
+-- aralığını dağıtır. Sequence zaten ilerideyse dokunulmaz (temiz kurulumlarda no-op).
+-- V1'e eklenmedi: uygulanmış migration'ın checksum'ı değişir ve Flyway validate mevcut veritabanlarında durur.
+do $$
+declare
+    tbl text;
+    max_id bigint;
+begin
+    foreach tbl in array array['customers', 'bonuses', 'bonus_transactions', 'bonus_snapshots', 'invoices', 'invoice_lines']
+    loop
+        execute format('select max(id) from %I', tbl) into max_id;
+        if max_id is not null and max_id > coalesce((select last_value from pg_sequences
+                                                      where schemaname = current_schema() and sequencename = tbl || '_seq'), 0) then
+            perform setval(tbl || '_seq', max_id);
+        end if;
+    end loop;
+end $$;
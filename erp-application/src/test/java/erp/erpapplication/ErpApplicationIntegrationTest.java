@@ -1,18 +1,44 @@
 package erp.erpapplication;
 
+import erp.commonmodule.exception.BusinessException;
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.money.Money;
 import erp.commonmodule.response.ApiResponse;
+import erp.crmmodule.dto.BonusDeltaDto;
+import erp.crmmodule.dto.CustomerDto;
+import erp.crmmodule.lanes.CustomerLanes;
+import erp.crmmodule.services.BonusSnapshotService;
+import erp.crmmodule.services.CustomerService;
+import erp.invoicemodule.dto.InvoiceDto;
+import erp.invoicemodule.dto.InvoiceLineDto;
+import erp.invoicemodule.dto.InvoiceRequestDto;
+import erp.invoicemodule.services.InvoiceService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.*;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * FULL INTEGRATION TEST (PostgreSQL)
@@ -35,6 +61,24 @@ public class ErpApplicationIntegrationTest {
     @Autowired
     private TestRestTemplate restTemplate;
 
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CustomerLanes customerLanes;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private BonusSnapshotService bonusSnapshotService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private String baseUrl(String path) {
         return "http://localhost:" + port + path;
     }
@@ -271,6 +315,544 @@ public class ErpApplicationIntegrationTest {
         assertThat(respRange.getBody().getData().toString()).contains("Ali Veli");
     }
 
+    // 🔹 1️⃣3️⃣ Toplu fatura yükleme: kayıt bazında başarı/hata
+    @Test
+    @Order(13)
+    void shouldReportPerItemResultsOnInvoiceBatch() {
+        List<Map<String, Object>> invoices = List.of(
+                Map.of("customerId", 1, "type", "RETAIL_RETURN", "amount", 10,
+                        "lines", List.of(Map.of("productId", 6, "quantity", 1, "price", 10))),
+                Map.of("customerId", 1, "type", "NOT_A_REAL_TYPE", "amount", 10,
+                        "lines", List.of(Map.of("productId", 6, "quantity", 1, "price", 10)))
+        );
+
+        ResponseEntity<ApiResponse> response = restTemplate.postForEntity(
+                baseUrl("/api/invoices/batch"), new HttpEntity<>(invoices, jsonHeaders()), ApiResponse.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = (Map<String, Object>) response.getBody().getData();
+        assertThat(result.get("succeeded")).isEqualTo(1);
+        assertThat(result.get("failed")).isEqualTo(1);
+    }
+
+    // 🔹 1️⃣4️⃣ Tutarı satır toplamıyla uyuşmayan fatura
+    @Test
+    @Order(14)
+    void shouldRejectInvoiceWhenAmountDiffersFromLines() {
+        Map<String, Object> invoice = Map.of(
+                "customerId", 1,
+                "type", "RETAIL_RETURN",
+                "amount", 25,
+                "lines", List.of(Map.of("productId", 7, "quantity", 2, "price", 12.49))
+        );
+
+        ResponseEntity<ApiResponse> response = restTemplate.postForEntity(
+                baseUrl("/api/invoices"), invoice, ApiResponse.class
+        );
+
+        // ValidationException(INVOICE_TOTAL_MISMATCH) => 400, status=2009
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getStatus()).isEqualTo(2009);
+
+        // Satırsız fatura artık reddedilir (önceden kabul ediliyordu)
+        ResponseEntity<ApiResponse> withoutLines = restTemplate.postForEntity(
+                baseUrl("/api/invoices"), Map.of("customerId", 1, "type", "RETAIL_RETURN", "amount", 25), ApiResponse.class
+        );
+        assertThat(withoutLines.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(withoutLines.getBody().getStatus()).isEqualTo(2009);
+    }
+
+    // 🔹 1️⃣5️⃣ Aynı müşteriye eşzamanlı tekil + toplu bonus değişimleri: şeritsiz / şeritli
+    @Test
+    @Order(15)
+    void shouldSerializeHotCustomerBonusChangesThroughLanes() throws Exception {
+        CustomerDto customer = new CustomerDto();
+        customer.setName("Sıcak Müşteri");
+        customer.setEmail("hot@erp.com");
+        Long id = customerService.createCustomer(customer).getId();
+
+        HotKeyRun run = runHotKey(id);
+
+        // Toplu güncelleme (@Version) tekil UPDATE'lerle aynı şeritten geçer: çakışma yok.
+        // Şeritli/şeritsiz throughput karşılaştırması JMH'dedir (CustomerLanesBenchmark).
+        assertThat(run.optimisticFailures()).isZero();
+        assertThat(run.otherFailures()).isZero();
+        assertThat(customerService.getCustomer(id).getBonus()).isEqualTo(Money.ofCents(run.succeeded()));
+    }
+
+    // 🔹 1️⃣6️⃣ Toplu faturada bozuk kayıt: önceki kayıtlar yazılır, bozuk kayıt sırasıyla raporlanır
+    @Test
+    @Order(16)
+    void shouldReportMalformedRecordOnInvoiceBatch() {
+        String body = """
+                {"customerId": 1, "type": "RETAIL_RETURN", "amount": 5, "lines": [{"productId": 8, "quantity": 1, "price": 5}]}
+                {"customerId": 1, "type": "RETAIL_RETURN", "amount": "beş"}
+                {"customerId": 1, "type": "RETAIL_RETURN", "amount": 5, "lines": [{"productId": 8, "quantity": 1, "price": 5}]}
+                """;
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_NDJSON);
+
+        ResponseEntity<ApiResponse> response = restTemplate.postForEntity(
+                baseUrl("/api/invoices/batch"), new HttpEntity<>(body, headers), ApiResponse.class
+        );
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = (Map<String, Object>) response.getBody().getData();
+        assertThat(result.get("succeeded")).isEqualTo(1);
+        assertThat(result.get("failed")).isEqualTo(1);
+        List<Map<String, Object>> items = (List<Map<String, Object>>) result.get("items");
+        assertThat(items.get(1).get("index")).isEqualTo(1);
+        assertThat(items.get(1).get("code")).isEqualTo(2011);
+    }
+
+    // 🔹 1️⃣7️⃣ Bonus hareketleri: zaman aralığı + imleçle sayfalama
+    @Test
+    @Order(17)
+    void shouldPageBonusTransactionsWithinTimeRange() {
+        String range = "from=2000-01-01T00:00:00Z&to=2100-01-01T00:00:00Z";
+        ResponseEntity<ApiResponse> first = restTemplate.getForEntity(
+                baseUrl("/api/customers/1/bonus-transactions?" + range + "&limit=1"), ApiResponse.class
+        );
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<?>) first.getBody().getData()).hasSize(1);
+        String next = (String) first.getBody().getQuery().get("next");
+        assertThat(next).isNotNull();
+
+        ResponseEntity<ApiResponse> second = restTemplate.getForEntity(
+                baseUrl("/api/customers/1/bonus-transactions?" + range + "&limit=1&cursor=" + next), ApiResponse.class
+        );
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<?>) second.getBody().getData()).hasSize(1);
+        assertThat(second.getBody().getData()).isNotEqualTo(first.getBody().getData());
+
+        // Aralık dışı: boş sayfa
+        ResponseEntity<ApiResponse> empty = restTemplate.getForEntity(
+                baseUrl("/api/customers/1/bonus-transactions?from=2099-01-01T00:00:00Z"), ApiResponse.class
+        );
+        assertThat(empty.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<?>) empty.getBody().getData()).isEmpty();
+    }
+
+    // 🔹 1️⃣8️⃣ Aynı email ile eşzamanlı kayıt: biri başarılı, diğerleri 1001 (4090 değil)
+    @Test
+    @Order(18)
+    void shouldRejectConcurrentDuplicateEmailWith1001() throws Exception {
+        Map<String, Object> customer = Map.of("name", "Yarış", "email", "race@erp.com");
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> statuses = new ArrayList<>(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return restTemplate.postForEntity(baseUrl("/api/customers"), customer, ApiResponse.class)
+                            .getBody().getStatus();
+                }));
+            }
+            start.countDown();
+            List<Integer> codes = new ArrayList<>(requests);
+            for (Future<Integer> status : statuses) {
+                codes.add(status.get());
+            }
+            assertThat(codes).filteredOn(code -> code == 200).hasSize(1);
+            assertThat(codes).filteredOn(code -> code != 200).containsOnly(1001);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // 🔹 1️⃣9️⃣ erp.invoices sayacı commit'ten sonra artar: geri alınan transaction'daki fatura sayılmaz
+    @Test
+    @Order(19)
+    void shouldCountCreatedInvoicesOnlyAfterCommit() {
+        InvoiceLineDto line = new InvoiceLineDto();
+        line.setProductId(9L);
+        line.setQuantity(1);
+        line.setPrice(Money.ofCents(100));
+        InvoiceRequestDto request = new InvoiceRequestDto();
+        request.setCustomerId(1L);
+        request.setType("RETAIL_RETURN");
+        request.setAmount(Money.ofCents(100));
+        request.setLines(List.of(line));
+        double before = createdReturns();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            invoiceService.createInvoice(request);
+            status.setRollbackOnly();
+        });
+        assertThat(createdReturns()).isEqualTo(before);
+
+        invoiceService.createInvoice(request);
+        assertThat(createdReturns()).isEqualTo(before + 1);
+    }
 
+    // 🔹 2️⃣0️⃣ Fatura listesi: filtresiz, müşteri + tip filtreli ve imleçle sayfalama
+    @Test
+    @Order(20)
+    void shouldListInvoicesWithOptionalFilters() {
+        ResponseEntity<ApiResponse> all = restTemplate.getForEntity(baseUrl("/api/invoices"), ApiResponse.class);
+        assertThat(all.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<?>) all.getBody().getData()).isNotEmpty();
+
+        String filter = "/api/invoices?customerId=1&type=RETAIL_RETURN&limit=1";
+        ResponseEntity<ApiResponse> first = restTemplate.getForEntity(baseUrl(filter), ApiResponse.class);
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        List<Map<String, Object>> firstPage = (List<Map<String, Object>>) first.getBody().getData();
+        assertThat(firstPage).hasSize(1);
+        String next = (String) first.getBody().getQuery().get("next");
+        assertThat(next).isNotNull();
+
+        ResponseEntity<ApiResponse> second = restTemplate.getForEntity(
+                baseUrl(filter + "&cursor=" + next), ApiResponse.class
+        );
+        List<Map<String, Object>> secondPage = (List<Map<String, Object>>) second.getBody().getData();
+        assertThat(secondPage).hasSize(1);
+        assertThat(secondPage.get(0).get("id")).isNotEqualTo(firstPage.get(0).get("id"));
+        assertThat(List.of(firstPage.get(0), secondPage.get(0)))
+                .allSatisfy(invoice -> {
+                    assertThat(invoice.get("customerId")).isEqualTo(1);
+                    assertThat(invoice.get("type")).isEqualTo("RETAIL_RETURN");
+                });
+
+        ResponseEntity<ApiResponse> sales = restTemplate.getForEntity(
+                baseUrl("/api/invoices?type=RETAIL_SALE&to=2000-01-01T00:00:00Z"), ApiResponse.class
+        );
+        assertThat(sales.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat((List<?>) sales.getBody().getData()).isEmpty();
+    }
 
+    // 🔹 2️⃣1️⃣ Geçmiş bakiye (asOf): snapshot öncesi ledger'dan, sonrası snapshot + kuyruktan
+    @Test
+    @Order(21)
+    void shouldReturnBonusBalanceAsOfUsingSnapshots() throws Exception {
+        Long id = customerService.createCustomer(customer("Geçmiş Bakiye", "asof@erp.com")).getId();
+        Instant beforeAll = Instant.now();
+        addBonus(id, 10);
+        Instant afterFirst = Instant.now();
+        Instant boundary = afterFirst.plusMillis(1);
+        Thread.sleep(5); // sınır geçmişte kalsın: ikinci hareket sınırdan sonra yazılır
+        assertThat(bonusSnapshotService.createSnapshots(boundary)).isPositive();
+        assertThat(bonusSnapshotService.createSnapshots(boundary)).isZero(); // aynı sınır: yazılmış müşteriler atlanır
+        addBonus(id, 5);
+
+        Map<String, Object> empty = balanceAsOf(id, beforeAll);
+        assertThat(new BigDecimal(empty.get("balance").toString())).isEqualByComparingTo("0");
+        assertThat(empty.get("replayedTransactions")).isEqualTo(0);
+
+        // Sınırdan önce: snapshot yok, ledger baştan toplanır
+        Map<String, Object> first = balanceAsOf(id, afterFirst);
+        assertThat(new BigDecimal(first.get("balance").toString())).isEqualByComparingTo("10");
+        assertThat(first.get("snapshotAsOf")).isNull();
+        assertThat(first.get("replayedTransactions")).isEqualTo(1);
+
+        // Sınırdan sonra: snapshot (10) + kuyruktaki tek hareket (5)
+        Map<String, Object> latest = balanceAsOf(id, Instant.now());
+        assertThat(new BigDecimal(latest.get("balance").toString())).isEqualByComparingTo("15");
+        assertThat(Instant.parse((String) latest.get("snapshotAsOf"))).isEqualTo(boundary.truncatedTo(ChronoUnit.MICROS));
+        assertThat(latest.get("replayedTransactions")).isEqualTo(1);
+    }
+
+    // 🔹 2️⃣2️⃣ Aynı Idempotency-Key ile eşzamanlı istekler: bonus bir kez eklenir, diğerleri ilk yanıtı alır;
+    //         aynı anahtar farklı gövdeyle 4003
+    @Test
+    @Order(22)
+    void shouldApplyConcurrentIdempotentBonusOnce() throws Exception {
+        Long id = customerService.createCustomer(customer("Tekrar", "idem@erp.com")).getId();
+        int requests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ResponseEntity<ApiResponse>>> responses = new ArrayList<>(requests);
+        try {
+            for (int i = 0; i < requests; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return postBonus(id, "idem-1", 10);
+                }));
+            }
+            start.countDown();
+            List<String> replayed = new ArrayList<>(requests);
+            for (Future<ResponseEntity<ApiResponse>> response : responses) {
+                assertThat(response.get().getStatusCode()).isEqualTo(HttpStatus.OK);
+                replayed.add(response.get().getHeaders().getFirst("Idempotent-Replayed"));
+            }
+            assertThat(replayed).filteredOn("false"::equals).hasSize(1);
+            assertThat(replayed).filteredOn("true"::equals).hasSize(requests - 1);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(customerService.getCustomer(id).getBonus()).isEqualTo(Money.ofCents(1000));
+
+        ResponseEntity<ApiResponse> reused = postBonus(id, "idem-1", 20);
+        assertThat(reused.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(reused.getBody().getStatus()).isEqualTo(4003);
+        assertThat(customerService.getCustomer(id).getBonus()).isEqualTo(Money.ofCents(1000));
+    }
+
+    // 🔹 2️⃣3️⃣ Süresi dolan Idempotency-Key tekrar oynatılmaz (temizlik job'ı satırı henüz silmemiş olsa da)
+    @Test
+    @Order(23)
+    void shouldNotReplayExpiredIdempotencyKey() throws Exception {
+        Long id = customerService.createCustomer(customer("Süre", "idem-ttl@erp.com")).getId();
+        ResponseEntity<ApiResponse> first = postBonus(id, "idem-ttl", 10);
+        assertThat(first.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("false");
+        assertThat(postBonus(id, "idem-ttl", 10).getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("true");
+
+        Thread.sleep(3_200); // test profilinde erp.idempotency.ttl = 3s
+
+        ResponseEntity<ApiResponse> again = postBonus(id, "idem-ttl", 10);
+        assertThat(again.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(again.getHeaders().getFirst("Idempotent-Replayed")).isEqualTo("false");
+        assertThat(customerService.getCustomer(id).getBonus()).isEqualTo(Money.ofCents(2000));
+    }
+
+    // 🔹 2️⃣4️⃣ CSV import: satır hataları raporlanır; dosya içi tekrarda ilk *geçerli* satır eklenir
+    @Test
+    @Order(24)
+    void shouldImportCustomersFromCsvReportingRowErrors() throws Exception {
+        customerService.createCustomer(customer("Kayıtlı", "imp-exists@erp.com"));
+        String csv = """
+                name,email,bonus
+                Ada,imp1@erp.com,12.50
+                ,imp2@erp.com,5
+                Bora,imp2@erp.com,5
+                Bora İkinci,imp2@erp.com,
+                Cem,imp3@erp.com,-1
+                Dila,imp4@erp.com,1.234
+                Ece,eposta-degil,0
+                Eski,imp-exists@erp.com,0
+                Fil, imp5@erp.com ,
+                """;
+
+        ResponseEntity<ApiResponse> response = postCsv(csv);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = (Map<String, Object>) response.getBody().getData();
+        assertThat(result.get("rows")).isEqualTo(9);
+        assertThat(result.get("imported")).isEqualTo(3);
+        assertThat(result.get("openingBalances")).isEqualTo(2);
+        assertThat(result.get("failed")).isEqualTo(6);
+        List<Map<String, Object>> errors = (List<Map<String, Object>>) result.get("errors");
+        assertThat(errors).extracting(e -> e.get("row")).containsExactly(2, 4, 5, 6, 7, 8);
+        assertThat(errors).extracting(e -> e.get("error")).containsExactly(
+                "NAME_INVALID", "EMAIL_DUPLICATE", "BONUS_NEGATIVE", "BONUS_INVALID", "EMAIL_INVALID", "EMAIL_EXISTS");
+
+        // Hatalı 2. satır, aynı email'li geçerli 3. satırı tekrar saydırmaz
+        assertThat(customerService.getCustomerByEmail("imp2@erp.com").getName()).isEqualTo("Bora");
+        assertThat(customerService.getCustomerByEmail("imp2@erp.com").getBonus()).isEqualTo(Money.ofCents(500));
+        assertThat(customerService.getCustomerByEmail("imp1@erp.com").getBonus()).isEqualTo(Money.ofCents(1250));
+        assertThat(customerService.getCustomerByEmail("imp5@erp.com").getBonus()).isEqualTo(Money.ZERO);
+
+        // Açılış bakiyeleri BonusChanged olarak outbox'tan projection'lara ulaşır
+        Long imp1 = customerService.getCustomerByEmail("imp1@erp.com").getId();
+        awaitBonusChanges(imp1, 1);
+        assertThat(customerService.getSummary(imp1, null, null).getBonusEarned()).isEqualByComparingTo("12.50");
+        Long imp5 = customerService.getCustomerByEmail("imp5@erp.com").getId();
+        assertThat(customerService.getActivity(imp5).getBonusChangeCount()).isZero();
+
+        // Aynı dosya tekrar: hepsi ya hatalı ya kayıtlı
+        Map<String, Object> again = (Map<String, Object>) postCsv(csv).getBody().getData();
+        assertThat(again.get("imported")).isEqualTo(0);
+        assertThat(again.get("failed")).isEqualTo(9);
+    }
+
+    // 🔹 2️⃣5️⃣ Başlığı uymayan CSV tümden reddedilir (1007)
+    @Test
+    @Order(25)
+    void shouldRejectCsvWithWrongHeader() {
+        ResponseEntity<ApiResponse> response = postCsv("ad,email,bonus\nAda,imp-header@erp.com,1\n");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        assertThat(response.getBody().getStatus()).isEqualTo(1007);
+    }
+
+    // 🔹 2️⃣6️⃣ Şeritte birleşen faturalar: ortadaki yetersiz bakiye yalnızca kendi çağıranına döner, diğerleri commit edilir
+    @Test
+    @Order(26)
+    void shouldReturnMidBatchInsufficientBonusOnlyToItsCaller() throws Exception {
+        Long id = customerService.createCustomer(customer("Şerit Müşterisi", "lane@erp.com")).getId();
+        customerService.addBonus(id, Money.ofCents(1000), "şerit");
+        DistributionSummary batches = meterRegistry.get("erp.bonus.lane.batch").summary();
+        long batchesBefore = batches.count();
+        double mergedBefore = batches.totalAmount();
+        double fallbacksBefore = meterRegistry.get("erp.bonus.lane.fallback").counter().count();
+
+        // Şeridi tutan değişiklik bitene kadar bonus değişimleri sırayla kuyruğa girer; sonra tek transaction'da yazılır.
+        // Fatura kendi transaction'ında şeridi bekler, kuyruğa girmez ve birleştirilmez.
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            Future<?> holder = executor.submit(() -> customerLanes.execute(id, () -> {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            held.await();
+
+            // 10.00 → 6.00 → (100.00 yetersiz) → 11.00 → 8.00, fatura 1.00 önce ya da sonra
+            long[] deltas = {-400, -10000, 500, -300};
+            List<Future<?>> results = new ArrayList<>(deltas.length);
+            for (long delta : deltas) {
+                Thread[] caller = new Thread[1];
+                results.add(executor.submit(() -> {
+                    caller[0] = Thread.currentThread();
+                    customerService.applyDelta(id, Money.ofCents(delta), "şerit");
+                }));
+                awaitParked(caller);
+            }
+            Thread[] invoiceCaller = new Thread[1];
+            Future<InvoiceDto> invoice = executor.submit(() -> {
+                invoiceCaller[0] = Thread.currentThread();
+                return invoiceService.createInvoice(invoiceRequest(id, "RETAIL_SALE", 100));
+            });
+            awaitParked(invoiceCaller);
+            release.countDown();
+            holder.get();
+
+            results.get(0).get();
+            assertThatThrownBy(() -> results.get(1).get())
+                    .hasCauseInstanceOf(BusinessException.class)
+                    .satisfies(ex -> assertThat(((BusinessException) ex.getCause()).getError())
+                            .isEqualTo(ErrorCode.INVOICE_BONUS_INSUFFICIENT));
+            results.get(2).get();
+            results.get(3).get();
+            assertThat(invoice.get().getId()).isNotNull();
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(customerService.getCustomer(id).getBonus()).isEqualTo(Money.ofCents(700));
+        assertThat(customerService.listBonusTransactions(id, null, null, null, 10).getItems()).hasSize(5);
+        assertThat(invoiceService.listInvoices(id, null, null, null, null, 10).getItems()).hasSize(1);
+        assertThat(batches.count()).isEqualTo(batchesBefore + 1);
+        assertThat(batches.totalAmount()).isEqualTo(mergedBefore + 3);
+        assertThat(meterRegistry.get("erp.bonus.lane.fallback").counter().count()).isEqualTo(fallbacksBefore);
+    }
+
+    private ResponseEntity<ApiResponse> postCsv(String csv) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.valueOf("text/csv"));
+        return restTemplate.postForEntity(baseUrl("/api/customers/import"), new HttpEntity<>(csv, headers), ApiResponse.class);
+    }
+
+    private ResponseEntity<ApiResponse> postBonus(Long customerId, String idempotencyKey, int amount) {
+        HttpHeaders headers = jsonHeaders();
+        headers.set("Idempotency-Key", idempotencyKey);
+        return restTemplate.postForEntity(
+                baseUrl("/api/customers/" + customerId + "/bonus"),
+                new HttpEntity<>(Map.of("amount", amount, "description", "idempotent"), headers), ApiResponse.class
+        );
+    }
+
+    private static InvoiceRequestDto invoiceRequest(Long customerId, String type, long cents) {
+        InvoiceLineDto line = new InvoiceLineDto();
+        line.setProductId(7L);
+        line.setQuantity(1);
+        line.setPrice(Money.ofCents(cents));
+        InvoiceRequestDto request = new InvoiceRequestDto();
+        request.setCustomerId(customerId);
+        request.setType(type);
+        request.setAmount(Money.ofCents(cents));
+        request.setLines(List.of(line));
+        return request;
+    }
+
+    /** Çağıran şerit kilidini beklemeye başlayana (tryLock, TIMED_WAITING) kadar bekler: op kuyruğa girmiştir. */
+    private static void awaitParked(Thread[] caller) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (caller[0] == null || caller[0].getState() != Thread.State.TIMED_WAITING) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    /** Outbox dispatcher'ı (~poll-interval-ms) bonus değişimlerini customer_activity'ye yansıtana kadar bekler. */
+    private void awaitBonusChanges(Long customerId, long count) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (customerService.getActivity(customerId).getBonusChangeCount() < count) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        assertThat(customerService.getActivity(customerId).getBonusChangeCount()).isEqualTo(count);
+    }
+
+    private static CustomerDto customer(String name, String email) {
+        CustomerDto customer = new CustomerDto();
+        customer.setName(name);
+        customer.setEmail(email);
+        return customer;
+    }
+
+    private void addBonus(Long customerId, int amount) {
+        ResponseEntity<ApiResponse> response = restTemplate.postForEntity(
+                baseUrl("/api/customers/" + customerId + "/bonus"), Map.of("amount", amount, "description", "asOf"),
+                ApiResponse.class
+        );
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    private Map<String, Object> balanceAsOf(Long customerId, Instant asOf) {
+        ResponseEntity<ApiResponse> response = restTemplate.getForEntity(
+                baseUrl("/api/customers/" + customerId + "/bonus?asOf=" + asOf), ApiResponse.class
+        );
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (Map<String, Object>) response.getBody().getData();
+    }
+
+    private double createdReturns() {
+        return meterRegistry.get("erp.invoices").tag("type", "RETAIL_RETURN").counter().count();
+    }
+
+    private record HotKeyRun(long succeeded, long optimisticFailures, long otherFailures) {
+    }
+
+    /** 8 thread × 50 değişiklik (+0.01): çift adımlar tekil UPDATE, tek adımlar toplu güncelleme. */
+    private HotKeyRun runHotKey(Long customerId) throws Exception {
+        int threads = 8;
+        int opsPerThread = 50;
+        Money delta = Money.ofCents(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> results = new ArrayList<>(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    long[] counts = new long[3]; // succeeded, optimistic, other
+                    start.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        try {
+                            if (i % 2 == 0) {
+                                customerService.applyDelta(customerId, delta, "hot");
+                            } else {
+                                customerService.applyBonusChanges(
+                                        Map.of(customerId, List.of(new BonusDeltaDto(delta, "hot"))));
+                            }
+                            counts[0]++;
+                        } catch (ObjectOptimisticLockingFailureException ex) {
+                            counts[1]++;
+                        } catch (RuntimeException ex) {
+                            counts[2]++;
+                        }
+                    }
+                    return counts;
+                }));
+            }
+            start.countDown();
+            long[] total = new long[3];
+            for (Future<long[]> result : results) {
+                long[] counts = result.get();
+                for (int k = 0; k < total.length; k++) {
+                    total[k] += counts[k];
+                }
+            }
+            return new HotKeyRun(total[0], total[1], total[2]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,481 @@
+package erp.invoicemodule.analytics;
+
+import erp.commonmodule.exception.BusinessException;
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ValidationException;
+import erp.commonmodule.reload.CommitFence;
+import erp.commonmodule.reload.ReloadableView;
+import erp.invoicemodule.dao.ProductSalesDao;
+import erp.invoicemodule.dto.ProductSalesDto;
+import erp.invoicemodule.dto.SalesBucketDto;
+import erp.invoicemodule.models.InvoiceEntity;
+import erp.invoicemodule.models.InvoiceLineEntity;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+
+/**
+ * Ürün satış analitiği: fatura satırı olguları (ürün, UTC gün, adet, tutar) bellekte kolon bazlı ilkel dizilerde tutulur.
+ * - Satırlar sabit boyutlu segment'lere eklenir (büyürken kopyalama yok); segment başına min/max gün tutulur,
+ *   tarih filtresi dışındaki segment'ler hiç okunmaz.
+ * - Sorgular satır aralığını ForkJoinPool'da parçalara bölüp paralel tarar; parçalar grup dizilerini toplayarak birleştirir.
+ * - İade faturalarının satırları negatif adet/tutarla tutulur: sonuçlar net satıştır. Tutar kuruş cinsinden long'dur.
+ * - Açılışta tek sorguyla yüklenir; sonra her fatura commit sonrası eklenir. Yükleme sürerken commit edilenler
+ *   yüklemenin snapshot'ına göre bir kez eklenir (bkz. ReloadableView). Diğer instance'ların faturaları reload-cron ile gelir.
+ * Bellek: satır başına 20 byte (+ ürün başına sözlük girdisi).
+ */
+@Slf4j
+@Component
+public class ProductSalesStore {
+
+    static final int SEGMENT_BITS = 16;
+    static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+    private static final int ROW_BYTES = Integer.BYTES * 3 + Long.BYTES;
+    // Gün kovası sayısı üst sınırı (~10 yıl günlük)
+    private static final int MAX_BUCKETS = 3700;
+
+    public enum Bucket {DAY, WEEK, MONTH}
+
+    public enum Order {AMOUNT, QUANTITY}
+
+    private final ProductSalesDao productSalesDao;
+    private final boolean enabled;
+    private final ForkJoinPool pool;
+    private final AtomicBoolean loading = new AtomicBoolean();
+    private final ReloadableView<Columns> view;
+    private volatile Instant loadedAt;
+
+    public ProductSalesStore(ProductSalesDao productSalesDao,
+                             CommitFence commitFence,
+                             @Value("${erp.analytics.products.enabled:true}") boolean enabled,
+                             @Value("${erp.analytics.products.parallelism:0}") int parallelism) {
+        this.productSalesDao = productSalesDao;
+        this.view = new ReloadableView<>(commitFence);
+        this.enabled = enabled;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /** DB'siz kullanım (benchmark): olgular source'tan yüklenir. */
+    public static ProductSalesStore inMemory(int parallelism, Consumer<ProductSalesDao.FactSink> source) {
+        ProductSalesStore store = new ProductSalesStore(null, null, true, parallelism);
+        Columns columns = new Columns();
+        fill(columns, source);
+        store.view.set(columns);
+        store.loadedAt = Instant.now();
+        return store;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    @Scheduled(cron = "${erp.analytics.products.reload-cron:-}", zone = "UTC")
+    public void scheduledReload() {
+        reload();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /** Faturaların satırları commit sonrası eklenir (entity alanları şimdi okunur). */
+    public void addAfterCommit(List<InvoiceEntity> invoices) {
+        if (!enabled || invoices.isEmpty()) {
+            return;
+        }
+        Facts facts = new Facts();
+        for (InvoiceEntity invoice : invoices) {
+            int sign = switch (invoice.getType()) {
+                case RETAIL_SALE, WHOLESALE_SALE -> 1;
+                case RETAIL_RETURN, WHOLESALE_RETURN -> -1;
+            };
+            for (InvoiceLineEntity line : invoice.getLines()) {
+                Instant at = line.getCreatedAt() != null ? line.getCreatedAt() : invoice.getCreatedAt();
+                facts.add(line.getProductId(), (int) LocalDate.ofInstant(at, ZoneOffset.UTC).toEpochDay(),
+                        sign * line.getQuantity(), sign * line.getPrice().cents() * line.getQuantity());
+            }
+        }
+        view.changeAfterCommit(c -> c.append(facts));
+    }
+
+    /** [from, to] günlerinde (dahil) net tutara/adede göre ilk limit ürün. */
+    public List<ProductSalesDto> top(LocalDate from, LocalDate to, int limit, Order order) {
+        Columns c = ready();
+        Snapshot s = c.snapshot();
+        Totals totals = scan(s, new Query((int) from.toEpochDay(), (int) to.toEpochDay(), s.products, null, -1));
+
+        long[] key = order == Order.AMOUNT ? totals.cents : totals.quantity;
+        PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1,
+                (a, b) -> key[a] != key[b] ? Long.compare(key[a], key[b]) : Long.compare(s.productIds[b], s.productIds[a]));
+        for (int p = 0; p < s.products; p++) {
+            if (totals.lines[p] == 0) {
+                continue;
+            }
+            heap.add(p);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        ProductSalesDto[] result = new ProductSalesDto[heap.size()];
+        for (int i = result.length - 1; i >= 0; i--) {
+            int p = heap.poll();
+            result[i] = new ProductSalesDto(s.productIds[p], totals.quantity[p], BigDecimal.valueOf(totals.cents[p], 2), totals.lines[p]);
+        }
+        return Arrays.asList(result);
+    }
+
+    /** [from, to] günlerinin kova başına toplamları (boş kovalar dahil); productId null ise tüm ürünler. */
+    public List<SalesBucketDto> buckets(Long productId, LocalDate from, LocalDate to, Bucket bucket) {
+        Columns c = ready();
+        Snapshot s = c.snapshot();
+
+        List<LocalDate> starts = new ArrayList<>();
+        int fromDay = (int) from.toEpochDay();
+        int[] dayToBucket = new int[(int) ChronoUnit.DAYS.between(from, to) + 1];
+        LocalDate currentStart = null;
+        for (int d = 0; d < dayToBucket.length; d++) {
+            LocalDate start = bucketStart(from.plusDays(d), bucket);
+            if (!start.equals(currentStart)) {
+                if (starts.size() == MAX_BUCKETS) {
+                    throw new ValidationException(ErrorCode.PRODUCT_ANALYTICS_INVALID_QUERY, "en fazla " + MAX_BUCKETS + " kova");
+                }
+                starts.add(start);
+                currentStart = start;
+            }
+            dayToBucket[d] = starts.size() - 1;
+        }
+
+        int wanted = productId == null ? -1 : c.indexOf(productId);
+        Totals totals = productId != null && (wanted < 0 || wanted >= s.products)
+                ? new Totals(starts.size())
+                : scan(s, new Query(fromDay, (int) to.toEpochDay(), starts.size(), dayToBucket, wanted));
+
+        List<SalesBucketDto> result = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            result.add(new SalesBucketDto(starts.get(i), totals.quantity[i], BigDecimal.valueOf(totals.cents[i], 2), totals.lines[i]));
+        }
+        return result;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        Columns c = view.get();
+        stats.put("enabled", enabled);
+        stats.put("loadedAt", loadedAt);
+        if (c != null) {
+            Snapshot s = c.snapshot();
+            stats.put("rows", s.size);
+            stats.put("products", s.products);
+            stats.put("segments", (s.size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            stats.put("memoryBytes", c.memoryBytes());
+        }
+        stats.put("parallelism", pool.getParallelism());
+        return stats;
+    }
+
+    void reload() {
+        if (!enabled || productSalesDao == null || !loading.compareAndSet(false, true)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            view.reload(() -> {
+                Columns next = new Columns();
+                fill(next, productSalesDao::streamAll);
+                return next;
+            });
+            loadedAt = Instant.now();
+            Columns c = view.get();
+            Snapshot s = c.snapshot();
+            log.info("Ürün satış store'u hazır ({} satır, {} ürün, ~{} MB, {} ms)",
+                    s.size, s.products, c.memoryBytes() >> 20, System.currentTimeMillis() - start);
+        } finally {
+            loading.set(false);
+        }
+    }
+
+    private static void fill(Columns columns, Consumer<ProductSalesDao.FactSink> source) {
+        Facts facts = new Facts();
+        source.accept((productId, day, quantity, cents) -> {
+            facts.add(productId, day, quantity, cents);
+            if (facts.size == Facts.CAPACITY) {
+                columns.append(facts);
+                facts.size = 0;
+            }
+        });
+        columns.append(facts);
+    }
+
+    private Columns ready() {
+        Columns c = view.get();
+        if (!enabled || c == null) {
+            throw new BusinessException(ErrorCode.PRODUCT_ANALYTICS_UNAVAILABLE);
+        }
+        return c;
+    }
+
+    private Totals scan(Snapshot s, Query query) {
+        // Parça sayısı ~ 4 × paralellik: parça başına grup dizileri ayrıldığından çok küçük parçalara bölünmez.
+        int leafRows = Math.max(SEGMENT_SIZE, s.size / (pool.getParallelism() * 4) + 1);
+        return pool.invoke(new ScanTask(s, 0, s.size, leafRows, query));
+    }
+
+    private static LocalDate bucketStart(LocalDate day, Bucket bucket) {
+        return switch (bucket) {
+            case DAY -> day;
+            case WEEK -> day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> day.withDayOfMonth(1);
+        };
+    }
+
+    /**
+     * [fromDay, toDay] günlerinin taraması. dayToBucket null ise ürün indeksine göre, değilse kovaya göre gruplanır;
+     * product >= 0 ise yalnızca o ürün sayılır. (Gruplama lambda yerine sabit döngülerle: çağrı noktası inline kalır.)
+     */
+    private record Query(int fromDay, int toDay, int groups, int[] dayToBucket, int product) {
+    }
+
+    private static final class Totals {
+        final long[] quantity;
+        final long[] cents;
+        final long[] lines;
+
+        Totals(int groups) {
+            this.quantity = new long[groups];
+            this.cents = new long[groups];
+            this.lines = new long[groups];
+        }
+
+        Totals add(Totals other) {
+            for (int g = 0; g < lines.length; g++) {
+                quantity[g] += other.quantity[g];
+                cents[g] += other.cents[g];
+                lines[g] += other.lines[g];
+            }
+            return this;
+        }
+    }
+
+    private static final class ScanTask extends RecursiveTask<Totals> {
+        private final Snapshot s;
+        private final int fromRow;
+        private final int toRow;
+        private final int leafRows;
+        private final Query q;
+
+        ScanTask(Snapshot s, int fromRow, int toRow, int leafRows, Query q) {
+            this.s = s;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.leafRows = leafRows;
+            this.q = q;
+        }
+
+        @Override
+        protected Totals compute() {
+            if (toRow - fromRow > leafRows) {
+                // Segment sınırından bölünür: bir segment tek parçada kalır
+                int mid = ((fromRow + (toRow - fromRow) / 2) >>> SEGMENT_BITS) << SEGMENT_BITS;
+                if (mid > fromRow && mid < toRow) {
+                    ScanTask left = new ScanTask(s, fromRow, mid, leafRows, q);
+                    left.fork();
+                    Totals right = new ScanTask(s, mid, toRow, leafRows, q).compute();
+                    return left.join().add(right);
+                }
+            }
+            Totals totals = new Totals(q.groups());
+            for (int row = fromRow; row < toRow; ) {
+                Segment seg = s.segments[row >>> SEGMENT_BITS];
+                int end = Math.min(toRow, ((row >>> SEGMENT_BITS) + 1) << SEGMENT_BITS);
+                if (seg.maxDay >= q.fromDay() && seg.minDay <= q.toDay()) {
+                    scanSegment(seg, row & (SEGMENT_SIZE - 1), end - row, totals);
+                }
+                row = end;
+            }
+            return totals;
+        }
+
+        private void scanSegment(Segment seg, int offset, int count, Totals totals) {
+            int[] product = seg.product;
+            int[] day = seg.day;
+            int[] quantity = seg.quantity;
+            long[] cents = seg.cents;
+            int fromDay = q.fromDay();
+            int toDay = q.toDay();
+            int[] dayToBucket = q.dayToBucket();
+            int wanted = q.product();
+            int end = offset + count;
+            if (dayToBucket == null) {
+                for (int i = offset; i < end; i++) {
+                    int d = day[i];
+                    if (d >= fromDay && d <= toDay) {
+                        int g = product[i];
+                        totals.quantity[g] += quantity[i];
+                        totals.cents[g] += cents[i];
+                        totals.lines[g]++;
+                    }
+                }
+            } else {
+                for (int i = offset; i < end; i++) {
+                    int d = day[i];
+                    if (d >= fromDay && d <= toDay && (wanted < 0 || product[i] == wanted)) {
+                        int g = dayToBucket[d - fromDay];
+                        totals.quantity[g] += quantity[i];
+                        totals.cents[g] += cents[i];
+                        totals.lines[g]++;
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class Segment {
+        final int[] product = new int[SEGMENT_SIZE];
+        final int[] day = new int[SEGMENT_SIZE];
+        final int[] quantity = new int[SEGMENT_SIZE];
+        final long[] cents = new long[SEGMENT_SIZE];
+        // Yalnızca genişler; size yayınlanmadan önce yazıldığından okuyucu en az yayınlanan satırları kapsayan aralığı görür.
+        int minDay = Integer.MAX_VALUE;
+        int maxDay = Integer.MIN_VALUE;
+    }
+
+    /** Okuyucunun tutarlı görünümü: size'dan küçük satırlar ve bu satırların ürünleri tamamen yazılmıştır. */
+    private record Snapshot(Segment[] segments, int size, long[] productIds, int products) {
+    }
+
+    /** Ekleme tek yazar kilidiyle; okuma kilitsiz (volatile size yayını). */
+    private static final class Columns {
+        private final Object lock = new Object();
+        private final Map<Long, Integer> productIndex = new HashMap<>();
+        private volatile Segment[] segments = new Segment[16];
+        private volatile long[] productIds = new long[1024];
+        private volatile int products;
+        private volatile int size;
+
+        void append(Facts facts) {
+            if (facts.size == 0) {
+                return;
+            }
+            synchronized (lock) {
+                Segment[] segs = segments;
+                long[] ids = productIds;
+                int n = size;
+                int productCount = products;
+                for (int i = 0; i < facts.size; i++) {
+                    int segment = n >>> SEGMENT_BITS;
+                    if (segment == segs.length) {
+                        segs = Arrays.copyOf(segs, segs.length * 2);
+                    }
+                    if (segs[segment] == null) {
+                        segs[segment] = new Segment();
+                    }
+                    Integer p = productIndex.get(facts.productId[i]);
+                    if (p == null) {
+                        if (productCount == ids.length) {
+                            ids = Arrays.copyOf(ids, ids.length * 2);
+                        }
+                        ids[productCount] = facts.productId[i];
+                        p = productCount++;
+                        productIndex.put(facts.productId[i], p);
+                    }
+                    Segment seg = segs[segment];
+                    int row = n & (SEGMENT_SIZE - 1);
+                    int d = facts.day[i];
+                    seg.product[row] = p;
+                    seg.day[row] = d;
+                    seg.quantity[row] = facts.quantity[i];
+                    seg.cents[row] = facts.cents[i];
+                    seg.minDay = Math.min(seg.minDay, d);
+                    seg.maxDay = Math.max(seg.maxDay, d);
+                    n++;
+                }
+                segments = segs;
+                productIds = ids;
+                products = productCount;
+                size = n; // yayın: önceki yazmalar okuyuculara görünür
+            }
+        }
+
+        Snapshot snapshot() {
+            int n = size;
+            int productCount = products;
+            return new Snapshot(segments, n, productIds, productCount);
+        }
+
+        int indexOf(long productId) {
+            synchronized (lock) {
+                Integer p = productIndex.get(productId);
+                return p == null ? -1 : p;
+            }
+        }
+
+        long memoryBytes() {
+            synchronized (lock) {
+                long allocated = 0;
+                for (Segment seg : segments) {
+                    if (seg != null) {
+                        allocated += (long) SEGMENT_SIZE * ROW_BYTES;
+                    }
+                }
+                // HashMap girdisi + Long/Integer kutuları ~ 64 byte
+                return allocated + (long) productIds.length * Long.BYTES + (long) productIndex.size() * 64;
+            }
+        }
+    }
+
+    /** Eklenecek olguların tamponu. */
+    private static final class Facts {
+        static final int CAPACITY = 4096;
+
+        long[] productId = new long[16];
+        int[] day = new int[16];
+        int[] quantity = new int[16];
+        long[] cents = new long[16];
+        int size;
+
+        void add(long productId, int day, int quantity, long cents) {
+            if (size == this.productId.length) {
+                int capacity = size * 2;
+                this.productId = Arrays.copyOf(this.productId, capacity);
+                this.day = Arrays.copyOf(this.day, capacity);
+                this.quantity = Arrays.copyOf(this.quantity, capacity);
+                this.cents = Arrays.copyOf(this.cents, capacity);
+            }
+            this.productId[size] = productId;
+            this.day[size] = day;
+            this.quantity[size] = quantity;
+            this.cents[size] = cents;
+            size++;
+        }
+    }
+}
@@ -1,12 +1,28 @@
 package erp.invoicemodule.controllers;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.idempotency.IdempotencyService;
+import erp.commonmodule.idempotency.IdempotentResult;
 import erp.commonmodule.response.ApiResponse;
+import erp.commonmodule.response.CursorPage;
+import erp.commonmodule.util.CursorUtils;
+import erp.invoicemodule.dto.InvoiceBatchResultDto;
 import erp.invoicemodule.dto.InvoiceDto;
 import erp.invoicemodule.dto.InvoiceRequestDto;
 import erp.invoicemodule.services.InvoiceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
 
 
 @RestController
@@ -15,10 +31,65 @@ import org.springframework.web.bind.annotation.*;
 public class InvoiceController {
 
     private final InvoiceService invoiceService;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyService idempotencyService;
 
+    // Idempotency-Key verilirse istemci tekrarları faturayı yeniden oluşturmaz, ilk yanıt döner.
     @PostMapping
-    public ResponseEntity<ApiResponse<InvoiceDto>> createInvoice(@RequestBody InvoiceRequestDto request) {
-        InvoiceDto created = invoiceService.createInvoice(request);
-        return ResponseEntity.ok(ApiResponse.success(created));
+    public ResponseEntity<ApiResponse<InvoiceDto>> createInvoice(@RequestHeader(value = IdempotentResult.HEADER, required = false) String idempotencyKey,
+                                                                 @RequestBody InvoiceRequestDto request) {
+        IdempotentResult<InvoiceDto> created = idempotencyService.execute("POST /api/invoices", idempotencyKey, request,
+                InvoiceDto.class, () -> invoiceService.createInvoice(request));
+        return ResponseEntity.ok()
+                .header(IdempotentResult.REPLAYED_HEADER, String.valueOf(created.replayed()))
+                .body(ApiResponse.success(created.body()));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ApiResponse<InvoiceDto>> getInvoice(@PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(invoiceService.getInvoice(id)));
+    }
+
+    // Yeni → eski, keyset sayfalı; tüm filtreler opsiyonel, from/to ISO-8601 instant ([from, to) aralığı).
+    @GetMapping
+    public ResponseEntity<ApiResponse<List<InvoiceDto>>> listInvoices(@RequestParam(required = false) Long customerId,
+                                                                      @RequestParam(required = false) String type,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                      @RequestParam(required = false) String cursor,
+                                                                      @RequestParam(defaultValue = CursorUtils.DEFAULT_LIMIT_PARAM) int limit) {
+        CursorPage<InvoiceDto> invoices = invoiceService.listInvoices(customerId, type, from, to, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success(invoices));
+    }
+
+    // Finans export'u: [from, to) aralığı DB cursor'ından CSV/NDJSON olarak akıtılır; ApiResponse zarfı yok.
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                @RequestParam(defaultValue = "csv") String format,
+                                                                @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> invoiceService.exportInvoices(from, to, exportFormat, gzip, out);
+        return ResponseEntity.ok().headers(exportFormat.headers("invoices", gzip)).body(body);
+    }
+
+    @GetMapping("/lines/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoiceLines(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                                                    @RequestParam(defaultValue = "csv") String format,
+                                                                    @RequestParam(defaultValue = "false") boolean gzip) {
+        ExportFormat exportFormat = ExportFormat.of(format);
+        StreamingResponseBody body = out -> invoiceService.exportInvoiceLines(from, to, exportFormat, gzip, out);
+        return ResponseEntity.ok().headers(exportFormat.headers("invoice-lines", gzip)).body(body);
+    }
+
+
+    // Gövde (JSON array veya NDJSON) belleğe alınmadan kayıt kayıt okunur.
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse<InvoiceBatchResultDto>> createInvoices(InputStream body) throws IOException {
+        try (MappingIterator<InvoiceRequestDto> requests = objectMapper.readerFor(InvoiceRequestDto.class).readValues(body)) {
+            InvoiceBatchResultDto result = invoiceService.createInvoices(requests);
+            return ResponseEntity.ok(ApiResponse.success(result));
+        }
     }
 }
@@ -0,0 +1,47 @@
+package erp.invoicemodule.controllers;
+
+import erp.commonmodule.response.ApiResponse;
+import erp.invoicemodule.dto.ProductSalesDto;
+import erp.invoicemodule.dto.SalesBucketDto;
+import erp.invoicemodule.services.ProductAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+
+@RestController
+@RequestMapping("/api/products")
+@RequiredArgsConstructor
+public class ProductAnalyticsController {
+
+    private final ProductAnalyticsService productAnalyticsService;
+
+    // Net satışa (iadeler düşülmüş) göre ilk limit ürün; from/to ISO tarih (UTC gün, dahil), yoksa son 30 gün.
+    @GetMapping("/top")
+    public ResponseEntity<ApiResponse<List<ProductSalesDto>>> topProducts(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                          @RequestParam(defaultValue = "10") int limit,
+                                                                          @RequestParam(defaultValue = "amount") String by) {
+        return ResponseEntity.ok(ApiResponse.success(productAnalyticsService.topProducts(from, to, limit, by)));
+    }
+
+    // Gün/hafta/ay kovaları (boş kovalar dahil); productId verilmezse tüm ürünler.
+    @GetMapping("/sales")
+    public ResponseEntity<ApiResponse<List<SalesBucketDto>>> sales(@RequestParam(required = false) Long productId,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                   @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                   @RequestParam(defaultValue = "day") String bucket) {
+        return ResponseEntity.ok(ApiResponse.success(productAnalyticsService.sales(productId, from, to, bucket)));
+    }
+
+    // Store boyutu (satır, ürün, tahmini bellek) ve son yükleme zamanı
+    @GetMapping("/store-stats")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> storeStats() {
+        return ResponseEntity.ok(ApiResponse.success(productAnalyticsService.storeStats()));
+    }
+}
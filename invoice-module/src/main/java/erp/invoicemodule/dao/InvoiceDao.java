@@ -1,7 +1,64 @@
 package erp.invoicemodule.dao;
 
+import erp.invoicemodule.enums.InvoiceType;
 import erp.invoicemodule.models.InvoiceEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface InvoiceDao extends JpaRepository<InvoiceEntity, Long> {
+
+    // Fatura + satırları tek sorguda (left join fetch).
+    @EntityGraph(attributePaths = "lines")
+    Optional<InvoiceEntity> findWithLinesById(Long id);
+
+    // Sayfadaki faturalar + satırları tek sorguda; sıralama çağıranda yapılır.
+    @EntityGraph(attributePaths = "lines")
+    List<InvoiceEntity> findWithLinesByIdIn(Collection<Long> ids);
+
+    /**
+     * Faturaların id'leri (yeni → eski), keyset sayfalı. Opsiyonel filtreler null kontrolüyle değil somut değerlerle
+     * bağlanır: tip verilmezse tüm tipler (types), zaman sınırları verilmezse TimeBounds.MIN/MAX; müşteri filtresi
+     * için ayrı sorgu vardır (findCustomerPageIds). Böylece PostgreSQL null parametrenin tipini çıkarmak zorunda
+     * kalmaz, planlar created_at partition elemesi ve (customer_id, created_at, id) indeksiyle kurulur.
+     * Koleksiyon fetch join'i ile LIMIT birlikte kullanılamadığı için (Hibernate sayfalamayı bellekte yapar)
+     * önce sayfanın id'leri alınır, satırlar findWithLinesByIdIn ile ikinci sorguda yüklenir.
+     */
+    @Query("select i.id from InvoiceEntity i " +
+            "where i.type in :types " +
+            "and i.createdAt >= :from " +
+            "and i.createdAt < :to " +
+            "and i.createdAt <= :afterCreatedAt " +
+            "and (i.createdAt < :afterCreatedAt or i.id < :afterId) " +
+            "order by i.createdAt desc, i.id desc")
+    List<Long> findPageIds(@Param("types") Collection<InvoiceType> types,
+                           @Param("from") Instant from,
+                           @Param("to") Instant to,
+                           @Param("afterCreatedAt") Instant afterCreatedAt,
+                           @Param("afterId") Long afterId,
+                           Pageable pageable);
+
+    // findPageIds'in tek müşteriye daraltılmışı.
+    @Query("select i.id from InvoiceEntity i " +
+            "where i.customer.id = :customerId " +
+            "and i.type in :types " +
+            "and i.createdAt >= :from " +
+            "and i.createdAt < :to " +
+            "and i.createdAt <= :afterCreatedAt " +
+            "and (i.createdAt < :afterCreatedAt or i.id < :afterId) " +
+            "order by i.createdAt desc, i.id desc")
+    List<Long> findCustomerPageIds(@Param("customerId") Long customerId,
+                                   @Param("types") Collection<InvoiceType> types,
+                                   @Param("from") Instant from,
+                                   @Param("to") Instant to,
+                                   @Param("afterCreatedAt") Instant afterCreatedAt,
+                                   @Param("afterId") Long afterId,
+                                   Pageable pageable);
 }
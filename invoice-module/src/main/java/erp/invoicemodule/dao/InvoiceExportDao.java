@@ -0,0 +1,43 @@
+package erp.invoicemodule.dao;
+
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.export.RowExporter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+
+/**
+ * Fatura ve fatura satırı export sorguları (bkz. RowExporter).
+ * created_at aralığı düz karşılaştırmadır → yalnızca ilgili aylık partition'lar taranır.
+ * Sıralama yapılmaz (sort maliyeti yok); satırlar partition sırasıyla, fiziksel sırada gelir.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InvoiceExportDao {
+
+    private static final String INVOICES_SQL =
+            "select id, customer_id as \"customerId\", type, total_amount as \"totalAmount\", created_at as \"createdAt\" " +
+                    "from invoices where created_at >= ? and created_at < ?";
+
+    private static final String LINES_SQL =
+            "select id, invoice_id as \"invoiceId\", product_id as \"productId\", quantity, price, created_at as \"createdAt\" " +
+                    "from invoice_lines where created_at >= ? and created_at < ?";
+
+    private final RowExporter rowExporter;
+
+    public long exportInvoices(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return rowExporter.export(INVOICES_SQL, range(from, to), format, gzip, out);
+    }
+
+    public long exportLines(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return rowExporter.export(LINES_SQL, range(from, to), format, gzip, out);
+    }
+
+    private static Object[] range(Instant from, Instant to) {
+        return new Object[]{Timestamp.from(from), Timestamp.from(to)};
+    }
+}
@@ -0,0 +1,51 @@
+package erp.invoicemodule.dao;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+
+/**
+ * Ürün satış analitiği için fatura satırı olguları (bkz. ProductSalesStore).
+ * Tüm satırlar salt okuma transaction'ında (yüklemede CommitFence'in REPEATABLE READ transaction'ı) fetch-size'lık
+ * cursor ile akıtılır; entity üretilmez.
+ */
+@Repository
+public class ProductSalesDao {
+
+    // day: UTC gün (epoch day). İade faturalarının satırları negatif adet/tutarla gelir (net satış).
+    private static final String SQL = """
+            select l.product_id, cast(l.created_at at time zone 'UTC' as date) - date '1970-01-01' as day,
+                   l.quantity, cast(l.price * l.quantity * 100 as bigint) as cents,
+                   case when i.type in ('RETAIL_RETURN', 'WHOLESALE_RETURN') then -1 else 1 end as sign
+            from invoice_lines l
+            join invoices i on i.id = l.invoice_id""";
+
+    public interface FactSink {
+        void accept(long productId, int day, int quantity, long cents);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+
+    public ProductSalesDao(DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${erp.analytics.products.fetch-size:10000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    public void streamAll(FactSink sink) {
+        readOnlyTx.executeWithoutResult(status -> jdbcTemplate.query(SQL, (RowCallbackHandler) rs -> {
+            int sign = rs.getInt(5);
+            sink.accept(rs.getLong(1), rs.getInt(2), sign * rs.getInt(3), sign * rs.getLong(4));
+        }));
+    }
+}
@@ -0,0 +1,30 @@
+package erp.invoicemodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+
+/**
+ * Toplu fatura yüklemesinde tek bir kaydın sonucu.
+ * - index : istek gövdesindeki sıra (0'dan başlar)
+ * - status: success | error
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBatchItemDto {
+    private int index;
+    private String status;
+    private Long invoiceId;
+    private Integer code;
+    private String message;
+
+    public static InvoiceBatchItemDto success(int index, Long invoiceId) {
+        return new InvoiceBatchItemDto(index, "success", invoiceId, null, null);
+    }
+
+    public static InvoiceBatchItemDto error(int index, int code, String message) {
+        return new InvoiceBatchItemDto(index, "error", null, code, message);
+    }
+}
@@ -0,0 +1,22 @@
+package erp.invoicemodule.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+@Data
+public class InvoiceBatchResultDto {
+    private int total;
+    private int succeeded;
+    private int failed;
+    private List<InvoiceBatchItemDto> items = new ArrayList<>();
+
+    public void add(InvoiceBatchItemDto item) {
+        items.add(item);
+        total++;
+        if ("success".equals(item.getStatus())) succeeded++;
+        else failed++;
+    }
+}
@@ -1,8 +1,9 @@
 package erp.invoicemodule.dto;
 
+import erp.commonmodule.money.Money;
 import lombok.Data;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 
@@ -11,6 +12,7 @@ public class InvoiceDto {
     private Long id;
     private Long customerId;
     private String type;
-    private BigDecimal totalAmount;
+    private Money totalAmount;
+    private Instant createdAt;
     private List<InvoiceLineDto> lines;
 }
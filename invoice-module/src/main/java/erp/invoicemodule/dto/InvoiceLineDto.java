@@ -1,13 +1,12 @@
 package erp.invoicemodule.dto;
 
+import erp.commonmodule.money.Money;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 
 @Data
 public class InvoiceLineDto {
     private Long productId;
     private Integer quantity;
-    private BigDecimal price;
+    private Money price;
 }
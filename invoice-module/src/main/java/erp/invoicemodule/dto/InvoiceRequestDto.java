@@ -1,8 +1,8 @@
 package erp.invoicemodule.dto;
 
+import erp.commonmodule.money.Money;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 
@@ -10,7 +10,7 @@ import java.util.List;
 public class InvoiceRequestDto {
     private Long customerId;
     private String type;
-    private BigDecimal amount;
+    private Money amount;
     private List<InvoiceLineDto> lines;
 }
 
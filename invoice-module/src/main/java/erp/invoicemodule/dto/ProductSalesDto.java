@@ -0,0 +1,20 @@
+package erp.invoicemodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Ürünün net satışı (iadeler düşülmüş): adet, tutar ve fatura satırı sayısı.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSalesDto {
+    private Long productId;
+    private long quantity;
+    private BigDecimal amount;
+    private long lines;
+}
@@ -0,0 +1,21 @@
+package erp.invoicemodule.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Zaman kovasının (gün/hafta/ay, UTC) net satışı; start: kovanın ilk günü.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketDto {
+    private LocalDate start;
+    private long quantity;
+    private BigDecimal amount;
+    private long lines;
+}
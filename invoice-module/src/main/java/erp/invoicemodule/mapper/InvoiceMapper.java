@@ -15,6 +15,8 @@ public interface InvoiceMapper {
     @Mapping(source = "customer.id", target = "customerId")
     InvoiceDto toDto(InvoiceEntity entity);
 
+    List<InvoiceDto> toDtoList(List<InvoiceEntity> entities);
+
 
 }
 
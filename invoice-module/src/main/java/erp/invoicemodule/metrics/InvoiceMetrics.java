@@ -0,0 +1,117 @@
+package erp.invoicemodule.metrics;
+
+import erp.commonmodule.util.TransactionHooks;
+import erp.invoicemodule.dto.InvoiceBatchItemDto;
+import erp.invoicemodule.enums.InvoiceType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+/**
+ * Fatura akışının Micrometer metrikleri.
+ * - erp.invoice.stage{stage=validate|map_lines|bonus|save|map_response}: createInvoice aşama süreleri
+ *   (save = persist; INSERT'ler commit'teki flush'ta çalışır, süreleri http/hibernate metriklerinde görünür)
+ * - erp.invoices{type}                    : oluşturulan fatura sayısı (açık transaction varsa commit'ten sonra sayılır)
+ * - erp.invoice.batch.chunk{outcome}      : chunk süresi (committed | retried: tek tek yeniden denendi)
+ * - erp.invoice.batch.items{status,code}  : batch kayıt sonuçları
+ * Sık kullanılan meter'lar açılışta bir kez kaydedilir; sıcak yolda registry araması yapılmaz.
+ */
+@Component
+public class InvoiceMetrics {
+
+    private final MeterRegistry registry;
+
+    private final Timer validate;
+    private final Timer mapLines;
+    private final Timer bonus;
+    private final Timer save;
+    private final Timer mapResponse;
+    private final Map<InvoiceType, Counter> created = new EnumMap<>(InvoiceType.class);
+
+    private final Timer chunkCommitted;
+    private final Timer chunkRetried;
+    private final Counter itemSucceeded;
+
+    public InvoiceMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.validate = stage("validate");
+        this.mapLines = stage("map_lines");
+        this.bonus = stage("bonus");
+        this.save = stage("save");
+        this.mapResponse = stage("map_response");
+        for (InvoiceType type : InvoiceType.values()) {
+            created.put(type, Counter.builder("erp.invoices")
+                    .tag("type", type.name())
+                    .register(registry));
+        }
+        this.chunkCommitted = chunk("committed");
+        this.chunkRetried = chunk("retried");
+        this.itemSucceeded = item("success", "none");
+    }
+
+    public Timer validate() { return validate; }
+
+    public Timer mapLines() { return mapLines; }
+
+    public Timer bonus() { return bonus; }
+
+    public Timer save() { return save; }
+
+    public Timer mapResponse() { return mapResponse; }
+
+    public void created(InvoiceType type) {
+        afterCommit(created.get(type)::increment);
+    }
+
+    public Timer chunk(boolean committed) {
+        return committed ? chunkCommitted : chunkRetried;
+    }
+
+    public void batchItem(InvoiceBatchItemDto item) {
+        if (item.getCode() == null) {
+            itemSucceeded.increment();
+        } else {
+            item(item.getStatus(), String.valueOf(item.getCode())).increment();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionHooks.register(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private Timer stage(String stage) {
+        return Timer.builder("erp.invoice.stage")
+                .description("createInvoice aşama süreleri")
+                .tag("stage", stage)
+                .register(registry);
+    }
+
+    private Timer chunk(String outcome) {
+        return Timer.builder("erp.invoice.batch.chunk")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter item(String status, String code) {
+        return Counter.builder("erp.invoice.batch.items")
+                .tag("status", status)
+                .tag("code", code)
+                .register(registry);
+    }
+}
@@ -1,18 +1,23 @@
 package erp.invoicemodule.models;
 
 import erp.commonmodule.model.AbstractEntity;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.money.MoneyConverter;
 import erp.crmmodule.models.CustomerEntity;
 import erp.invoicemodule.enums.InvoiceType;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Data
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        // Liste sorguları (yeni → eski keyset): müşteri filtresiyle ve filtresiz
+        @Index(name = "idx_invoices_customer_created", columnList = "customer_id, created_at, id"),
+        @Index(name = "idx_invoices_created", columnList = "created_at, id")
+})
 public class InvoiceEntity extends AbstractEntity {
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -24,7 +29,8 @@ public class InvoiceEntity extends AbstractEntity {
     private InvoiceType type;
 
     @Column(name = "total_amount", nullable = false, precision = 19, scale = 2)
-    private BigDecimal totalAmount;
+    @Convert(converter = MoneyConverter.class)
+    private Money totalAmount;
 
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<InvoiceLineEntity> lines = new ArrayList<>();
@@ -1,15 +1,17 @@
 package erp.invoicemodule.models;
 
 import erp.commonmodule.model.AbstractEntity;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.money.MoneyConverter;
 import jakarta.persistence.*;
 import lombok.Data;
 
-import java.math.BigDecimal;
-
 
 @Data
 @Entity
-@Table(name = "invoice_lines")
+@Table(name = "invoice_lines", indexes = {
+        @Index(name = "idx_invoice_lines_invoice", columnList = "invoice_id")
+})
 public class InvoiceLineEntity extends AbstractEntity {
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
@@ -23,5 +25,6 @@ public class InvoiceLineEntity extends AbstractEntity {
     private Integer quantity;
 
     @Column(nullable = false)
-    private BigDecimal price;
+    @Convert(converter = MoneyConverter.class)
+    private Money price;
 }
@@ -1,10 +1,42 @@
 package erp.invoicemodule.services;
 
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.response.CursorPage;
+import erp.invoicemodule.dto.InvoiceBatchResultDto;
 import erp.invoicemodule.dto.InvoiceDto;
 import erp.invoicemodule.dto.InvoiceRequestDto;
 
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.Iterator;
+
 
 public interface InvoiceService {
     InvoiceDto createInvoice(InvoiceRequestDto request);
-}
 
+    InvoiceDto getInvoice(Long id);
+
+    /**
+     * Faturalar (yeni → eski), keyset sayfalı; satırlarla birlikte.
+     * - customerId/type/from/to opsiyonel filtreler ([from, to) aralığı)
+     * Sayfa boyutundan bağımsız olarak 2 sorgu çalışır (id'ler + fatura/satırlar).
+     */
+    CursorPage<InvoiceDto> listInvoices(Long customerId, String type, Instant from, Instant to, String cursor, int limit);
+
+    /**
+     * [from, to) aralığındaki faturaları / fatura satırlarını out'a akıtır (from/to opsiyonel).
+     * DB cursor'ından doğrudan yazılır; entity yüklenmez. Yazılan satır sayısını döner.
+     */
+    long exportInvoices(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out);
+
+    long exportInvoiceLines(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out);
+
+    /**
+     * Toplu fatura yükleme (gün sonu POS aktarımı).
+     * - Kayıtlar iterator'dan akış halinde okunur, chunk'lar halinde ayrı transaction'larda commit edilir.
+     * - Her kayıt için başarı/hata sonucu döner; hatalı kayıt diğerlerini etkilemez.
+     * - Gövde bir kayıtta okunamazsa (bozuk JSON, yanlış tip) okunmuş kayıtlar yine yazılır; bozuk kayıt 2011 hatasıyla
+     *   raporlanır ve sonrası okunmaz (önceki chunk'lar zaten commit edilmiştir).
+     */
+    InvoiceBatchResultDto createInvoices(Iterator<InvoiceRequestDto> requests);
+}
@@ -1,26 +1,57 @@
 package erp.invoicemodule.services;
 
+import erp.commonmodule.events.InvoiceCreated;
+import erp.commonmodule.events.OutboxPublisher;
+import erp.commonmodule.exception.BaseException;
 import erp.commonmodule.exception.BusinessException;
 import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ResourceNotFoundException;
 import erp.commonmodule.exception.ValidationException;
+import erp.commonmodule.export.ExportFormat;
+import erp.commonmodule.money.Money;
+import erp.commonmodule.response.CursorPage;
+import erp.commonmodule.util.CursorUtils;
+import erp.commonmodule.util.TimeBounds;
+import erp.crmmodule.dto.BonusDeltaDto;
 import erp.crmmodule.models.CustomerEntity;
 import erp.crmmodule.services.CustomerService;
+import erp.invoicemodule.analytics.ProductSalesStore;
 import erp.invoicemodule.dao.InvoiceDao;
+import erp.invoicemodule.dao.InvoiceExportDao;
+import erp.invoicemodule.dto.InvoiceBatchItemDto;
+import erp.invoicemodule.dto.InvoiceBatchResultDto;
 import erp.invoicemodule.dto.InvoiceDto;
+import erp.invoicemodule.dto.InvoiceLineDto;
 import erp.invoicemodule.dto.InvoiceRequestDto;
 import erp.invoicemodule.enums.InvoiceType;
 import erp.invoicemodule.mapper.InvoiceLineMapper;
 import erp.invoicemodule.mapper.InvoiceMapper;
+import erp.invoicemodule.metrics.InvoiceMetrics;
 import erp.invoicemodule.models.InvoiceEntity;
 import erp.invoicemodule.models.InvoiceLineEntity;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,25 +62,253 @@ public class InvoiceServiceImpl implements InvoiceService {
     private final InvoiceLineMapper invoiceLineMapper;
 
     private final CustomerService customerService;
+    private final TransactionTemplate transactionTemplate;
+    private final InvoiceMetrics metrics;
+    private final OutboxPublisher outboxPublisher;
+    private final InvoiceExportDao invoiceExportDao;
+    private final ProductSalesStore productSalesStore;
 
     @PersistenceContext
     private EntityManager em;
 
+    @Value("${erp.invoice.batch.chunk-size:500}")
+    private int chunkSize;
+
+    /**
+     * Fatura kendi transaction'ında yazılır; bonus değişimi (applyBonusChange) müşterinin şeridini bu transaction
+     * bitene kadar tutar. Faturalar şeritte birleştirilmez: başka müşterilerin faturası bu transaction'a girmez.
+     */
     @Override
     @Transactional
     public InvoiceDto createInvoice(InvoiceRequestDto request) {
+        InvoiceType type = metrics.validate().record(() -> validate(request));
+        InvoiceEntity invoice = buildInvoice(request, type);
+        BonusDeltaDto delta = toBonusDelta(request, type);
+        metrics.bonus().record(() ->
+                customerService.applyBonusChange(request.getCustomerId(), delta.getAmount(), delta.getDescription()));
+
+        InvoiceEntity saved = metrics.save().record(() -> invoiceDao.save(invoice));
+        outboxPublisher.publish(toEvent(saved));
+        productSalesStore.addAfterCommit(List.of(saved));
+        metrics.created(type);
+
+        return metrics.mapResponse().record(() -> invoiceMapper.toDto(saved));
+    }
+
+    @Override
+    @Transactional
+    public InvoiceDto getInvoice(Long id) {
+        return invoiceDao.findWithLinesById(id)
+                .map(invoiceMapper::toDto)
+                .orElseThrow(() -> new ResourceNotFoundException(ErrorCode.INVOICE_NOT_FOUND));
+    }
+
+    @Override
+    @Transactional
+    public CursorPage<InvoiceDto> listInvoices(Long customerId, String type, Instant from, Instant to, String cursor, int limit) {
+        Set<InvoiceType> types = type == null ? EnumSet.allOf(InvoiceType.class) : EnumSet.of(parseType(type));
+        Instant afterCreatedAt = TimeBounds.MAX;
+        Long afterId = Long.MAX_VALUE;
+        if (cursor != null) {
+            String[] key = CursorUtils.decode(cursor, 2);
+            try {
+                afterCreatedAt = Instant.parse(key[0]);
+                afterId = Long.valueOf(key[1]);
+            } catch (DateTimeParseException | NumberFormatException ex) {
+                throw CursorUtils.invalid();
+            }
+        }
+
+        int pageSize = CursorUtils.clampLimit(limit);
+        Instant lower = TimeBounds.orMin(from);
+        Instant upper = TimeBounds.orMax(to);
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        List<Long> ids = customerId == null
+                ? invoiceDao.findPageIds(types, lower, upper, afterCreatedAt, afterId, page)
+                : invoiceDao.findCustomerPageIds(customerId, types, lower, upper, afterCreatedAt, afterId, page);
+        boolean hasNext = ids.size() > pageSize;
+        if (hasNext) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        Map<Long, InvoiceEntity> byId = invoiceDao.findWithLinesByIdIn(ids).stream()
+                .collect(Collectors.toMap(InvoiceEntity::getId, Function.identity()));
+        List<InvoiceEntity> invoices = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            invoices.add(byId.get(id));
+        }
+
+        String next = null;
+        if (hasNext) {
+            InvoiceEntity last = invoices.get(pageSize - 1);
+            next = CursorUtils.encode(last.getCreatedAt(), last.getId());
+        }
+        return new CursorPage<>(invoiceMapper.toDtoList(invoices), pageSize, next);
+    }
+
+    @Override
+    public long exportInvoices(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return invoiceExportDao.exportInvoices(TimeBounds.orMin(from), TimeBounds.orMax(to), format, gzip, out);
+    }
+
+    @Override
+    public long exportInvoiceLines(Instant from, Instant to, ExportFormat format, boolean gzip, OutputStream out) {
+        return invoiceExportDao.exportLines(TimeBounds.orMin(from), TimeBounds.orMax(to), format, gzip, out);
+    }
+
+    @Override
+    public InvoiceBatchResultDto createInvoices(Iterator<InvoiceRequestDto> requests) {
+        InvoiceBatchResultDto result = new InvoiceBatchResultDto();
+        List<InvoiceRequestDto> chunk = new ArrayList<>(chunkSize);
+        int offset = 0;
+
+        InvoiceBatchItemDto malformed = null;
+        while (malformed == null) {
+            try {
+                if (!requests.hasNext()) {
+                    break;
+                }
+                chunk.add(requests.next());
+            } catch (RuntimeException ex) {
+                // Gövde bu kayıttan sonra okunamaz: okunmuş kayıtlar yazılır, bozuk kayıt hata olarak raporlanır.
+                malformed = InvoiceBatchItemDto.error(offset + chunk.size(), ErrorCode.INVOICE_BATCH_MALFORMED.getCode(),
+                        ErrorCode.INVOICE_BATCH_MALFORMED.getDefaultMessage());
+            }
+            if (chunk.size() == chunkSize) {
+                processChunk(offset, chunk, result);
+                offset += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            processChunk(offset, chunk, result);
+        }
+        if (malformed != null) {
+            metrics.batchItem(malformed);
+            result.add(malformed);
+        }
+        return result;
+    }
+
+
+    /**
+     * Chunk'ı tek transaction'da yazar (JDBC batch insert).
+     * Chunk içinde bir kayıt DB/iş kuralı hatası verirse chunk geri alınır ve
+     * kayıtlar tek tek, kendi transaction'larında yeniden denenir.
+     */
+    private void processChunk(int offset, List<InvoiceRequestDto> chunk, InvoiceBatchResultDto result) {
+        InvoiceBatchItemDto[] items = new InvoiceBatchItemDto[chunk.size()];
+        List<InvoiceType> types = new ArrayList<>(chunk.size());
+        List<Integer> positions = new ArrayList<>(chunk.size());
+
+        // Validasyon DB'ye gitmez; hatalı kayıtlar chunk'ı bozmadan işaretlenir.
+        for (int i = 0; i < chunk.size(); i++) {
+            try {
+                types.add(validate(chunk.get(i)));
+                positions.add(i);
+            } catch (BaseException ex) {
+                items[i] = toErrorItem(offset + i, ex);
+            }
+        }
+
+        List<InvoiceEntity> invoices = new ArrayList<>(positions.size());
+        Timer.Sample sample = Timer.start();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Aynı müşterinin deltaları toplanır: bonus güncellemesi fatura başına değil müşteri başına yapılır.
+                Map<Long, List<BonusDeltaDto>> deltasByCustomer = new LinkedHashMap<>();
+                for (int k = 0; k < positions.size(); k++) {
+                    InvoiceRequestDto request = chunk.get(positions.get(k));
+                    invoices.add(buildInvoice(request, types.get(k)));
+                    deltasByCustomer.computeIfAbsent(request.getCustomerId(), id -> new ArrayList<>())
+                            .add(toBonusDelta(request, types.get(k)));
+                }
+                customerService.applyBonusChanges(deltasByCustomer);
+                invoiceDao.saveAll(invoices);
+                outboxPublisher.publishAll(invoices.stream().map(this::toEvent).toList());
+                productSalesStore.addAfterCommit(invoices);
+                em.flush();
+                em.clear();
+            });
+            for (int k = 0; k < invoices.size(); k++) {
+                int i = positions.get(k);
+                items[i] = InvoiceBatchItemDto.success(offset + i, invoices.get(k).getId());
+                metrics.created(types.get(k));
+            }
+            sample.stop(metrics.chunk(true));
+        } catch (RuntimeException chunkFailure) {
+            for (int i : positions) {
+                items[i] = createSingle(offset + i, chunk.get(i));
+            }
+            sample.stop(metrics.chunk(false));
+        }
+
+        for (InvoiceBatchItemDto item : items) {
+            metrics.batchItem(item);
+            result.add(item);
+        }
+    }
+
+    private InvoiceCreated toEvent(InvoiceEntity invoice) {
+        return new InvoiceCreated(invoice.getId(), invoice.getCustomer().getId(), invoice.getType().name(),
+                invoice.getTotalAmount().toBigDecimal(), invoice.getCreatedAt());
+    }
+
+    private InvoiceBatchItemDto createSingle(int index, InvoiceRequestDto request) {
+        try {
+            Long id = createInvoice(request).getId(); // kendi transaction'ı şeritte açılır ve commit edilir
+            return InvoiceBatchItemDto.success(index, id);
+        } catch (RuntimeException ex) {
+            return toErrorItem(index, ex);
+        }
+    }
+
+    private InvoiceBatchItemDto toErrorItem(int index, RuntimeException ex) {
+        if (ex instanceof BaseException base) {
+            return InvoiceBatchItemDto.error(index, base.getCode(), base.getMessage());
+        }
+        if (ex instanceof DataIntegrityViolationException) {
+            return InvoiceBatchItemDto.error(index, ErrorCode.DB_CONSTRAINT_VIOLATION.getCode(),
+                    ErrorCode.DB_CONSTRAINT_VIOLATION.getDefaultMessage());
+        }
+        return InvoiceBatchItemDto.error(index, ErrorCode.INTERNAL_ERROR.getCode(), ex.getMessage());
+    }
+
+
+    private InvoiceType validate(InvoiceRequestDto request) {
         // 0) amount negatif olamaz
-        if (request.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
             throw new ValidationException(ErrorCode.INVOICE_NEGATIVE_AMOUNT);
         }
 
-        final InvoiceType type;
+        // 1) tutar = Σ quantity × price (satırsız fatura da uyuşmazlıktır)
+        List<InvoiceLineDto> lines = request.getLines();
+        if (lines != null) {
+            for (int i = 0; i < lines.size(); i++) {
+                InvoiceLineDto line = lines.get(i);
+                if (line == null || line.getProductId() == null || line.getQuantity() == null || line.getQuantity() <= 0
+                        || line.getPrice() == null || line.getPrice().signum() < 0) {
+                    throw new ValidationException(ErrorCode.INVOICE_INVALID_LINE, "lines[" + i + "]");
+                }
+            }
+        }
+        if (!InvoiceTotals.matches(request.getAmount(), lines)) {
+            throw new ValidationException(ErrorCode.INVOICE_TOTAL_MISMATCH,
+                    "amount=" + request.getAmount() + ", lines=" + InvoiceTotals.total(lines).toPlainString());
+        }
+
+        return parseType(request.getType());
+    }
+
+    private static InvoiceType parseType(String type) {
         try {
-            type = InvoiceType.valueOf(request.getType());
-        } catch (IllegalArgumentException ex) {
+            return InvoiceType.valueOf(type);
+        } catch (IllegalArgumentException | NullPointerException ex) {
             throw new BusinessException(ErrorCode.INVOICE_INVALID_TYPE);
         }
+    }
 
+    private InvoiceEntity buildInvoice(InvoiceRequestDto request, InvoiceType type) {
         InvoiceEntity invoice = new InvoiceEntity();
         invoice.setType(type);
         invoice.setTotalAmount(request.getAmount());
@@ -57,19 +316,18 @@ public class InvoiceServiceImpl implements InvoiceService {
         CustomerEntity customerRef = em.getReference(CustomerEntity.class, request.getCustomerId());
         invoice.setCustomer(customerRef);
 
-        List<InvoiceLineEntity> lineEntities = invoiceLineMapper.toEntityList(request.getLines());
+        List<InvoiceLineEntity> lineEntities = metrics.mapLines().record(() -> invoiceLineMapper.toEntityList(request.getLines()));
         lineEntities.forEach(line -> line.setInvoice(invoice));
         invoice.setLines(lineEntities);
+        return invoice;
+    }
 
-        BigDecimal delta = switch (type) {
+    private BonusDeltaDto toBonusDelta(InvoiceRequestDto request, InvoiceType type) {
+        Money delta = switch (type) {
             case RETAIL_SALE, WHOLESALE_SALE -> request.getAmount().negate();
             case RETAIL_RETURN, WHOLESALE_RETURN -> request.getAmount();
         };
         String desc = (delta.signum() < 0 ? "Bonus harcandı" : "Bonus iade edildi") + " (fatura: " + type + ")";
-        customerService.applyBonusChange(request.getCustomerId(), delta, desc);
-
-        InvoiceEntity saved = invoiceDao.save(invoice);
-
-        return invoiceMapper.toDto(saved);
+        return new BonusDeltaDto(delta, desc);
     }
 }
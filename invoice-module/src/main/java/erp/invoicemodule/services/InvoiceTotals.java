@@ -0,0 +1,55 @@
+package erp.invoicemodule.services;
+
+import erp.commonmodule.money.Money;
+import erp.invoicemodule.dto.InvoiceLineDto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+
+/**
+ * Fatura satır toplamı (Σ quantity × price) ve fatura tutarıyla karşılaştırma.
+ * Fiyatlar Money (kuruş, long) olduğundan toplam ara nesne üretmeden long ile hesaplanır;
+ * long taşmasında tam BigDecimal hesabına düşülür. Satırların null alanları önceden kontrol edilmiş olmalıdır.
+ */
+public final class InvoiceTotals {
+
+    private InvoiceTotals() {
+    }
+
+    public static boolean matches(Money amount, List<InvoiceLineDto> lines) {
+        try {
+            return amount.cents() == linesCents(lines);
+        } catch (ArithmeticException overflow) {
+            return amount.toBigDecimal().compareTo(exactTotal(lines)) == 0;
+        }
+    }
+
+    public static BigDecimal total(List<InvoiceLineDto> lines) {
+        try {
+            return BigDecimal.valueOf(linesCents(lines), Money.SCALE);
+        } catch (ArithmeticException overflow) {
+            return exactTotal(lines);
+        }
+    }
+
+    private static long linesCents(List<InvoiceLineDto> lines) {
+        if (lines == null) {
+            return 0;
+        }
+        long total = 0;
+        for (int i = 0, n = lines.size(); i < n; i++) {
+            InvoiceLineDto line = lines.get(i);
+            total = Math.addExact(total, Math.multiplyExact(line.getPrice().cents(), (long) line.getQuantity()));
+        }
+        return total;
+    }
+
+    private static BigDecimal exactTotal(List<InvoiceLineDto> lines) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (InvoiceLineDto line : lines) {
+            total = total.add(line.getPrice().toBigDecimal().multiply(BigDecimal.valueOf(line.getQuantity())));
+        }
+        return total;
+    }
+}
@@ -0,0 +1,24 @@
+package erp.invoicemodule.services;
+
+import erp.invoicemodule.dto.ProductSalesDto;
+import erp.invoicemodule.dto.SalesBucketDto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Bellek içi ürün satış store'u üzerinden sorgular (bkz. ProductSalesStore).
+ * from/to UTC gün (dahil); verilmezse son 30 gün.
+ */
+public interface ProductAnalyticsService {
+
+    /** by: amount | quantity */
+    List<ProductSalesDto> topProducts(LocalDate from, LocalDate to, int limit, String by);
+
+    /** bucket: day | week | month; productId null ise tüm ürünler. */
+    List<SalesBucketDto> sales(Long productId, LocalDate from, LocalDate to, String bucket);
+
+    Map<String, Object> storeStats();
+}
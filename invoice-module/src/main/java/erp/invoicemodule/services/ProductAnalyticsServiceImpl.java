@@ -0,0 +1,65 @@
+package erp.invoicemodule.services;
+
+import erp.commonmodule.exception.ErrorCode;
+import erp.commonmodule.exception.ValidationException;
+import erp.invoicemodule.analytics.ProductSalesStore;
+import erp.invoicemodule.dto.ProductSalesDto;
+import erp.invoicemodule.dto.SalesBucketDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class ProductAnalyticsServiceImpl implements ProductAnalyticsService {
+
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 36_600;
+    private static final int MAX_LIMIT = 1000;
+
+    private final ProductSalesStore productSalesStore;
+
+    @Override
+    public List<ProductSalesDto> topProducts(LocalDate from, LocalDate to, int limit, String by) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new ValidationException(ErrorCode.PRODUCT_ANALYTICS_INVALID_QUERY, "limit 1-" + MAX_LIMIT);
+        }
+        LocalDate toDay = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        LocalDate fromDay = from == null ? toDay.minusDays(DEFAULT_DAYS - 1) : from;
+        validateRange(fromDay, toDay);
+        return productSalesStore.top(fromDay, toDay, limit, parse(ProductSalesStore.Order.class, by, "by"));
+    }
+
+    @Override
+    public List<SalesBucketDto> sales(Long productId, LocalDate from, LocalDate to, String bucket) {
+        LocalDate toDay = to == null ? LocalDate.now(ZoneOffset.UTC) : to;
+        LocalDate fromDay = from == null ? toDay.minusDays(DEFAULT_DAYS - 1) : from;
+        validateRange(fromDay, toDay);
+        return productSalesStore.buckets(productId, fromDay, toDay, parse(ProductSalesStore.Bucket.class, bucket, "bucket"));
+    }
+
+    @Override
+    public Map<String, Object> storeStats() {
+        return productSalesStore.stats();
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new ValidationException(ErrorCode.PRODUCT_ANALYTICS_INVALID_QUERY, "from <= to, en fazla " + MAX_DAYS + " gün");
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException ex) {
+            throw new ValidationException(ErrorCode.PRODUCT_ANALYTICS_INVALID_QUERY, name + ": " + value);
+        }
+    }
+}
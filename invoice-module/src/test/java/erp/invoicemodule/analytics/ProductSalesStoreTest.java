@@ -0,0 +1,190 @@
+package erp.invoicemodule.analytics;
+
+import erp.commonmodule.money.Money;
+import erp.commonmodule.reload.CommitFence;
+import erp.invoicemodule.dao.ProductSalesDao;
+import erp.invoicemodule.dto.ProductSalesDto;
+import erp.invoicemodule.dto.SalesBucketDto;
+import erp.invoicemodule.enums.InvoiceType;
+import erp.invoicemodule.models.InvoiceEntity;
+import erp.invoicemodule.models.InvoiceLineEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static erp.invoicemodule.analytics.ProductSalesStore.SEGMENT_SIZE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+
+class ProductSalesStoreTest {
+
+    private static final LocalDate D100 = LocalDate.ofEpochDay(100);
+
+    private final List<ProductSalesStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        stores.forEach(ProductSalesStore::shutdown);
+    }
+
+    @Test
+    void segmentsOutsideTheRangeAreSkippedWithoutLosingRows() {
+        // Segment 0: gün 100, segment 1: gün 200, segment 2 (kısmi): gün 150 ve 300 → [150, 300]
+        ProductSalesStore store = inMemory(sink -> {
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                sink.accept(1, 100, 1, 100);
+            }
+            for (int i = 0; i < SEGMENT_SIZE; i++) {
+                sink.accept(2, 200, 1, 100);
+            }
+            for (int i = 0; i < 5; i++) {
+                sink.accept(3, 150, 2, 300);
+                sink.accept(3, 300, 2, 300);
+            }
+        });
+        assertThat(store.stats().get("segments")).isEqualTo(3);
+
+        assertThat(store.top(day(200), day(200), 10, ProductSalesStore.Order.QUANTITY))
+                .containsExactly(new ProductSalesDto(2L, SEGMENT_SIZE, Money.ofCents(100L * SEGMENT_SIZE).toBigDecimal(), SEGMENT_SIZE));
+        assertThat(store.top(day(150), day(150), 10, ProductSalesStore.Order.QUANTITY))
+                .containsExactly(new ProductSalesDto(3L, 10, Money.ofCents(1500).toBigDecimal(), 5));
+        // Segment 2'nin aralığında ama satırı olmayan günler
+        assertThat(store.top(day(250), day(260), 10, ProductSalesStore.Order.QUANTITY)).isEmpty();
+        assertThat(store.top(day(101), day(149), 10, ProductSalesStore.Order.QUANTITY)).isEmpty();
+
+        List<ProductSalesDto> all = store.top(day(0), day(400), 10, ProductSalesStore.Order.AMOUNT);
+        assertThat(all).extracting(ProductSalesDto::getProductId).containsExactly(1L, 2L, 3L);
+        assertThat(all).extracting(ProductSalesDto::getLines).containsExactly((long) SEGMENT_SIZE, (long) SEGMENT_SIZE, 10L);
+    }
+
+    @Test
+    void daysMapToMondayWeeksAndCalendarMonths() {
+        ProductSalesStore store = inMemory(sink -> {
+            sink.accept(1, epochDay("2023-12-31"), 16, 1600); // aralık dışı (önceki haftanın Pazar'ı)
+            sink.accept(1, epochDay("2024-01-03"), 1, 100);
+            sink.accept(1, epochDay("2024-01-07"), 2, 200);   // Pazar: aynı hafta
+            sink.accept(1, epochDay("2024-01-08"), 4, 400);   // Pazartesi: yeni hafta
+            sink.accept(1, epochDay("2024-02-14"), 8, 800);
+            sink.accept(2, epochDay("2024-01-08"), 32, 3200); // başka ürün
+        });
+
+        // Çarşamba'dan başlayan aralık: ilk kova o haftanın Pazartesi'si
+        List<SalesBucketDto> weeks = store.buckets(1L, LocalDate.parse("2024-01-03"), LocalDate.parse("2024-02-14"),
+                ProductSalesStore.Bucket.WEEK);
+        assertThat(weeks).extracting(SalesBucketDto::getStart).containsExactly(
+                LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-08"), LocalDate.parse("2024-01-15"),
+                LocalDate.parse("2024-01-22"), LocalDate.parse("2024-01-29"), LocalDate.parse("2024-02-05"),
+                LocalDate.parse("2024-02-12"));
+        assertThat(weeks).extracting(SalesBucketDto::getQuantity).containsExactly(3L, 4L, 0L, 0L, 0L, 0L, 8L);
+        assertThat(weeks).extracting(SalesBucketDto::getLines).containsExactly(2L, 1L, 0L, 0L, 0L, 0L, 1L);
+
+        List<SalesBucketDto> months = store.buckets(null, LocalDate.parse("2024-01-05"), LocalDate.parse("2024-02-14"),
+                ProductSalesStore.Bucket.MONTH);
+        assertThat(months).extracting(SalesBucketDto::getStart)
+                .containsExactly(LocalDate.parse("2024-01-01"), LocalDate.parse("2024-02-01"));
+        assertThat(months).extracting(SalesBucketDto::getQuantity).containsExactly(38L, 8L);
+
+        List<SalesBucketDto> days = store.buckets(1L, LocalDate.parse("2024-01-07"), LocalDate.parse("2024-01-09"),
+                ProductSalesStore.Bucket.DAY);
+        assertThat(days).extracting(SalesBucketDto::getQuantity).containsExactly(2L, 4L, 0L);
+
+        assertThat(store.buckets(99L, LocalDate.parse("2024-01-01"), LocalDate.parse("2024-01-02"), ProductSalesStore.Bucket.DAY))
+                .extracting(SalesBucketDto::getLines).containsExactly(0L, 0L);
+    }
+
+    @Test
+    void returnsAreNegated() {
+        ProductSalesStore store = inMemory(sink -> {
+        });
+        store.addAfterCommit(List.of(
+                invoice(InvoiceType.RETAIL_SALE, 7L, 5, 1000),
+                invoice(InvoiceType.WHOLESALE_SALE, 8L, 1, 500),
+                invoice(InvoiceType.RETAIL_RETURN, 7L, 2, 1000),
+                invoice(InvoiceType.WHOLESALE_RETURN, 8L, 3, 500)));
+
+        List<ProductSalesDto> top = store.top(D100, D100, 10, ProductSalesStore.Order.AMOUNT);
+        assertThat(top).containsExactly(
+                new ProductSalesDto(7L, 3, Money.ofCents(3000).toBigDecimal(), 2),
+                new ProductSalesDto(8L, -2, Money.ofCents(-1000).toBigDecimal(), 2));
+    }
+
+    @Test
+    void invoicesCommittedDuringReloadAreAddedOnce() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        long[] txid = new long[1];
+        when(jdbcTemplate.queryForObject(eq("select cast(pg_current_xact_id() as text)"), eq(String.class)))
+                .thenAnswer(inv -> String.valueOf(txid[0]));
+        when(jdbcTemplate.queryForObject(eq("select cast(pg_current_snapshot() as text)"), eq(String.class)))
+                .thenReturn("120:140:");
+        ProductSalesDao dao = mock(ProductSalesDao.class);
+        ProductSalesStore store = new ProductSalesStore(dao,
+                new CommitFence(jdbcTemplate, mock(PlatformTransactionManager.class), Duration.ofSeconds(5)), true, 1);
+        stores.add(store);
+
+        // Tarama 130'un faturasını görür (snapshot'ta), 150'ninkini görmez; ikisinin de callback'i tarama sırasında gelir.
+        doAnswer(inv -> {
+            ProductSalesDao.FactSink sink = inv.getArgument(0);
+            sink.accept(7L, 100, 1, 1000);
+            txid[0] = 130;
+            commit(store, invoice(InvoiceType.RETAIL_SALE, 7L, 1, 1000));
+            txid[0] = 150;
+            commit(store, invoice(InvoiceType.RETAIL_SALE, 7L, 1, 1000));
+            return null;
+        }).when(dao).streamAll(any());
+        store.reload();
+
+        assertThat(store.top(D100, D100, 10, ProductSalesStore.Order.QUANTITY))
+                .containsExactly(new ProductSalesDto(7L, 2, Money.ofCents(2000).toBigDecimal(), 2));
+    }
+
+    private ProductSalesStore inMemory(Consumer<ProductSalesDao.FactSink> source) {
+        ProductSalesStore store = ProductSalesStore.inMemory(2, source);
+        stores.add(store);
+        return store;
+    }
+
+    private static void commit(ProductSalesStore store, InvoiceEntity invoice) {
+        TransactionSynchronizationManager.initSynchronization();
+        store.addAfterCommit(List.of(invoice));
+        List<TransactionSynchronization> syncs = TransactionSynchronizationManager.getSynchronizations();
+        syncs.forEach(s -> s.beforeCommit(false));
+        TransactionSynchronizationManager.clearSynchronization();
+        syncs.forEach(TransactionSynchronization::afterCommit);
+        syncs.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+
+    private static InvoiceEntity invoice(InvoiceType type, long productId, int quantity, long priceCents) {
+        InvoiceEntity invoice = new InvoiceEntity();
+        invoice.setType(type);
+        invoice.setCreatedAt(D100.atStartOfDay(ZoneOffset.UTC).toInstant());
+        InvoiceLineEntity line = new InvoiceLineEntity();
+        line.setProductId(productId);
+        line.setQuantity(quantity);
+        line.setPrice(Money.ofCents(priceCents));
+        invoice.getLines().add(line);
+        return invoice;
+    }
+
+    private static LocalDate day(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay);
+    }
+
+    private static int epochDay(String date) {
+        return (int) LocalDate.parse(date).toEpochDay();
+    }
+}
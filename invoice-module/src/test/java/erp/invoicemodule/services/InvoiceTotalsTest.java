@@ -0,0 +1,71 @@
+package erp.invoicemodule.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import erp.commonmodule.money.Money;
+import erp.invoicemodule.dto.InvoiceLineDto;
+import erp.invoicemodule.dto.InvoiceRequestDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+class InvoiceTotalsTest {
+
+    @Test
+    void sumsLinesInCents() {
+        List<InvoiceLineDto> lines = List.of(line(1249, 2), line(1, 3), line(0, 5));
+        assertThat(InvoiceTotals.matches(Money.ofCents(2501), lines)).isTrue();
+        assertThat(InvoiceTotals.matches(Money.ofCents(2500), lines)).isFalse();
+        assertThat(InvoiceTotals.total(lines)).isEqualByComparingTo("25.01");
+    }
+
+    @Test
+    void invoiceWithoutLinesOnlyMatchesZero() {
+        assertThat(InvoiceTotals.matches(Money.ofCents(1), null)).isFalse();
+        assertThat(InvoiceTotals.matches(Money.ofCents(1), List.of())).isFalse();
+        assertThat(InvoiceTotals.matches(Money.ZERO, List.of())).isTrue();
+        assertThat(InvoiceTotals.total(null)).isEqualByComparingTo("0");
+    }
+
+    @Test
+    void fallsBackToBigDecimalWhenLineProductOverflows() {
+        // price × quantity long'u aşar: toplam BigDecimal ile tam hesaplanır, hiçbir Money tutarı eşleşmez
+        List<InvoiceLineDto> lines = List.of(line(Long.MAX_VALUE / 2, 3));
+        BigDecimal exact = BigDecimal.valueOf(Long.MAX_VALUE / 2).multiply(BigDecimal.valueOf(3)).movePointLeft(2);
+        assertThat(InvoiceTotals.total(lines)).isEqualByComparingTo(exact);
+        assertThat(InvoiceTotals.matches(Money.ofCents(Long.MAX_VALUE), lines)).isFalse();
+    }
+
+    @Test
+    void fallsBackToBigDecimalWhenSumOverflows() {
+        List<InvoiceLineDto> lines = List.of(line(Long.MAX_VALUE, 1), line(1, 1), line(-2, 1));
+        // Ara toplam taşar, sonuç yine long'a sığar: BigDecimal yolu doğru sonucu bulur
+        assertThat(InvoiceTotals.total(lines)).isEqualByComparingTo(BigDecimal.valueOf(Long.MAX_VALUE - 1, 2));
+        assertThat(InvoiceTotals.matches(Money.ofCents(Long.MAX_VALUE - 1), lines)).isTrue();
+        assertThat(InvoiceTotals.matches(Money.ofCents(Long.MAX_VALUE), lines)).isFalse();
+    }
+
+    @Test
+    void pricesWithMoreThanTwoDecimalsAreRoundedBeforeSumming() throws Exception {
+        // JSON'daki 3+ ondalıklı tutarlar kuruşa HALF_UP yuvarlanır; kontrol yuvarlanmış satır fiyatlarıyla yapılır.
+        InvoiceRequestDto request = new ObjectMapper().readValue("""
+                {"customerId": 1, "type": "RETAIL_SALE", "amount": 3.015,
+                 "lines": [{"productId": 7, "quantity": 3, "price": 1.005}]}""", InvoiceRequestDto.class);
+        assertThat(request.getLines().get(0).getPrice()).isEqualTo(Money.ofCents(101));
+        assertThat(request.getAmount()).isEqualTo(Money.ofCents(302));
+        assertThat(InvoiceTotals.total(request.getLines())).isEqualByComparingTo("3.03");
+        assertThat(InvoiceTotals.matches(request.getAmount(), request.getLines())).isFalse();
+        assertThat(InvoiceTotals.matches(Money.ofCents(303), request.getLines())).isTrue();
+    }
+
+    private static InvoiceLineDto line(long priceCents, int quantity) {
+        InvoiceLineDto line = new InvoiceLineDto();
+        line.setProductId(7L);
+        line.setQuantity(quantity);
+        line.setPrice(Money.ofCents(priceCents));
+        return line;
+    }
+}